@@ -1,5 +1,7 @@
 package com.fnklabs.dds.cluster;
 
+import com.fnklabs.concurrent.ExecutorMode;
+import com.fnklabs.concurrent.WaitStrategyType;
 import com.google.common.net.HostAndPort;
 import org.jetbrains.annotations.Nullable;
 
@@ -30,4 +32,25 @@ public interface Configuration {
     default int getNetworkPoolSize() {
         return 1;
     }
+
+    /**
+     * Wait strategy of network workers while they have no messages. Trade-off between latency and CPU usage of idle node
+     */
+    default WaitStrategyType getWaitStrategy() {
+        return WaitStrategyType.PARK;
+    }
+
+    /**
+     * Mode of worker and blocking I/O executors. {@link ExecutorMode#VIRTUAL} is preferred for blocking storage and file I/O
+     */
+    default ExecutorMode getExecutorMode() {
+        return ExecutorMode.PLATFORM;
+    }
+
+    /**
+     * Max concurrently executed tasks of {@link ExecutorMode#VIRTUAL} executor
+     */
+    default int getMaxConcurrentTasks() {
+        return 1024;
+    }
 }
@@ -77,7 +77,12 @@ class ServerNodeImpl implements Node {
         KryoSerializer serializer = new KryoSerializer();
 
         this.configuration = configuration;
-        this.serverPool = Executors.fixedPoolExecutor(configuration.getWorkerPoolSize(), "dds.server.worker");
+        this.serverPool = Executors.executor(
+                configuration.getExecutorMode(),
+                configuration.getWorkerPoolSize(),
+                configuration.getMaxConcurrentTasks(),
+                "dds.server.worker"
+        );
         this.clientNodeRegistry = new ClientNodeRegistry(configuration.getNetworkPoolSize(), serializer);
 
         this.networkExecutor = NioExecutor.builder()
@@ -86,7 +91,12 @@ class ServerNodeImpl implements Node {
                                           .setOpWriteExecutor(configuration.getNioPoolSize())
                                           .build();
 
-        this.networkServer = new NetworkServer(configuration.listenAddress(), configuration.getNetworkPoolSize(), new ServerIncomeMessageHandler(this));
+        this.networkServer = new NetworkServer(
+                configuration.listenAddress(),
+                configuration.getNetworkPoolSize(),
+                configuration.getWaitStrategy(),
+                new ServerIncomeMessageHandler(this)
+        );
 
         for (int i = 0; i < configuration.getWorkerPoolSize(); i++) {
             getServerPool().submit(new WatchDog(this, isRunning));
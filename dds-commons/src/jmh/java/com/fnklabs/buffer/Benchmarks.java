@@ -0,0 +1,44 @@
+package com.fnklabs.buffer;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+
+/**
+ * Runs buffer benchmarks and writes results as JSON into build/reports/jmh so they can be compared between releases
+ */
+public final class Benchmarks {
+    private static final String RESULTS_DIRECTORY = "build/reports/jmh";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Run all buffer benchmarks
+     */
+    public static void main(String[] args) throws RunnerException {
+        run(BufferBenchmark.class.getPackageName() + ".*Benchmark", "buffer");
+    }
+
+    static void run(Class<?> benchmark) throws RunnerException {
+        run(benchmark.getName(), benchmark.getSimpleName());
+    }
+
+    private static void run(String include, String resultName) throws RunnerException {
+        new File(RESULTS_DIRECTORY).mkdirs();
+
+        Options opt = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(String.format("%s/%s.json", RESULTS_DIRECTORY, resultName))
+                .verbosity(VerboseMode.NORMAL)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.fnklabs.buffer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of buffer allocation and release by {@link BufferType} and by {@link BufferPool}
+ * <p>
+ * MAPPED type is not included because every allocation creates temporary file that is removed only on JVM exit
+ */
+@Threads(value = 1)
+@Fork(value = 2, jvmArgs = {
+        "-server",
+        "-Xms1G",
+        "-Xmx4G",
+        "-XX:+UseG1GC",
+        "-XX:+AlwaysPreTouch",
+        "-XX:MaxDirectMemorySize=4G",
+})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BufferAllocationBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(BufferAllocationBenchmark.class);
+    }
+
+    @Benchmark
+    public Buffer allocate(Context context) throws IOException {
+        Buffer buffer = context.bufferType.get(context.size);
+
+        if (buffer instanceof Closeable) {
+            ((Closeable) buffer).close();
+        }
+
+        return buffer;
+    }
+
+    @Benchmark
+    @Threads(value = 4)
+    public Buffer allocatePooled(PoolContext context) {
+        PooledBuffer buffer = context.pool.allocate(context.size);
+
+        buffer.release();
+
+        return buffer;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Context {
+        @Param({"HEAP", "DIRECT", "UNSAFE"})
+        BufferType bufferType;
+
+        @Param({"4096", "1048576", "67108864"})
+        long size;
+    }
+
+    @State(Scope.Benchmark)
+    public static class PoolContext {
+        @Param({"64", "4096", "1048576"})
+        int size;
+
+        BufferPool pool;
+
+        @Setup
+        public void setUp() {
+            pool = BufferPool.builder()
+                             .setBufferType(BufferType.UNSAFE)
+                             .setMaxSize(1024 * 1024)
+                             .build();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            pool.close();
+        }
+    }
+}
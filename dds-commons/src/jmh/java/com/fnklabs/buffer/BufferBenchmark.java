@@ -1,99 +1,208 @@
 package com.fnklabs.buffer;
 
-import com.google.common.base.Verify;
 import org.openjdk.jmh.annotations.*;
-import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
-import org.openjdk.jmh.runner.options.VerboseMode;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
-@Threads(value = 8)
-@Fork(value = 4, jvmArgs = {
+/**
+ * Sequential and random access to buffers with different record sizes
+ */
+@Threads(value = 1)
+@Fork(value = 2, jvmArgs = {
         "-server",
-        "-Xms512m",
+        "-Xms1G",
         "-Xmx4G",
-        "-XX:NewSize=512m",
-        "-XX:SurvivorRatio=6",
-        "-XX:+AlwaysPreTouch",
         "-XX:+UseG1GC",
-        "-XX:MaxGCPauseMillis=2000",
-        "-XX:GCTimeRatio=4",
-        "-XX:InitiatingHeapOccupancyPercent=70",
-        "-XX:G1HeapRegionSize=8M",
-        "-XX:ConcGCThreads=2",
-        "-XX:G1HeapWastePercent=10",
-        "-XX:+UseTLAB",
-        "-XX:+ScavengeBeforeFullGC",
-        "-XX:+DisableExplicitGC",
-        "-XX:MaxDirectMemorySize=1G",
-        "-XX:+UseLargePages",
-        "-XX:+UseCompressedOops"
+        "-XX:+AlwaysPreTouch",
+        "-XX:MaxDirectMemorySize=4G",
 })
-@Warmup(iterations = 10, timeUnit = TimeUnit.MILLISECONDS)
-@Measurement(iterations = 10, timeUnit = TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
 public class BufferBenchmark {
     public static void main(String[] args) throws RunnerException {
-        Options opt = new OptionsBuilder()
-                .include(BufferBenchmark.class.getName())
-                .verbosity(VerboseMode.EXTRA)
-                .build();
+        Benchmarks.run(BufferBenchmark.class);
+    }
+
+    @Benchmark
+    public byte[] readSequential(Context context, Positions positions) {
+        context.buffer.read(positions.nextSequential(context), positions.record, 0, context.recordSize);
+
+        return positions.record;
+    }
 
-        new Runner(opt).run();
+    @Benchmark
+    public byte[] readRandom(Context context, Positions positions) {
+        context.buffer.read(positions.nextRandom(context), positions.record, 0, context.recordSize);
+
+        return positions.record;
     }
 
     @Benchmark
-    public void read(Context context) {
-        Verify.verifyNotNull(context.buffer);
-        Verify.verifyNotNull(context.dataBuffer);
+    public void writeSequential(Context context, Positions positions) {
+        context.buffer.write(positions.nextSequential(context), positions.record, 0, context.recordSize);
+    }
 
-        context.buffer.read(0, context.dataBuffer);
+    @Benchmark
+    public void writeRandom(Context context, Positions positions) {
+        context.buffer.write(positions.nextRandom(context), positions.record, 0, context.recordSize);
     }
 
+    @Benchmark
+    public long getLongSequential(Context context, Positions positions) {
+        return context.buffer.getLong(positions.nextSequential(context));
+    }
 
     @Benchmark
-    public void write(Context context) {
-        context.buffer.write(0, context.dataBuffer);
+    public long getLongRandom(Context context, Positions positions) {
+        return context.buffer.getLong(positions.nextRandom(context));
     }
 
+    @Benchmark
+    public void putLongSequential(Context context, Positions positions) {
+        context.buffer.putLong(positions.nextSequential(context), context.recordSize);
+    }
+
+    @Benchmark
+    public void putLongRandom(Context context, Positions positions) {
+        context.buffer.putLong(positions.nextRandom(context), context.recordSize);
+    }
+
+    /**
+     * Read every record of the buffer
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] scan(Context context, Positions positions) {
+        for (long position = 0; position <= Context.ALLOCATED_SIZE - context.recordSize; position += context.recordSize) {
+            context.buffer.read(position, positions.record, 0, context.recordSize);
+        }
+
+        return positions.record;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] scanCursor(Context context, Positions positions) {
+        BufferCursor cursor = BufferCursor.of(context.buffer, 0, Context.ALLOCATED_SIZE, context.recordSize);
+
+        while (cursor.hasNext()) {
+            cursor.nextLong();
+            cursor.read(0, positions.record, 0, context.recordSize);
+        }
+
+        return positions.record;
+    }
 
+    /**
+     * Read first long of every record
+     */
     @Benchmark
-    public void scan(Context context) {
-        for (int i = 0; i < context.buffer.bufferSize(); i += context.bufferSize) {
-            context.buffer.read(0, context.dataBuffer);
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long scanLong(Context context) {
+        long sum = 0;
+
+        for (long position = 0; position <= Context.ALLOCATED_SIZE - context.recordSize; position += context.recordSize) {
+            sum += context.buffer.getLong(position);
         }
+
+        return sum;
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long scanLongCursor(Context context) {
+        long sum = 0;
+
+        BufferCursor cursor = BufferCursor.of(context.buffer, 0, Context.ALLOCATED_SIZE, context.recordSize);
+
+        while (cursor.hasNext()) {
+            cursor.nextLong();
+
+            sum += cursor.getLong(0);
+        }
+
+        return sum;
+    }
 
     @State(Scope.Benchmark)
     public static class Context {
-        public static final int ALLOCATED_SIZE = 512 * 1024 * 1024;
+        public static final long ALLOCATED_SIZE = 256 * 1024 * 1024;
 
-        @Param({
-//                "8",
-                "64",
-                "4096",
-//                "65536"
-        })
-        int bufferSize;
+        /**
+         * Count of precomputed random positions, must be power of two
+         */
+        public static final int RANDOM_POSITIONS = 1 << 20;
 
-        @Param({"HEAP", "DIRECT", "UNSAFE"})
+        @Param({"HEAP", "DIRECT", "UNSAFE", "MAPPED"})
         BufferType bufferType;
 
-        Buffer buffer;
+        @Param({"8", "64", "4096"})
+        int recordSize;
 
+        Buffer buffer;
 
-        byte[] dataBuffer;
+        long[] randomPositions;
 
         @Setup
         public void setUp() {
-            dataBuffer = new byte[bufferSize];
             buffer = bufferType.get(ALLOCATED_SIZE);
+
+            // touch all pages so page faults are not measured
+            for (long position = 0; position < ALLOCATED_SIZE; position += 4096) {
+                buffer.putLong(position, position);
+            }
+
+            Random random = new Random(1);
+
+            long records = ALLOCATED_SIZE / recordSize;
+
+            randomPositions = new long[RANDOM_POSITIONS];
+
+            for (int i = 0; i < randomPositions.length; i++) {
+                randomPositions[i] = (long) (random.nextDouble() * records) * recordSize;
+            }
         }
 
+        @TearDown
+        public void tearDown() throws IOException {
+            if (buffer instanceof Closeable) {
+                ((Closeable) buffer).close();
+            }
+        }
     }
 
+    @State(Scope.Thread)
+    public static class Positions {
+        byte[] record = new byte[4096];
+
+        long sequential;
+
+        int random;
+
+        long nextSequential(Context context) {
+            long position = sequential;
 
-}
\ No newline at end of file
+            sequential += context.recordSize;
+
+            if (sequential > Context.ALLOCATED_SIZE - context.recordSize) {
+                sequential = 0;
+            }
+
+            return position;
+        }
+
+        long nextRandom(Context context) {
+            return context.randomPositions[random++ & (Context.RANDOM_POSITIONS - 1)];
+        }
+    }
+}
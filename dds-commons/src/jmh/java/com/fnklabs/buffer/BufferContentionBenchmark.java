@@ -0,0 +1,115 @@
+package com.fnklabs.buffer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent access to one buffer: every thread updates the same value or own value that is placed on separate cache line
+ */
+@Threads(value = 8)
+@Fork(value = 2, jvmArgs = {
+        "-server",
+        "-Xms1G",
+        "-Xmx4G",
+        "-XX:+UseG1GC",
+        "-XX:+AlwaysPreTouch",
+        "-XX:MaxDirectMemorySize=4G",
+})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BufferContentionBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(BufferContentionBenchmark.class);
+    }
+
+    @Benchmark
+    public long getAndAddShared(Context context) {
+        return context.buffer.getAndAddLong(0, 1);
+    }
+
+    @Benchmark
+    public long getAndAddStriped(Context context, ThreadContext threadContext) {
+        return context.buffer.getAndAddLong(threadContext.position, 1);
+    }
+
+    @Benchmark
+    public boolean compareAndSetShared(Context context) {
+        for (; ; ) {
+            long current = context.buffer.getLongVolatile(0);
+
+            if (context.buffer.compareAndSetLong(0, current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Plain writes to the same cache line (false sharing)
+     */
+    @Benchmark
+    public void putLongShared(Context context, ThreadContext threadContext) {
+        context.buffer.putLong(threadContext.sharedLinePosition, threadContext.position);
+    }
+
+    @Benchmark
+    public void putLongStriped(Context context, ThreadContext threadContext) {
+        context.buffer.putLong(threadContext.position, threadContext.position);
+    }
+
+    @Benchmark
+    public long getLongRandom(Context context) {
+        return context.buffer.getLong(ThreadLocalRandom.current().nextInt(Context.ALLOCATED_SIZE / Long.BYTES) * Long.BYTES);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Context {
+        public static final int ALLOCATED_SIZE = 64 * 1024 * 1024;
+
+        @Param({"HEAP", "DIRECT", "UNSAFE"})
+        BufferType bufferType;
+
+        Buffer buffer;
+
+        @Setup
+        public void setUp() {
+            buffer = bufferType.get(ALLOCATED_SIZE);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            if (buffer instanceof Closeable) {
+                ((Closeable) buffer).close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadContext {
+        /**
+         * Distance between thread values, two cache lines to avoid adjacent line prefetch
+         */
+        private static final int STRIPE = 128;
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        long position;
+
+        long sharedLinePosition;
+
+        @Setup
+        public void setUp() {
+            int thread = THREADS.getAndIncrement() % (Context.ALLOCATED_SIZE / STRIPE);
+
+            position = (long) thread * STRIPE;
+            sharedLinePosition = (thread % Long.BYTES) * Long.BYTES;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fnklabs.buffer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SWAR search compared to per record copy and {@link Arrays#equals(byte[], byte[])}
+ */
+@Threads(value = 1)
+@Fork(value = 2, jvmArgs = {
+        "-server",
+        "-Xms1G",
+        "-Xmx4G",
+        "-XX:+UseG1GC",
+        "-XX:+AlwaysPreTouch",
+        "-XX:MaxDirectMemorySize=4G",
+})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BufferSearchBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(BufferSearchBenchmark.class);
+    }
+
+    @Benchmark
+    public long count(Context context) {
+        return context.buffer.count(0, context.buffer.bufferSize(), context.key);
+    }
+
+    @Benchmark
+    public long countArraysEquals(Context context) {
+        long count = 0;
+
+        for (long position = 0; position <= context.buffer.bufferSize() - context.width; position += context.width) {
+            context.buffer.read(position, context.value);
+
+            if (Arrays.equals(context.key, context.value)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public long match(Context context) {
+        return context.buffer.match(0, context.buffer.bufferSize(), context.key, context.bitmap);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Context {
+        public static final int ALLOCATED_SIZE = 64 * 1024 * 1024;
+
+        @Param({"4", "8", "16"})
+        int width;
+
+        @Param({"HEAP", "UNSAFE"})
+        BufferType bufferType;
+
+        Buffer buffer;
+
+        byte[] key;
+
+        byte[] value;
+
+        long[] bitmap;
+
+        @Setup
+        public void setUp() {
+            buffer = bufferType.get(ALLOCATED_SIZE);
+            key = new byte[width];
+            value = new byte[width];
+            bitmap = new long[ALLOCATED_SIZE / width / Long.SIZE + 1];
+
+            Arrays.fill(key, (byte) 1);
+
+            for (long position = 0; position <= ALLOCATED_SIZE - width; position += 16L * width) {
+                buffer.write(position, key);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.fnklabs.buffer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of access that is split between two segments compared to access inside of one segment
+ */
+@Threads(value = 1)
+@Fork(value = 2, jvmArgs = {
+        "-server",
+        "-Xms1G",
+        "-Xmx4G",
+        "-XX:+UseG1GC",
+        "-XX:+AlwaysPreTouch",
+        "-XX:MaxDirectMemorySize=4G",
+})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SegmentedBufferBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(SegmentedBufferBenchmark.class);
+    }
+
+    @Benchmark
+    public byte[] readSegmentBoundary(Context context) {
+        context.buffer.read(context.boundaryPosition, context.dataBuffer);
+
+        return context.dataBuffer;
+    }
+
+    @Benchmark
+    public byte[] readSegment(Context context) {
+        context.buffer.read(context.segmentPosition, context.dataBuffer);
+
+        return context.dataBuffer;
+    }
+
+    @Benchmark
+    public void writeSegmentBoundary(Context context) {
+        context.buffer.write(context.boundaryPosition, context.dataBuffer);
+    }
+
+    @Benchmark
+    public void writeSegment(Context context) {
+        context.buffer.write(context.segmentPosition, context.dataBuffer);
+    }
+
+    @Benchmark
+    public long getLongSegmentBoundary(Context context) {
+        return context.buffer.getLong(context.segmentSize - Integer.BYTES);
+    }
+
+    @Benchmark
+    public long getLongSegment(Context context) {
+        return context.buffer.getLong(context.segmentPosition);
+    }
+
+    @Benchmark
+    public void putLongSegmentBoundary(Context context) {
+        context.buffer.putLong(context.segmentSize - Integer.BYTES, context.segmentSize);
+    }
+
+    @Benchmark
+    public void putLongSegment(Context context) {
+        context.buffer.putLong(context.segmentPosition, context.segmentSize);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Context {
+        public static final int ALLOCATED_SIZE = 512 * 1024 * 1024;
+
+        @Param({"64", "4096"})
+        int bufferSize;
+
+        @Param({"1048576", "67108864"})
+        int segmentSize;
+
+        @Param({"HEAP", "DIRECT"})
+        BufferType bufferType;
+
+        Buffer buffer;
+
+        byte[] dataBuffer;
+
+        /**
+         * Position at which read or write is split between two segments
+         */
+        long boundaryPosition;
+
+        /**
+         * Position in the middle of the segment
+         */
+        long segmentPosition;
+
+        @Setup
+        public void setUp() {
+            dataBuffer = new byte[bufferSize];
+            boundaryPosition = segmentSize - bufferSize / 2;
+            segmentPosition = segmentSize + segmentSize / 2;
+            buffer = SegmentedBuffer.allocate(
+                    ALLOCATED_SIZE,
+                    segmentSize,
+                    bufferType == BufferType.HEAP ? ByteBuffer::allocate : ByteBuffer::allocateDirect
+            );
+        }
+    }
+}
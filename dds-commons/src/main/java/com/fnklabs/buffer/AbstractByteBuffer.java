@@ -2,18 +2,17 @@ package com.fnklabs.buffer;
 
 import com.google.common.base.Verify;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.concurrent.atomic.AtomicLong;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 abstract class AbstractByteBuffer implements Buffer {
     private final long size;
 
     private final ByteBuffer buffer;
 
-    private final AtomicLong itemsCount = new AtomicLong();
-    private final AtomicLong allocatedSize = new AtomicLong(0);
-
     AbstractByteBuffer(int size, ByteBuffer buffer) {
         buffer.order(ByteOrder.nativeOrder());
 
@@ -65,9 +64,6 @@ abstract class AbstractByteBuffer implements Buffer {
 
         duplicate.position((int) position);
         duplicate.put(data);
-
-        allocatedSize.addAndGet(data.length);
-        itemsCount.incrementAndGet();
     }
 
     @Override
@@ -78,8 +74,143 @@ abstract class AbstractByteBuffer implements Buffer {
 
         duplicate.position((int) position);
         duplicate.put(data, (int) offset, length);
+    }
+
+    @Override
+    public byte getByte(long position) {
+        return buffer.get(index(position));
+    }
+
+    @Override
+    public void putByte(long position, byte value) {
+        buffer.put(index(position), value);
+    }
+
+    @Override
+    public int getInt(long position) {
+        return buffer.getInt(index(position));
+    }
+
+    @Override
+    public void putInt(long position, int value) {
+        buffer.putInt(index(position), value);
+    }
+
+    @Override
+    public long getLong(long position) {
+        return buffer.getLong(index(position));
+    }
+
+    @Override
+    public void putLong(long position, long value) {
+        buffer.putLong(index(position), value);
+    }
+
+    @Override
+    public float getFloat(long position) {
+        return buffer.getFloat(index(position));
+    }
+
+    @Override
+    public void putFloat(long position, float value) {
+        buffer.putFloat(index(position), value);
+    }
+
+    @Override
+    public double getDouble(long position) {
+        return buffer.getDouble(index(position));
+    }
+
+    @Override
+    public void putDouble(long position, double value) {
+        buffer.putDouble(index(position), value);
+    }
+
+    @Override
+    public int getIntVolatile(long position) {
+        return Atomics.getIntVolatile(buffer, alignedIndex(position, Integer.BYTES));
+    }
+
+    @Override
+    public void putIntVolatile(long position, int value) {
+        Atomics.putIntVolatile(buffer, alignedIndex(position, Integer.BYTES), value);
+    }
+
+    @Override
+    public boolean compareAndSetInt(long position, int expected, int value) {
+        return Atomics.compareAndSetInt(buffer, alignedIndex(position, Integer.BYTES), expected, value);
+    }
+
+    @Override
+    public int getAndAddInt(long position, int delta) {
+        return Atomics.getAndAddInt(buffer, alignedIndex(position, Integer.BYTES), delta);
+    }
+
+    @Override
+    public long getLongVolatile(long position) {
+        return Atomics.getLongVolatile(buffer, alignedIndex(position, Long.BYTES));
+    }
+
+    @Override
+    public void putLongVolatile(long position, long value) {
+        Atomics.putLongVolatile(buffer, alignedIndex(position, Long.BYTES), value);
+    }
+
+    @Override
+    public boolean compareAndSetLong(long position, long expected, long value) {
+        return Atomics.compareAndSetLong(buffer, alignedIndex(position, Long.BYTES), expected, value);
+    }
+
+    @Override
+    public long getAndAddLong(long position, long delta) {
+        return Atomics.getAndAddLong(buffer, alignedIndex(position, Long.BYTES), delta);
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer(long position, int length) {
+        checkRegion(position, length);
+
+        return buffer.slice((int) position, length).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public long transferTo(long position, long length, WritableByteChannel channel) throws IOException {
+        checkRegion(position, length);
+
+        return BufferChannels.transferTo(position, length, channel, (chunkPosition, maxLength) -> asByteBuffer(chunkPosition, (int) maxLength));
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel channel, long position, long length) throws IOException {
+        checkRegion(position, length);
+
+        return BufferChannels.transferFrom(channel, position, length, (chunkPosition, maxLength) -> asByteBuffer(chunkPosition, (int) maxLength));
+    }
+
+    private void checkRegion(long position, long length) {
+        if (position < 0 || length < 0 || position > size - length) {
+            throw new IndexOutOfBoundsException(String.format("position: %d length: %d buffer size: %d", position, length, size));
+        }
+    }
+
+    private static int alignedIndex(long position, int size) {
+        Atomics.checkAlignment(position, size);
+
+        return index(position);
+    }
 
-        allocatedSize.addAndGet(length);
-        itemsCount.incrementAndGet();
+    /**
+     * Absolute ByteBuffer accessors don't change buffer state so they are safe to use without {@link ByteBuffer#duplicate()}
+     *
+     * @param position buffer position
+     *
+     * @return ByteBuffer index
+     */
+    private static int index(long position) {
+        if (position < 0 || position > Integer.MAX_VALUE) {
+            throw new IndexOutOfBoundsException(String.format("position: %d", position));
+        }
+
+        return (int) position;
     }
 }
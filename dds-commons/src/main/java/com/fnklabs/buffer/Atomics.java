@@ -0,0 +1,63 @@
+package com.fnklabs.buffer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Volatile and atomic access to {@link ByteBuffer} values via {@link VarHandle}
+ * <p>
+ * Atomic access requires value position to be aligned by value size
+ */
+final class Atomics {
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private Atomics() {
+    }
+
+    static int getIntVolatile(ByteBuffer buffer, int index) {
+        return (int) INT.getVolatile(buffer, index);
+    }
+
+    static void putIntVolatile(ByteBuffer buffer, int index, int value) {
+        INT.setVolatile(buffer, index, value);
+    }
+
+    static boolean compareAndSetInt(ByteBuffer buffer, int index, int expected, int value) {
+        return INT.compareAndSet(buffer, index, expected, value);
+    }
+
+    static int getAndAddInt(ByteBuffer buffer, int index, int delta) {
+        return (int) INT.getAndAdd(buffer, index, delta);
+    }
+
+    static long getLongVolatile(ByteBuffer buffer, int index) {
+        return (long) LONG.getVolatile(buffer, index);
+    }
+
+    static void putLongVolatile(ByteBuffer buffer, int index, long value) {
+        LONG.setVolatile(buffer, index, value);
+    }
+
+    static boolean compareAndSetLong(ByteBuffer buffer, int index, long expected, long value) {
+        return LONG.compareAndSet(buffer, index, expected, value);
+    }
+
+    static long getAndAddLong(ByteBuffer buffer, int index, long delta) {
+        return (long) LONG.getAndAdd(buffer, index, delta);
+    }
+
+    /**
+     * Check that position is aligned by value size
+     *
+     * @param position value position
+     * @param size     value size, must be power of two
+     */
+    static void checkAlignment(long position, int size) {
+        if ((position & (size - 1)) != 0) {
+            throw new IllegalArgumentException(String.format("position %d is not aligned by %d bytes", position, size));
+        }
+    }
+}
@@ -1,5 +1,15 @@
 package com.fnklabs.buffer;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Fixed size memory region with positional access
+ * <p>
+ * Typed accessors read and write values in {@link java.nio.ByteOrder#nativeOrder()} without any intermediate copy
+ */
 public interface Buffer {
 
     long bufferSize();
@@ -19,4 +29,156 @@ public interface Buffer {
     void write(long position, byte[] data);
 
     void write(long position, byte[] data, int offset, int length);
+
+    byte getByte(long position);
+
+    void putByte(long position, byte value);
+
+    int getInt(long position);
+
+    void putInt(long position, int value);
+
+    long getLong(long position);
+
+    void putLong(long position, long value);
+
+    float getFloat(long position);
+
+    void putFloat(long position, float value);
+
+    double getDouble(long position);
+
+    void putDouble(long position, double value);
+
+    /*
+     * Volatile and atomic accessors. Position must be aligned by value size
+     */
+
+    int getIntVolatile(long position);
+
+    void putIntVolatile(long position, int value);
+
+    /**
+     * Atomically set value if current value is equal to expected
+     *
+     * @param position value position
+     * @param expected expected value
+     * @param value    new value
+     *
+     * @return true if value was set
+     */
+    boolean compareAndSetInt(long position, int expected, int value);
+
+    /**
+     * Atomically add delta to current value
+     *
+     * @param position value position
+     * @param delta    delta
+     *
+     * @return previous value
+     */
+    int getAndAddInt(long position, int delta);
+
+    long getLongVolatile(long position);
+
+    void putLongVolatile(long position, long value);
+
+    boolean compareAndSetLong(long position, long expected, long value);
+
+    long getAndAddLong(long position, long delta);
+
+    /**
+     * Create view of [position, position + length) region that shares memory with current buffer. View is valid while current
+     * buffer is not closed or released
+     *
+     * @param position region position
+     * @param length   region length
+     *
+     * @return buffer view
+     */
+    default Buffer slice(long position, long length) {
+        return new SlicedBuffer(this, position, length);
+    }
+
+    /**
+     * Expose region as {@link ByteBuffer} in native order that shares memory with current buffer
+     *
+     * @param position region position
+     * @param length   region length
+     *
+     * @return ByteBuffer view of the region
+     *
+     * @throws UnsupportedOperationException if region is not contiguous in memory (crosses segment boundary) or if buffer memory
+     *                                       isn't owned by ByteBuffer ({@link BufferType#UNSAFE})
+     */
+    ByteBuffer asByteBuffer(long position, int length);
+
+    /**
+     * Write region to the channel, buffers that can be exposed as {@link ByteBuffer} are written without intermediate copy on heap
+     *
+     * @param position region position
+     * @param length   region length
+     * @param channel  target channel
+     *
+     * @return count of transferred bytes, can be less than length if non blocking channel can't accept more data
+     *
+     * @throws IOException if channel write failed
+     */
+    long transferTo(long position, long length, WritableByteChannel channel) throws IOException;
+
+    /**
+     * Read data from the channel into the region, buffers that can be exposed as {@link ByteBuffer} are read without intermediate
+     * copy on heap
+     *
+     * @param channel  source channel
+     * @param position region position
+     * @param length   region length
+     *
+     * @return count of transferred bytes, can be less than length if end of stream was reached or non blocking channel has no data
+     *
+     * @throws IOException if channel read failed
+     */
+    long transferFrom(ReadableByteChannel channel, long position, long length) throws IOException;
+
+    /**
+     * Count records of [start, end) range that are equal to the key. Records are key.length wide, incomplete record at the end of
+     * the range is skipped
+     *
+     * @param start range start position
+     * @param end   range end position (exclusive)
+     * @param key   key
+     *
+     * @return count of matched records
+     */
+    default long count(long start, long end, byte[] key) {
+        return BufferSearch.count(this, start, end, key);
+    }
+
+    /**
+     * Find first record of [start, end) range that is equal to the key
+     *
+     * @param start range start position
+     * @param end   range end position (exclusive)
+     * @param key   key
+     *
+     * @return position of matched record or -1 if nothing was found
+     */
+    default long findFirst(long start, long end, byte[] key) {
+        return BufferSearch.findFirst(this, start, end, key);
+    }
+
+    /**
+     * Set bits of matched records in the bitmap. Bit index is record index in the range, bitmap layout is compatible with
+     * {@link java.util.BitSet#valueOf(long[])}
+     *
+     * @param start  range start position
+     * @param end    range end position (exclusive)
+     * @param key    key
+     * @param bitmap match bitmap, must have at least one bit per record
+     *
+     * @return count of matched records
+     */
+    default long match(long start, long end, byte[] key, long[] bitmap) {
+        return BufferSearch.match(this, start, end, key, bitmap);
+    }
 }
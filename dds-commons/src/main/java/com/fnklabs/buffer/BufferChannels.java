@@ -0,0 +1,206 @@
+package com.fnklabs.buffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Transfer of buffer regions to and from channels via {@link ByteBuffer} views of buffer memory or via reusable direct staging
+ * buffers for raw memory that can't be exposed as ByteBuffer
+ * <p>
+ * Transfer stops early if non blocking channel can't accept or provide more data or if end of stream is reached
+ */
+final class BufferChannels {
+    private static final int STAGING_SIZE = 64 * 1024;
+
+    /**
+     * Max count of idle staging buffers that are kept for reuse
+     */
+    private static final int MAX_STAGING_BUFFERS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Idle direct staging buffers, they are shared by all threads rather than cached per thread
+     */
+    private static final Queue<ByteBuffer> STAGING_BUFFERS = new ConcurrentLinkedQueue<>();
+
+    private BufferChannels() {
+    }
+
+    static long transferTo(long position, long length, WritableByteChannel channel, Chunks chunks) throws IOException {
+        long transferred = 0;
+
+        while (transferred < length) {
+            ByteBuffer chunk = chunks.chunk(position + transferred, length - transferred);
+            int chunkLength = chunk.remaining();
+
+            long written = write(chunk, channel);
+
+            transferred += written;
+
+            if (written < chunkLength) {
+                break;
+            }
+        }
+
+        return transferred;
+    }
+
+    static long transferFrom(ReadableByteChannel channel, long position, long length, Chunks chunks) throws IOException {
+        long transferred = 0;
+
+        while (transferred < length) {
+            ByteBuffer chunk = chunks.chunk(position + transferred, length - transferred);
+            int chunkLength = chunk.remaining();
+
+            long read = read(channel, chunk);
+
+            transferred += read;
+
+            if (read < chunkLength) {
+                break;
+            }
+        }
+
+        return transferred;
+    }
+
+    /**
+     * Copy memory region to the channel through direct staging buffer, so channel doesn't copy data to its own temporary direct
+     * buffer
+     *
+     * @param address region address
+     * @param length  region length
+     * @param channel destination
+     *
+     * @return count of transferred bytes
+     */
+    static long copyTo(long address, long length, WritableByteChannel channel) throws IOException {
+        ByteBuffer staging = acquireStaging();
+
+        try {
+            long stagingAddress = UnsafeAccess.address(staging);
+
+            long transferred = 0;
+
+            while (transferred < length) {
+                int chunkLength = (int) Math.min(length - transferred, STAGING_SIZE);
+
+                UnsafeAccess.UNSAFE.copyMemory(null, address + transferred, null, stagingAddress, chunkLength);
+
+                staging.clear().limit(chunkLength);
+
+                long written = write(staging, channel);
+
+                transferred += written;
+
+                if (written < chunkLength) {
+                    break;
+                }
+            }
+
+            return transferred;
+        } finally {
+            releaseStaging(staging);
+        }
+    }
+
+    /**
+     * Copy data from the channel to memory region through direct staging buffer
+     *
+     * @param channel source
+     * @param address region address
+     * @param length  region length
+     *
+     * @return count of transferred bytes
+     */
+    static long copyFrom(ReadableByteChannel channel, long address, long length) throws IOException {
+        ByteBuffer staging = acquireStaging();
+
+        try {
+            long stagingAddress = UnsafeAccess.address(staging);
+
+            long transferred = 0;
+
+            while (transferred < length) {
+                int chunkLength = (int) Math.min(length - transferred, STAGING_SIZE);
+
+                staging.clear().limit(chunkLength);
+
+                long read = read(channel, staging);
+
+                UnsafeAccess.UNSAFE.copyMemory(null, stagingAddress, null, address + transferred, read);
+
+                transferred += read;
+
+                if (read < chunkLength) {
+                    break;
+                }
+            }
+
+            return transferred;
+        } finally {
+            releaseStaging(staging);
+        }
+    }
+
+    private static ByteBuffer acquireStaging() {
+        ByteBuffer staging = STAGING_BUFFERS.poll();
+
+        return staging != null ? staging : ByteBuffer.allocateDirect(STAGING_SIZE);
+    }
+
+    private static void releaseStaging(ByteBuffer staging) {
+        if (STAGING_BUFFERS.size() < MAX_STAGING_BUFFERS) {
+            STAGING_BUFFERS.offer(staging);
+        }
+    }
+
+    private static long write(ByteBuffer src, WritableByteChannel channel) throws IOException {
+        long transferred = 0;
+
+        while (src.hasRemaining()) {
+            int written = channel.write(src);
+
+            if (written == 0) {
+                break;
+            }
+
+            transferred += written;
+        }
+
+        return transferred;
+    }
+
+    private static long read(ReadableByteChannel channel, ByteBuffer dst) throws IOException {
+        long transferred = 0;
+
+        while (dst.hasRemaining()) {
+            int read = channel.read(dst);
+
+            if (read <= 0) {
+                break;
+            }
+
+            transferred += read;
+        }
+
+        return transferred;
+    }
+
+    /**
+     * Provides views of contiguous buffer regions
+     */
+    @FunctionalInterface
+    interface Chunks {
+        /**
+         * @param position  region position
+         * @param maxLength max region length
+         *
+         * @return view of region that starts at provided position and has at most maxLength bytes
+         */
+        ByteBuffer chunk(long position, long maxLength);
+    }
+}
@@ -0,0 +1,305 @@
+package com.fnklabs.buffer;
+
+import com.google.common.base.Verify;
+
+import java.lang.ref.Reference;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+import static com.fnklabs.buffer.UnsafeAccess.BYTE_ARRAY_OFFSET;
+import static com.fnklabs.buffer.UnsafeAccess.UNSAFE;
+
+/**
+ * Sequential cursor over fixed width records of [start, end) buffer range
+ * <p>
+ * Range is validated once on cursor creation, so field accessors check only field offset against record size. Records of unsafe
+ * buffers are accessed directly by memory address, other buffers are accessed via typed accessors. Incomplete record at the end of
+ * the range is skipped.
+ * <p>
+ * Cursor is not thread safe and buffer must not be closed while cursor is in use. Cursor keeps buffer reachable until every access
+ * by address is completed, so buffer memory isn't freed by cleaner during access.
+ *
+ * <pre>
+ * BufferCursor cursor = BufferCursor.of(buffer, 0, buffer.bufferSize(), 16);
+ *
+ * while (cursor.hasNext()) {
+ *     long position = cursor.nextLong();
+ *     long key = cursor.getLong(0);
+ * }
+ * </pre>
+ */
+public final class BufferCursor implements PrimitiveIterator.OfLong {
+    /**
+     * Prefetch granularity
+     */
+    private static final int PAGE_SIZE = 4096;
+
+    /**
+     * Marker that buffer memory can't be accessed by address
+     */
+    private static final long NO_ADDRESS = 0;
+
+    private final Buffer buffer;
+
+    private final long address;
+
+    private final int recordSize;
+
+    /**
+     * End of last complete record
+     */
+    private final long limit;
+
+    /**
+     * Current record position
+     */
+    private long position;
+
+    /**
+     * Next record position
+     */
+    private long next;
+
+    private int prefetchDistance;
+
+    private long prefetchPosition;
+
+    /**
+     * Prevents prefetch reads from being eliminated
+     */
+    private byte prefetchSink;
+
+    private BufferCursor(Buffer buffer, long start, long end, int recordSize) {
+        this.buffer = buffer;
+        this.address = addressOf(buffer);
+        this.recordSize = recordSize;
+        this.limit = end - (end - start) % recordSize;
+        this.position = start;
+        this.next = start;
+    }
+
+    /**
+     * Create cursor over records of [start, end) range
+     *
+     * @param buffer     buffer
+     * @param start      range start position
+     * @param end        range end position (exclusive)
+     * @param recordSize record size
+     *
+     * @return new cursor
+     */
+    public static BufferCursor of(Buffer buffer, long start, long end, int recordSize) {
+        Verify.verify(recordSize > 0, "record size must be positive: %s", recordSize);
+
+        if (start < 0 || start > end || end > buffer.bufferSize()) {
+            throw new IndexOutOfBoundsException(String.format("range: [%d, %d) buffer size: %d", start, end, buffer.bufferSize()));
+        }
+
+        return new BufferCursor(buffer, start, end, recordSize);
+    }
+
+    /**
+     * Touch memory that is located on provided distance ahead of current record once per page, so page faults of mapped buffers
+     * and cache misses are taken before records are accessed
+     *
+     * @param distance prefetch distance in bytes, 0 disables prefetch
+     *
+     * @return current cursor
+     */
+    public BufferCursor prefetch(int distance) {
+        Verify.verify(distance >= 0, "prefetch distance must be non negative: %s", distance);
+
+        this.prefetchDistance = distance;
+        this.prefetchPosition = next;
+
+        return this;
+    }
+
+    public int recordSize() {
+        return recordSize;
+    }
+
+    /**
+     * @return current record position
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * @return count of records that were not returned yet
+     */
+    public long remaining() {
+        return (limit - next) / recordSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next < limit;
+    }
+
+    /**
+     * Move to the next record
+     *
+     * @return next record position
+     */
+    @Override
+    public long nextLong() {
+        if (next >= limit) {
+            throw new NoSuchElementException();
+        }
+
+        position = next;
+        next += recordSize;
+
+        if (prefetchDistance > 0 && position >= prefetchPosition) {
+            touch(position + prefetchDistance);
+
+            prefetchPosition = position + PAGE_SIZE;
+        }
+
+        return position;
+    }
+
+    public byte getByte(int fieldOffset) {
+        Objects.checkFromIndexSize(fieldOffset, Byte.BYTES, recordSize);
+
+        if (address == NO_ADDRESS) {
+            return buffer.getByte(position + fieldOffset);
+        }
+
+        try {
+            return UNSAFE.getByte(address + position + fieldOffset);
+        } finally {
+            Reference.reachabilityFence(buffer);
+        }
+    }
+
+    public int getInt(int fieldOffset) {
+        Objects.checkFromIndexSize(fieldOffset, Integer.BYTES, recordSize);
+
+        if (address == NO_ADDRESS) {
+            return buffer.getInt(position + fieldOffset);
+        }
+
+        try {
+            return UNSAFE.getInt(address + position + fieldOffset);
+        } finally {
+            Reference.reachabilityFence(buffer);
+        }
+    }
+
+    public long getLong(int fieldOffset) {
+        Objects.checkFromIndexSize(fieldOffset, Long.BYTES, recordSize);
+
+        if (address == NO_ADDRESS) {
+            return buffer.getLong(position + fieldOffset);
+        }
+
+        try {
+            return UNSAFE.getLong(address + position + fieldOffset);
+        } finally {
+            Reference.reachabilityFence(buffer);
+        }
+    }
+
+    public float getFloat(int fieldOffset) {
+        Objects.checkFromIndexSize(fieldOffset, Float.BYTES, recordSize);
+
+        if (address == NO_ADDRESS) {
+            return buffer.getFloat(position + fieldOffset);
+        }
+
+        try {
+            return UNSAFE.getFloat(address + position + fieldOffset);
+        } finally {
+            Reference.reachabilityFence(buffer);
+        }
+    }
+
+    public double getDouble(int fieldOffset) {
+        Objects.checkFromIndexSize(fieldOffset, Double.BYTES, recordSize);
+
+        if (address == NO_ADDRESS) {
+            return buffer.getDouble(position + fieldOffset);
+        }
+
+        try {
+            return UNSAFE.getDouble(address + position + fieldOffset);
+        } finally {
+            Reference.reachabilityFence(buffer);
+        }
+    }
+
+    /**
+     * Read current record into provided buffer
+     *
+     * @param data dst buffer, its length must not be greater than record size
+     */
+    public void read(byte[] data) {
+        read(0, data, 0, data.length);
+    }
+
+    /**
+     * Read part of current record
+     *
+     * @param fieldOffset offset in record
+     * @param data        dst buffer
+     * @param offset      dst offset
+     * @param length      dst length
+     */
+    public void read(int fieldOffset, byte[] data, int offset, int length) {
+        Objects.checkFromIndexSize(fieldOffset, length, recordSize);
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        if (address == NO_ADDRESS) {
+            buffer.read(position + fieldOffset, data, offset, length);
+
+            return;
+        }
+
+        try {
+            UNSAFE.copyMemory(null, address + position + fieldOffset, data, BYTE_ARRAY_OFFSET + offset, length);
+        } finally {
+            Reference.reachabilityFence(buffer);
+        }
+    }
+
+    private void touch(long target) {
+        if (target >= limit) {
+            return;
+        }
+
+        if (address == NO_ADDRESS) {
+            prefetchSink += buffer.getByte(target);
+
+            return;
+        }
+
+        try {
+            prefetchSink += UNSAFE.getByte(address + target);
+        } finally {
+            Reference.reachabilityFence(buffer);
+        }
+    }
+
+    /**
+     * @return base address of buffer memory or {@link #NO_ADDRESS} if it can't be accessed by address
+     */
+    private static long addressOf(Buffer buffer) {
+        if (buffer instanceof UnsafeBuffer) {
+            return ((UnsafeBuffer) buffer).address();
+        }
+
+        if (buffer instanceof SlicedBuffer) {
+            SlicedBuffer slicedBuffer = (SlicedBuffer) buffer;
+
+            long parentAddress = addressOf(slicedBuffer.parent());
+
+            return parentAddress == NO_ADDRESS ? NO_ADDRESS : parentAddress + slicedBuffer.offset();
+        }
+
+        return NO_ADDRESS;
+    }
+}
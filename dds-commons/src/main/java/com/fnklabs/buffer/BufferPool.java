@@ -0,0 +1,517 @@
+package com.fnklabs.buffer;
+
+import com.google.common.base.Verify;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Slab allocator that hands out reusable {@link Buffer} regions carved from large arenas
+ * <p>
+ * Requested sizes are rounded up to power of two size class. Released regions are kept in per thread cache and shared free list of
+ * their size class and are never returned to the arena. Thread cache is bounded by count of regions of every size class and by
+ * total bytes, when it overflows the older half of every size class is moved to the shared free lists. Regions cached by threads
+ * that were collected are moved to the shared free lists on the next allocation that misses thread cache, regions of threads that
+ * have terminated but were not collected yet are moved before new arena is allocated. Requests bigger than max size class are not
+ * pooled and are allocated directly.
+ */
+public class BufferPool implements Closeable {
+    private final BufferType bufferType;
+
+    /**
+     * {@link MemoryManager} owner tag of arenas
+     */
+    private final String owner;
+
+    private final long arenaSize;
+
+    private final int minSizeShift;
+    private final int maxSize;
+
+    private final int threadCacheSize;
+
+    private final long threadCacheBytes;
+
+    /**
+     * Shared free lists by size class
+     */
+    private final List<Queue<Region>> freeRegions;
+
+    private final ThreadLocal<ThreadCache> threadCache;
+
+    /**
+     * Caches of all threads that used the pool, guarded by this
+     */
+    private final List<ThreadCache> threadCaches = new ArrayList<>();
+
+    /**
+     * Caches of threads that were collected
+     */
+    private final ReferenceQueue<Thread> collectedThreads = new ReferenceQueue<>();
+
+    private final List<Buffer> arenas = new ArrayList<>();
+
+    private final LongAdder liveBytes = new LongAdder();
+    private final LongAdder freeBytes = new LongAdder();
+
+    /**
+     * Current arena from which new regions are carved
+     */
+    private Buffer arena;
+    private long arenaPosition;
+
+    private volatile boolean closed;
+
+    private BufferPool(BufferType bufferType, String owner, long arenaSize, int minSize, int maxSize, int threadCacheSize, long threadCacheBytes) {
+        Verify.verify(Integer.bitCount(minSize) == 1 && Integer.bitCount(maxSize) == 1, "min and max sizes must be power of two");
+        Verify.verify(minSize <= maxSize, "min size %s must be <= max size %s", minSize, maxSize);
+        Verify.verify(maxSize <= arenaSize, "arena size %s must be >= max size %s", arenaSize, maxSize);
+
+        this.bufferType = bufferType;
+        this.owner = owner;
+        this.arenaSize = arenaSize;
+        this.minSizeShift = Integer.numberOfTrailingZeros(minSize);
+        this.maxSize = maxSize;
+        this.threadCacheSize = threadCacheSize;
+        this.threadCacheBytes = threadCacheBytes;
+
+        int sizeClasses = Integer.numberOfTrailingZeros(maxSize) - minSizeShift + 1;
+
+        this.freeRegions = new ArrayList<>(sizeClasses);
+
+        for (int i = 0; i < sizeClasses; i++) {
+            freeRegions.add(new ConcurrentLinkedQueue<>());
+        }
+
+        this.threadCache = ThreadLocal.withInitial(() -> {
+            ThreadCache cache = new ThreadCache(Thread.currentThread(), collectedThreads, sizeClasses);
+
+            synchronized (this) {
+                threadCaches.add(cache);
+            }
+
+            return cache;
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Allocate buffer of provided size
+     *
+     * @param size buffer size
+     *
+     * @return buffer with single reference
+     *
+     * @throws IllegalStateException if pool was closed
+     */
+    public PooledBuffer allocate(int size) {
+        Verify.verify(size > 0, "size must be positive: %s", size);
+
+        if (closed) {
+            throw new IllegalStateException("buffer pool was closed");
+        }
+
+        if (size > maxSize) {
+            liveBytes.add(size);
+
+            return new PooledBuffer(this, new Region(bufferType.get(size, owner), 0, -1), size);
+        }
+
+        int sizeClass = sizeClass(size);
+
+        ThreadCache cache = threadCache.get();
+
+        Region region = cache.regions(sizeClass).pollLast();
+
+        if (region != null) {
+            cache.bytes -= capacity(sizeClass);
+        } else {
+            reclaimCollectedThreadCaches();
+
+            region = freeRegions.get(sizeClass).poll();
+        }
+
+        if (region == null) {
+            region = carve(sizeClass);
+        }
+
+        freeBytes.add(-capacity(sizeClass));
+        liveBytes.add(capacity(sizeClass));
+
+        return new PooledBuffer(this, region, size);
+    }
+
+    /**
+     * @return bytes that are currently handed out to the callers
+     */
+    public long liveBytes() {
+        return liveBytes.sum();
+    }
+
+    /**
+     * @return bytes that are available for allocation without allocating new arena
+     */
+    public long freeBytes() {
+        return freeBytes.sum();
+    }
+
+    /**
+     * @return bytes that are reserved by arenas
+     */
+    public synchronized long arenaBytes() {
+        return arenas.size() * arenaSize;
+    }
+
+    /**
+     * Free all arenas. All buffers that were allocated by the pool become invalid and regions that are released after close are
+     * dropped. Pool must not be closed concurrently with allocation
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        // free regions point to freed arenas
+        for (ThreadCache cache : threadCaches) {
+            cache.clearRegions();
+        }
+
+        threadCaches.clear();
+
+        for (Queue<Region> regions : freeRegions) {
+            regions.clear();
+        }
+
+        freeBytes.reset();
+
+        for (Buffer buffer : arenas) {
+            if (buffer instanceof Closeable) {
+                ((Closeable) buffer).close();
+            }
+        }
+
+        arenas.clear();
+        arena = null;
+    }
+
+    void release(Region region) {
+        if (region.sizeClass < 0) {
+            liveBytes.add(-region.buffer.bufferSize());
+
+            if (region.buffer instanceof Closeable) {
+                try {
+                    ((Closeable) region.buffer).close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            return;
+        }
+
+        int capacity = capacity(region.sizeClass);
+
+        liveBytes.add(-capacity);
+
+        if (closed) {
+            return;
+        }
+
+        freeBytes.add(capacity);
+
+        ThreadCache cache = threadCache.get();
+
+        if (!cache.offer(region, capacity)) {
+            flushHalf(cache);
+
+            if (!cache.offer(region, capacity)) {
+                freeRegions.get(region.sizeClass).offer(region);
+            }
+        }
+    }
+
+    int sizeClass(int size) {
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+
+        return Math.max(shift - minSizeShift, 0);
+    }
+
+    int capacity(int sizeClass) {
+        return 1 << (sizeClass + minSizeShift);
+    }
+
+    /**
+     * @return size of memory that is held by region
+     */
+    long capacity(Region region) {
+        return region.sizeClass < 0 ? region.buffer.bufferSize() : capacity(region.sizeClass);
+    }
+
+    private synchronized Region carve(int sizeClass) {
+        if (closed) {
+            throw new IllegalStateException("buffer pool was closed");
+        }
+
+        if (reclaimTerminatedThreadCaches()) {
+            Region region = freeRegions.get(sizeClass).poll();
+
+            if (region != null) {
+                return region;
+            }
+        }
+
+        int capacity = capacity(sizeClass);
+
+        if (arena == null || arenaSize - arenaPosition < capacity) {
+            if (arena != null) {
+                freeBytes.add(-(arenaSize - arenaPosition)); // arena tail is wasted
+            }
+
+            arena = bufferType.get(arenaSize, owner);
+            arenaPosition = 0;
+            arenas.add(arena);
+
+            freeBytes.add(arenaSize);
+        }
+
+        Region region = new Region(arena, arenaPosition, sizeClass);
+
+        arenaPosition += capacity;
+
+        return region;
+    }
+
+    /**
+     * Move regions cached by terminated threads to the shared free lists
+     *
+     * @return true if any region was moved
+     */
+    private boolean reclaimTerminatedThreadCaches() {
+        boolean reclaimed = false;
+
+        for (Iterator<ThreadCache> iterator = threadCaches.iterator(); iterator.hasNext(); ) {
+            ThreadCache cache = iterator.next();
+
+            if (cache.isAlive()) {
+                continue;
+            }
+
+            iterator.remove();
+
+            reclaimed |= moveToFreeRegions(cache);
+        }
+
+        return reclaimed;
+    }
+
+    /**
+     * Move regions cached by collected threads to the shared free lists, costs only a poll of empty reference queue if no thread
+     * was collected
+     */
+    private void reclaimCollectedThreadCaches() {
+        for (Reference<? extends Thread> reference = collectedThreads.poll(); reference != null; reference = collectedThreads.poll()) {
+            ThreadCache cache = (ThreadCache) reference;
+
+            synchronized (this) {
+                // cache could be already reclaimed as terminated or dropped by close
+                if (!threadCaches.remove(cache) || closed) {
+                    continue;
+                }
+            }
+
+            moveToFreeRegions(cache);
+        }
+    }
+
+    /**
+     * @return true if any region was moved
+     */
+    private boolean moveToFreeRegions(ThreadCache cache) {
+        boolean moved = false;
+
+        for (int sizeClass = 0; sizeClass < freeRegions.size(); sizeClass++) {
+            ArrayDeque<Region> regions = cache.regions(sizeClass);
+
+            moved |= !regions.isEmpty();
+
+            freeRegions.get(sizeClass).addAll(regions);
+            regions.clear();
+        }
+
+        cache.bytes = 0;
+
+        return moved;
+    }
+
+    /**
+     * Move older half of regions of every size class of current thread cache to the shared free lists
+     */
+    private void flushHalf(ThreadCache cache) {
+        for (int sizeClass = 0; sizeClass < freeRegions.size(); sizeClass++) {
+            ArrayDeque<Region> regions = cache.regions(sizeClass);
+
+            for (int count = (regions.size() + 1) / 2; count > 0; count--) {
+                freeRegions.get(sizeClass).offer(regions.pollFirst());
+
+                cache.bytes -= capacity(sizeClass);
+            }
+        }
+    }
+
+    /**
+     * Regions cached by thread, cache is accessed only by its thread until the thread terminates. Cache is enqueued to the reference
+     * queue of the pool when its thread is collected
+     */
+    private final class ThreadCache extends WeakReference<Thread> {
+        private final List<ArrayDeque<Region>> regions;
+
+        /**
+         * Capacity of cached regions
+         */
+        private long bytes;
+
+        private ThreadCache(Thread thread, ReferenceQueue<Thread> queue, int sizeClasses) {
+            super(thread, queue);
+
+            this.regions = new ArrayList<>(sizeClasses);
+
+            for (int i = 0; i < sizeClasses; i++) {
+                regions.add(new ArrayDeque<>(threadCacheSize));
+            }
+        }
+
+        ArrayDeque<Region> regions(int sizeClass) {
+            return regions.get(sizeClass);
+        }
+
+        /**
+         * @return false if cache has no room for region
+         */
+        boolean offer(Region region, int capacity) {
+            ArrayDeque<Region> sizeClassRegions = regions.get(region.sizeClass);
+
+            if (sizeClassRegions.size() >= threadCacheSize || bytes + capacity > threadCacheBytes) {
+                return false;
+            }
+
+            sizeClassRegions.addLast(region);
+
+            bytes += capacity;
+
+            return true;
+        }
+
+        boolean isAlive() {
+            Thread owner = get();
+
+            return owner != null && owner.isAlive();
+        }
+
+        void clearRegions() {
+            regions.forEach(ArrayDeque::clear);
+
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Region of arena that belongs to the size class. Regions of huge not pooled buffers have negative size class
+     */
+    static final class Region {
+        private final Buffer buffer;
+        private final long offset;
+        private final int sizeClass;
+
+        private Region(Buffer buffer, long offset, int sizeClass) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.sizeClass = sizeClass;
+        }
+
+        Buffer buffer() {
+            return buffer;
+        }
+
+        long offset() {
+            return offset;
+        }
+    }
+
+    public static class Builder {
+        private BufferType bufferType = BufferType.UNSAFE;
+        private String owner = MemoryManager.DEFAULT;
+        private long arenaSize = 64 * 1024 * 1024; // 64 MB
+        private int minSize = 64;
+        private int maxSize = 1024 * 1024; // 1 MB
+        private int threadCacheSize = 32;
+        private long threadCacheBytes = 4 * 1024 * 1024; // 4 MB
+
+        public BufferPool build() {
+            return new BufferPool(bufferType, owner, arenaSize, minSize, maxSize, threadCacheSize, threadCacheBytes);
+        }
+
+        public Builder setBufferType(BufferType bufferType) {
+            this.bufferType = bufferType;
+
+            return this;
+        }
+
+        public Builder setOwner(String owner) {
+            this.owner = owner;
+
+            return this;
+        }
+
+        public Builder setArenaSize(long arenaSize) {
+            this.arenaSize = arenaSize;
+
+            return this;
+        }
+
+        public Builder setMinSize(int minSize) {
+            this.minSize = minSize;
+
+            return this;
+        }
+
+        public Builder setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+
+            return this;
+        }
+
+        /**
+         * @param threadCacheSize max count of regions of every size class that are cached by thread
+         */
+        public Builder setThreadCacheSize(int threadCacheSize) {
+            this.threadCacheSize = threadCacheSize;
+
+            return this;
+        }
+
+        /**
+         * @param threadCacheBytes max capacity of all regions that are cached by thread
+         */
+        public Builder setThreadCacheBytes(long threadCacheBytes) {
+            this.threadCacheBytes = threadCacheBytes;
+
+            return this;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.fnklabs.buffer;
+
+import com.google.common.base.Verify;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Word at a time (SWAR) search of fixed width keys in contiguous buffer range
+ * <p>
+ * Keys of 1, 2 and 4 bytes are packed into 8 byte lanes and compared by one load and a few bit operations per word. Wider keys are
+ * compared by 8 byte words per record.
+ */
+final class BufferSearch {
+    private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    private static final long NOT_FOUND = -1;
+
+    private BufferSearch() {
+    }
+
+    static long count(Buffer buffer, long start, long end, byte[] key) {
+        return search(buffer, start, end, key, null, false);
+    }
+
+    static long findFirst(Buffer buffer, long start, long end, byte[] key) {
+        long index = search(buffer, start, end, key, null, true);
+
+        return index == NOT_FOUND ? NOT_FOUND : start + index * key.length;
+    }
+
+    static long match(Buffer buffer, long start, long end, byte[] key, long[] bitmap) {
+        long records = (end - start) / key.length;
+
+        Verify.verify(bitmap.length >= (records + Long.SIZE - 1) / Long.SIZE, "bitmap is too small for %s records", records);
+
+        return search(buffer, start, end, key, bitmap, false);
+    }
+
+    /**
+     * @param bitmap    match bitmap, may be null
+     * @param findFirst stop on first match
+     *
+     * @return index of first match (or {@link #NOT_FOUND}) if findFirst is set, otherwise count of matches
+     */
+    private static long search(Buffer buffer, long start, long end, byte[] key, long[] bitmap, boolean findFirst) {
+        Verify.verify(key.length > 0, "key must not be empty");
+
+        int width = key.length;
+
+        long records = (end - start) / width;
+        long index = 0;
+        long count = 0;
+
+        if (Long.BYTES % width == 0 && width < Long.BYTES) {
+            int lanes = Long.BYTES / width;
+            long pattern = pattern(key);
+            long lowBits = lowBits(width);
+
+            BufferCursor cursor = BufferCursor.of(buffer, start, start + records / lanes * Long.BYTES, Long.BYTES);
+
+            while (cursor.hasNext()) {
+                cursor.nextLong();
+
+                long value = cursor.getLong(0) ^ pattern;
+
+                // high bit of every zero lane is set
+                long matches = ~(((value & lowBits) + lowBits) | value | lowBits);
+
+                if (matches != 0) {
+                    if (findFirst) {
+                        return index + firstLane(matches, width);
+                    }
+
+                    count += Long.bitCount(matches);
+
+                    if (bitmap != null) {
+                        setLanes(bitmap, index, matches, width);
+                    }
+                }
+
+                index += lanes;
+            }
+        }
+
+        BufferCursor cursor = BufferCursor.of(buffer, start + index * width, start + records * width, width);
+        long[] keyWords = words(key);
+
+        while (cursor.hasNext()) {
+            cursor.nextLong();
+
+            if (equals(cursor, key, keyWords)) {
+                if (findFirst) {
+                    return index;
+                }
+
+                count++;
+
+                if (bitmap != null) {
+                    bitmap[(int) (index >>> 6)] |= 1L << index;
+                }
+            }
+
+            index++;
+        }
+
+        return findFirst ? NOT_FOUND : count;
+    }
+
+    private static boolean equals(BufferCursor cursor, byte[] key, long[] keyWords) {
+        int offset = 0;
+
+        for (long keyWord : keyWords) {
+            if (cursor.getLong(offset) != keyWord) {
+                return false;
+            }
+
+            offset += Long.BYTES;
+        }
+
+        for (; offset < key.length; offset++) {
+            if (cursor.getByte(offset) != key[offset]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void setLanes(long[] bitmap, long index, long matches, int width) {
+        while (matches != 0) {
+            long bit = index + lane(Long.numberOfTrailingZeros(matches), width);
+
+            bitmap[(int) (bit >>> 6)] |= 1L << bit;
+
+            matches &= matches - 1;
+        }
+    }
+
+    /**
+     * @return lane index in memory order of first lane that has high bit set
+     */
+    private static int firstLane(long matches, int width) {
+        if (BIG_ENDIAN) {
+            return Long.numberOfLeadingZeros(matches) / Byte.SIZE / width;
+        }
+
+        return Long.numberOfTrailingZeros(matches) / Byte.SIZE / width;
+    }
+
+    /**
+     * @return lane index in memory order of provided bit
+     */
+    private static int lane(int bit, int width) {
+        int byteIndex = bit / Byte.SIZE;
+
+        return (BIG_ENDIAN ? Long.BYTES - 1 - byteIndex : byteIndex) / width;
+    }
+
+    /**
+     * @return key repeated in every lane of the word
+     */
+    private static long pattern(byte[] key) {
+        byte[] word = new byte[Long.BYTES];
+
+        for (int i = 0; i < Long.BYTES; i++) {
+            word[i] = key[i % key.length];
+        }
+
+        return ByteBuffer.wrap(word).order(ByteOrder.nativeOrder()).getLong();
+    }
+
+    /**
+     * @return word in which all bits except high bit of every lane are set
+     */
+    private static long lowBits(int width) {
+        long laneHighBit = 1L << (width * Byte.SIZE - 1);
+        long highBits = 0;
+
+        for (int i = 0; i < Long.BYTES / width; i++) {
+            highBits |= laneHighBit << (i * width * Byte.SIZE);
+        }
+
+        return ~highBits;
+    }
+
+    /**
+     * @return 8 byte words of the key in native order, key tail is not included
+     */
+    private static long[] words(byte[] key) {
+        ByteBuffer keyBuffer = ByteBuffer.wrap(key).order(ByteOrder.nativeOrder());
+
+        long[] words = new long[key.length / Long.BYTES];
+
+        for (int i = 0; i < words.length; i++) {
+            words[i] = keyBuffer.getLong(i * Long.BYTES);
+        }
+
+        return words;
+    }
+}
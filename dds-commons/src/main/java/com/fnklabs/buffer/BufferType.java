@@ -1,30 +1,81 @@
 package com.fnklabs.buffer;
 
-import com.google.common.base.Verify;
-
-import java.util.function.Function;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiFunction;
 
 public enum BufferType {
-    HEAP((size) -> {
-        Verify.verify(size <= Integer.MAX_VALUE, "size can't be higher that %d bytes", Integer.MAX_VALUE);
+    HEAP((size, reservation) -> {
+        if (size > Integer.MAX_VALUE) {
+            return SegmentedBuffer.allocate(size, SegmentedBuffer.DEFAULT_SEGMENT_SIZE, ByteBuffer::allocate);
+        }
 
         return new HeapBuffer(size.intValue());
     }),
-    DIRECT((size) -> {
-        Verify.verify(size <= Integer.MAX_VALUE, "size can't be higher that %d bytes", Integer.MAX_VALUE);
+    DIRECT((size, reservation) -> {
+        if (size > Integer.MAX_VALUE) {
+            return SegmentedBuffer.allocate(size, SegmentedBuffer.DEFAULT_SEGMENT_SIZE, ByteBuffer::allocateDirect);
+        }
 
         return new DirectBuffer(size.intValue());
     }),
 
-    UNSAFE((size) -> {
-        return new UnsafeBuffer(size);
+    UNSAFE((size, reservation) -> {
+        return new UnsafeBuffer(size, reservation::release);
+    }),
+
+    /**
+     * Buffer mapped to temporary file that is deleted on exit. Use {@link MappedBuffer#open(Path, long)} to map persistent file
+     */
+    MAPPED((size, reservation) -> {
+        try {
+            Path file = Files.createTempFile("dds-", ".buffer");
+            file.toFile().deleteOnExit();
+
+            return MappedBuffer.map(file, size, SegmentedBuffer.DEFAULT_SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     });
 
-    private final Function<Long, Buffer> bufferSupplier;
+    private final BiFunction<Long, MemoryManager.Reservation, Buffer> bufferSupplier;
 
-    BufferType(Function<Long, Buffer> bufferSupplier) {this.bufferSupplier = bufferSupplier;}
+    BufferType(BiFunction<Long, MemoryManager.Reservation, Buffer> bufferSupplier) {this.bufferSupplier = bufferSupplier;}
 
     public Buffer get(long size) {
-        return bufferSupplier.apply(size);
+        return get(size, MemoryManager.DEFAULT);
+    }
+
+    /**
+     * Allocate new buffer and register it in {@link MemoryManager}
+     *
+     * @param size  buffer size
+     * @param owner owner tag under which allocated memory is accounted
+     *
+     * @return new buffer
+     *
+     * @throws MemoryLimitException if memory hard limit would be exceeded
+     */
+    public Buffer get(long size, String owner) {
+        MemoryManager memoryManager = MemoryManager.getInstance();
+        MemoryManager.Reservation reservation = memoryManager.reserve(owner, size);
+
+        try {
+            Buffer buffer = bufferSupplier.apply(size, reservation);
+
+            if (this != UNSAFE) {
+                // unsafe buffer releases reservation when it frees its memory
+                memoryManager.register(buffer, reservation::release);
+            }
+
+            return buffer;
+        } catch (RuntimeException | Error e) {
+            reservation.release();
+
+            throw e;
+        }
     }
 }
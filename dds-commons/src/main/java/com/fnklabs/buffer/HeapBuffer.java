@@ -5,6 +5,6 @@ import java.nio.ByteBuffer;
 class HeapBuffer extends AbstractByteBuffer {
 
     HeapBuffer(int size) {
-        super(size, ByteBuffer.allocateDirect(size));
+        super(size, ByteBuffer.allocate(size));
     }
 }
@@ -0,0 +1,469 @@
+package com.fnklabs.buffer;
+
+import com.google.common.base.Verify;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer that allocates fixed size off-heap segments on first write
+ * <p>
+ * Segment directory translates position into segment by a shift and a mask. Segments that were not written yet are not
+ * allocated and are read as zeros, so idle buffer costs only its directory. Every segment is registered in {@link MemoryManager}
+ * under buffer owner tag when it is allocated.
+ * <p>
+ * Segments are allocated concurrently without locks, but {@link #trim()} and {@link #close()} must not be called concurrently with
+ * other buffer operations.
+ */
+public class LazySegmentedBuffer implements Buffer, Closeable {
+    /**
+     * Source of zeros of segments that were not allocated
+     */
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(64 * 1024).asReadOnlyBuffer();
+
+    private final long size;
+
+    private final int segmentSize;
+    private final int segmentShift;
+    private final long segmentMask;
+
+    private final String owner;
+
+    private final AtomicReferenceArray<Buffer> segments;
+
+    /**
+     * @param size        buffer size
+     * @param segmentSize segment size, must be power of two
+     * @param owner       owner tag of allocated memory
+     */
+    public LazySegmentedBuffer(long size, int segmentSize, String owner) {
+        Verify.verify(Integer.bitCount(segmentSize) == 1, "segment size must be power of two: %s", segmentSize);
+
+        this.size = size;
+        this.segmentSize = segmentSize;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+        this.owner = owner;
+        this.segments = new AtomicReferenceArray<>(SegmentedBuffer.segmentsCount(size, segmentSize));
+    }
+
+    @Override
+    public long bufferSize() {
+        return size;
+    }
+
+    /**
+     * @return size of allocated segments
+     */
+    public long allocatedSize() {
+        long allocatedSize = 0;
+
+        for (int i = 0; i < segments.length(); i++) {
+            Buffer segment = segments.get(i);
+
+            if (segment != null) {
+                allocatedSize += segment.bufferSize();
+            }
+        }
+
+        return allocatedSize;
+    }
+
+    /**
+     * Release trailing segments that contain only zeros
+     *
+     * @return count of released bytes
+     */
+    public long trim() {
+        long released = 0;
+
+        for (int i = segments.length() - 1; i >= 0; i--) {
+            Buffer segment = segments.get(i);
+
+            if (segment == null) {
+                continue;
+            }
+
+            if (!isZero(segment)) {
+                break;
+            }
+
+            segments.set(i, null);
+
+            released += segment.bufferSize();
+
+            close(segment);
+        }
+
+        return released;
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < segments.length(); i++) {
+            Buffer segment = segments.getAndSet(i, null);
+
+            if (segment != null) {
+                close(segment);
+            }
+        }
+    }
+
+    @Override
+    public void read(long position, byte[] data) {
+        read(position, data, 0, data.length);
+    }
+
+    @Override
+    public void read(long position, byte[] data, int offset, int length) {
+        checkBounds(position, length);
+
+        while (length > 0) {
+            Buffer segment = segments.get(segmentIndex(position));
+            int segmentOffset = segmentOffset(position);
+            int chunkLength = Math.min(length, segmentSize - segmentOffset);
+
+            if (segment == null) {
+                Arrays.fill(data, offset, offset + chunkLength, (byte) 0);
+            } else {
+                segment.read(segmentOffset, data, offset, chunkLength);
+            }
+
+            position += chunkLength;
+            offset += chunkLength;
+            length -= chunkLength;
+        }
+    }
+
+    @Override
+    public void write(long position, byte[] data) {
+        write(position, data, 0, data.length);
+    }
+
+    @Override
+    public void write(long position, byte[] data, int offset, int length) {
+        checkBounds(position, length);
+
+        while (length > 0) {
+            int segmentOffset = segmentOffset(position);
+            int chunkLength = Math.min(length, segmentSize - segmentOffset);
+
+            segmentForWrite(position).write(segmentOffset, data, offset, chunkLength);
+
+            position += chunkLength;
+            offset += chunkLength;
+            length -= chunkLength;
+        }
+    }
+
+    @Override
+    public byte getByte(long position) {
+        checkBounds(position, Byte.BYTES);
+
+        Buffer segment = segments.get(segmentIndex(position));
+
+        return segment == null ? 0 : segment.getByte(segmentOffset(position));
+    }
+
+    @Override
+    public void putByte(long position, byte value) {
+        checkBounds(position, Byte.BYTES);
+
+        segmentForWrite(position).putByte(segmentOffset(position), value);
+    }
+
+    @Override
+    public int getInt(long position) {
+        if (isSplit(position, Integer.BYTES)) {
+            return splitAccessor(position, Integer.BYTES).getInt(0);
+        }
+
+        Buffer segment = segments.get(segmentIndex(position));
+
+        return segment == null ? 0 : segment.getInt(segmentOffset(position));
+    }
+
+    @Override
+    public void putInt(long position, int value) {
+        if (isSplit(position, Integer.BYTES)) {
+            write(position, ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder()).putInt(0, value).array());
+        } else {
+            segmentForWrite(position).putInt(segmentOffset(position), value);
+        }
+    }
+
+    @Override
+    public long getLong(long position) {
+        if (isSplit(position, Long.BYTES)) {
+            return splitAccessor(position, Long.BYTES).getLong(0);
+        }
+
+        Buffer segment = segments.get(segmentIndex(position));
+
+        return segment == null ? 0 : segment.getLong(segmentOffset(position));
+    }
+
+    @Override
+    public void putLong(long position, long value) {
+        if (isSplit(position, Long.BYTES)) {
+            write(position, ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(0, value).array());
+        } else {
+            segmentForWrite(position).putLong(segmentOffset(position), value);
+        }
+    }
+
+    @Override
+    public float getFloat(long position) {
+        return Float.intBitsToFloat(getInt(position));
+    }
+
+    @Override
+    public void putFloat(long position, float value) {
+        putInt(position, Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public double getDouble(long position) {
+        return Double.longBitsToDouble(getLong(position));
+    }
+
+    @Override
+    public void putDouble(long position, double value) {
+        putLong(position, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public int getIntVolatile(long position) {
+        checkAligned(position, Integer.BYTES);
+
+        Buffer segment = segments.get(segmentIndex(position));
+
+        return segment == null ? 0 : segment.getIntVolatile(segmentOffset(position));
+    }
+
+    @Override
+    public void putIntVolatile(long position, int value) {
+        checkAligned(position, Integer.BYTES);
+
+        segmentForWrite(position).putIntVolatile(segmentOffset(position), value);
+    }
+
+    @Override
+    public boolean compareAndSetInt(long position, int expected, int value) {
+        checkAligned(position, Integer.BYTES);
+
+        return segmentForWrite(position).compareAndSetInt(segmentOffset(position), expected, value);
+    }
+
+    @Override
+    public int getAndAddInt(long position, int delta) {
+        checkAligned(position, Integer.BYTES);
+
+        return segmentForWrite(position).getAndAddInt(segmentOffset(position), delta);
+    }
+
+    @Override
+    public long getLongVolatile(long position) {
+        checkAligned(position, Long.BYTES);
+
+        Buffer segment = segments.get(segmentIndex(position));
+
+        return segment == null ? 0 : segment.getLongVolatile(segmentOffset(position));
+    }
+
+    @Override
+    public void putLongVolatile(long position, long value) {
+        checkAligned(position, Long.BYTES);
+
+        segmentForWrite(position).putLongVolatile(segmentOffset(position), value);
+    }
+
+    @Override
+    public boolean compareAndSetLong(long position, long expected, long value) {
+        checkAligned(position, Long.BYTES);
+
+        return segmentForWrite(position).compareAndSetLong(segmentOffset(position), expected, value);
+    }
+
+    @Override
+    public long getAndAddLong(long position, long delta) {
+        checkAligned(position, Long.BYTES);
+
+        return segmentForWrite(position).getAndAddLong(segmentOffset(position), delta);
+    }
+
+    /**
+     * Segments are {@link BufferType#UNSAFE} memory that can't be exposed as ByteBuffer, so no segment is allocated for a view that
+     * would be rejected. Transfers to and from channels are supported
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public ByteBuffer asByteBuffer(long position, int length) {
+        checkBounds(position, length);
+
+        throw new UnsupportedOperationException("lazy segmented buffer can't be exposed as ByteBuffer");
+    }
+
+    /**
+     * Segments that were not allocated are transferred as zeros without allocation
+     */
+    @Override
+    public long transferTo(long position, long length, WritableByteChannel channel) throws IOException {
+        checkBounds(position, length);
+
+        return transferBySegments(position, length, false, (segment, segmentOffset, chunkLength) -> {
+            if (segment == null) {
+                return transferZeros(chunkLength, channel);
+            }
+
+            return segment.transferTo(segmentOffset, chunkLength, channel);
+        });
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel channel, long position, long length) throws IOException {
+        checkBounds(position, length);
+
+        return transferBySegments(position, length, true, (segment, segmentOffset, chunkLength) -> segment.transferFrom(channel, segmentOffset, chunkLength));
+    }
+
+    /**
+     * Get segment that contains provided position, allocate it if it doesn't exist
+     */
+    private Buffer segmentForWrite(long position) {
+        int index = segmentIndex(position);
+
+        Buffer segment = segments.get(index);
+
+        if (segment != null) {
+            return segment;
+        }
+
+        long segmentPosition = (long) index * segmentSize;
+
+        Buffer newSegment = BufferType.UNSAFE.get(Math.min(segmentSize, size - segmentPosition), owner);
+
+        if (segments.compareAndSet(index, null, newSegment)) {
+            return newSegment;
+        }
+
+        // segment was allocated by concurrent writer
+        close(newSegment);
+
+        return segments.get(index);
+    }
+
+    private int segmentIndex(long position) {
+        return (int) (position >>> segmentShift);
+    }
+
+    private int segmentOffset(long position) {
+        return (int) (position & segmentMask);
+    }
+
+    private void checkBounds(long position, long length) {
+        if (position < 0 || length < 0 || position > size - length) {
+            throw new IndexOutOfBoundsException(String.format("position: %d length: %d buffer size: %d", position, length, size));
+        }
+    }
+
+    /**
+     * Aligned value never crosses segment boundary because segment size is power of two
+     */
+    private void checkAligned(long position, int length) {
+        checkBounds(position, length);
+        Atomics.checkAlignment(position, length);
+    }
+
+    private boolean isSplit(long position, int length) {
+        checkBounds(position, length);
+
+        return segmentOffset(position) + length > segmentSize;
+    }
+
+    /**
+     * Transfer region by parts that are limited by segment ends, stop at the first incomplete part
+     *
+     * @param allocate allocate missing segments, otherwise missing segment is passed to transfer as null
+     */
+    private long transferBySegments(long position, long length, boolean allocate, SegmentTransfer segmentTransfer) throws IOException {
+        long transferred = 0;
+
+        while (transferred < length) {
+            int index = segmentIndex(position + transferred);
+            int segmentOffset = segmentOffset(position + transferred);
+
+            Buffer segment = allocate ? segmentForWrite(position + transferred) : segments.get(index);
+
+            long segmentLength = Math.min(segmentSize, size - (long) index * segmentSize);
+            long chunkLength = Math.min(length - transferred, segmentLength - segmentOffset);
+
+            long chunkTransferred = segmentTransfer.transfer(segment, segmentOffset, chunkLength);
+
+            transferred += chunkTransferred;
+
+            if (chunkTransferred < chunkLength) {
+                break;
+            }
+        }
+
+        return transferred;
+    }
+
+    /**
+     * Write zeros to the channel from shared read only buffer, every chunk is a duplicate, so concurrent transfers don't share
+     * buffer position
+     */
+    private static long transferZeros(long length, WritableByteChannel channel) throws IOException {
+        return BufferChannels.transferTo(0, length, channel, (chunkPosition, maxLength) -> ZEROS.duplicate().limit((int) Math.min(maxLength, ZEROS.capacity())));
+    }
+
+    private ByteBuffer splitAccessor(long position, int length) {
+        byte[] data = new byte[length];
+
+        read(position, data, 0, length);
+
+        return ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
+    }
+
+    private static boolean isZero(Buffer segment) {
+        long segmentSize = segment.bufferSize();
+        long position = 0;
+
+        for (; position + Long.BYTES <= segmentSize; position += Long.BYTES) {
+            if (segment.getLong(position) != 0) {
+                return false;
+            }
+        }
+
+        for (; position < segmentSize; position++) {
+            if (segment.getByte(position) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void close(Buffer segment) {
+        if (segment instanceof Closeable) {
+            try {
+                ((Closeable) segment).close();
+            } catch (IOException e) {
+                throw new IllegalStateException("can't release segment", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SegmentTransfer {
+        long transfer(Buffer segment, int segmentOffset, long length) throws IOException;
+    }
+}
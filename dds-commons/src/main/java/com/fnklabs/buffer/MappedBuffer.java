@@ -0,0 +1,138 @@
+package com.fnklabs.buffer;
+
+import com.google.common.base.Verify;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File backed buffer that is mapped into memory via {@link FileChannel#map(FileChannel.MapMode, long, long)}
+ * <p>
+ * File is mapped by segments so buffer can address more than 2 GB. Data is kept in OS page cache and will be available after
+ * reopening the same file, but it is guaranteed to reach the storage device only after {@link #force()}.
+ * <p>
+ * Mapped memory is released by GC after buffer become unreachable, {@link #close()} only closes underlying file channel.
+ */
+public class MappedBuffer extends SegmentedBuffer implements Flushable, Closeable {
+    private final FileChannel fileChannel;
+
+    private MappedBuffer(long size, int segmentSize, FileChannel fileChannel, ByteBuffer[] segments) {
+        super(size, segmentSize, segments);
+
+        this.fileChannel = fileChannel;
+    }
+
+    /**
+     * Open or create file and map it into memory. File will be extended to provided size if required
+     *
+     * @param file file path
+     * @param size buffer size
+     *
+     * @return mapped buffer
+     *
+     * @throws IOException if file can't be opened or mapped
+     */
+    public static MappedBuffer open(Path file, long size) throws IOException {
+        return open(file, size, MemoryManager.DEFAULT);
+    }
+
+    /**
+     * Open or create file and map it into memory. Mapped memory is registered in {@link MemoryManager} under provided owner
+     *
+     * @param file  file path
+     * @param size  buffer size
+     * @param owner owner tag
+     *
+     * @return mapped buffer
+     *
+     * @throws IOException          if file can't be opened or mapped
+     * @throws MemoryLimitException if memory hard limit would be exceeded
+     */
+    public static MappedBuffer open(Path file, long size, String owner) throws IOException {
+        MemoryManager memoryManager = MemoryManager.getInstance();
+        MemoryManager.Reservation reservation = memoryManager.reserve(owner, size);
+
+        try {
+            MappedBuffer buffer = map(file, size, DEFAULT_SEGMENT_SIZE);
+
+            memoryManager.register(buffer, reservation::release);
+
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            reservation.release();
+
+            throw e;
+        }
+    }
+
+    static MappedBuffer map(Path file, long size, int segmentSize) throws IOException {
+        Verify.verify(size > 0, "size must be positive: %s", size);
+
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            ByteBuffer[] segments = new ByteBuffer[segmentsCount(size, segmentSize)];
+
+            for (int i = 0; i < segments.length; i++) {
+                long segmentPosition = (long) i * segmentSize;
+
+                segments[i] = fileChannel.map(FileChannel.MapMode.READ_WRITE, segmentPosition, Math.min(segmentSize, size - segmentPosition));
+            }
+
+            return new MappedBuffer(size, segmentSize, fileChannel, segments);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Force all changes to be written to the storage device
+     */
+    public void force() {
+        for (ByteBuffer segment : segments()) {
+            ((MappedByteBuffer) segment).force();
+        }
+    }
+
+    /**
+     * Force changes of provided region to be written to the storage device
+     *
+     * @param position region position
+     * @param length   region length
+     */
+    public void force(long position, long length) {
+        Verify.verify(length >= 0 && position >= 0 && position <= bufferSize() - length, "invalid region %s:%s", position, length);
+
+        long end = position + length;
+
+        while (position < end) {
+            MappedByteBuffer segment = (MappedByteBuffer) segment(position);
+            int segmentOffset = segmentOffset(position);
+            int chunkLength = (int) Math.min(end - position, segment.capacity() - segmentOffset);
+
+            segment.force(segmentOffset, chunkLength);
+
+            position += chunkLength;
+        }
+    }
+
+    @Override
+    public void flush() {
+        force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+
+        fileChannel.close();
+    }
+}
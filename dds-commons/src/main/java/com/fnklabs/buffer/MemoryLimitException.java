@@ -0,0 +1,12 @@
+package com.fnklabs.buffer;
+
+/**
+ * Thrown when allocation would exceed {@link MemoryManager} hard limit
+ */
+public class MemoryLimitException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    MemoryLimitException(String owner, long size, long usedMemory, long hardLimit) {
+        super(String.format("can't allocate %d bytes for `%s`: used %d of %d bytes", size, owner, usedMemory, hardLimit));
+    }
+}
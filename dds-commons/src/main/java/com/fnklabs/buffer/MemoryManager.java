@@ -0,0 +1,243 @@
+package com.fnklabs.buffer;
+
+import com.fnklabs.metrics.MetricsFactory;
+import com.fnklabs.metrics.Timer;
+import com.google.common.base.Verify;
+
+import java.lang.ref.Cleaner;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process wide accounting of memory that is allocated by {@link BufferType}
+ * <p>
+ * Every allocation is registered with owner tag (table, chunk, network...) so memory usage can be inspected per owner. New allocations
+ * are delayed while usage is above soft limit (until memory is released or soft limit timeout is elapsed) and are rejected with
+ * {@link MemoryLimitException} if hard limit would be exceeded.
+ * <p>
+ * Reservation is released when buffer is closed or when it become unreachable. Memory of heap, direct and mapped buffers is reclaimed
+ * by GC, native memory of unsafe buffers is freed by their own cleanup action together with reservation.
+ */
+public final class MemoryManager {
+    public static final String DEFAULT = "default";
+    public static final String TABLE = "table";
+    public static final String CHUNK = "chunk";
+    public static final String NETWORK = "network";
+    public static final String CACHE = "cache";
+    public static final String SCAN = "scan";
+
+    /**
+     * @param name table name
+     *
+     * @return owner tag of the table
+     */
+    public static String table(String name) {
+        return TABLE + ":" + name;
+    }
+
+    private static final MemoryManager INSTANCE = new MemoryManager();
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final AtomicLong usedMemory = new AtomicLong();
+
+    private final Map<String, AtomicLong> ownerUsedMemory = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition memoryReleased = lock.newCondition();
+
+    private volatile long hardLimit = Long.MAX_VALUE;
+    private volatile long softLimit = Long.MAX_VALUE;
+    private volatile long softLimitTimeout = TimeUnit.SECONDS.toMillis(1);
+
+    MemoryManager() {
+    }
+
+    public static MemoryManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set max memory that can be allocated, allocations above the limit are rejected
+     *
+     * @param hardLimit limit in bytes
+     */
+    public void setHardLimit(long hardLimit) {
+        Verify.verify(hardLimit > 0, "hard limit must be positive: %s", hardLimit);
+
+        this.hardLimit = hardLimit;
+    }
+
+    /**
+     * Set memory usage above which new allocations are delayed until memory is released
+     *
+     * @param softLimit        limit in bytes
+     * @param softLimitTimeout max time for which allocation can be delayed
+     * @param timeUnit         timeout unit
+     */
+    public void setSoftLimit(long softLimit, long softLimitTimeout, TimeUnit timeUnit) {
+        Verify.verify(softLimit > 0, "soft limit must be positive: %s", softLimit);
+
+        this.softLimit = softLimit;
+        this.softLimitTimeout = timeUnit.toMillis(softLimitTimeout);
+    }
+
+    public long hardLimit() {
+        return hardLimit;
+    }
+
+    public long softLimit() {
+        return softLimit;
+    }
+
+    /**
+     * @return total registered memory in bytes
+     */
+    public long usedMemory() {
+        return usedMemory.get();
+    }
+
+    /**
+     * @param owner owner tag
+     *
+     * @return memory in bytes registered by the owner
+     */
+    public long usedMemory(String owner) {
+        AtomicLong used = ownerUsedMemory.get(owner);
+
+        return used == null ? 0 : used.get();
+    }
+
+    /**
+     * @return snapshot of used memory by owners
+     */
+    public Map<String, Long> usedMemoryByOwner() {
+        Map<String, Long> snapshot = new HashMap<>();
+
+        ownerUsedMemory.forEach((owner, used) -> snapshot.put(owner, used.get()));
+
+        return snapshot;
+    }
+
+    /**
+     * Reserve memory for new allocation. Call can be blocked if soft limit is exceeded
+     *
+     * @param owner owner tag
+     * @param size  requested size
+     *
+     * @return reservation that must be released after memory is freed
+     *
+     * @throws MemoryLimitException if hard limit would be exceeded
+     */
+    Reservation reserve(String owner, long size) {
+        awaitSoftLimit(size);
+
+        for (; ; ) {
+            long current = usedMemory.get();
+
+            if (current + size > hardLimit) {
+                MetricsFactory.getMetrics().getCounter(String.format("memory.%s.rejected", owner)).inc();
+
+                throw new MemoryLimitException(owner, size, current, hardLimit);
+            }
+
+            if (usedMemory.compareAndSet(current, current + size)) {
+                break;
+            }
+        }
+
+        ownerUsedMemory.computeIfAbsent(owner, key -> new AtomicLong()).addAndGet(size);
+
+        MetricsFactory.getMetrics().getCounter(String.format("memory.%s.used", owner)).inc(size);
+
+        return new Reservation(this, owner, size);
+    }
+
+    /**
+     * Run cleanup action when referent become unreachable or when returned cleanable is cleaned, whichever happens first
+     *
+     * @param referent object that holds memory
+     * @param action   action that releases memory, must not reference the referent
+     *
+     * @return registered cleanable
+     */
+    Cleaner.Cleanable register(Object referent, Runnable action) {
+        return CLEANER.register(referent, action);
+    }
+
+    private void release(String owner, long size) {
+        usedMemory.addAndGet(-size);
+        ownerUsedMemory.get(owner).addAndGet(-size);
+
+        MetricsFactory.getMetrics().getCounter(String.format("memory.%s.used", owner)).inc(-size);
+
+        if (softLimit != Long.MAX_VALUE) {
+            lock.lock();
+
+            try {
+                memoryReleased.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void awaitSoftLimit(long size) {
+        if (usedMemory.get() + size <= softLimit) {
+            return;
+        }
+
+        Timer timer = MetricsFactory.getMetrics().getTimer("memory.soft-limit.wait");
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(softLimitTimeout);
+
+        lock.lock();
+
+        try {
+            while (usedMemory.get() + size > softLimit) {
+                long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    return;
+                }
+
+                memoryReleased.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+
+            timer.stop();
+        }
+    }
+
+    /**
+     * Reserved memory, can be released only once
+     */
+    static final class Reservation {
+        private final MemoryManager memoryManager;
+        private final String owner;
+        private final long size;
+
+        private final AtomicBoolean isReleased = new AtomicBoolean(false);
+
+        private Reservation(MemoryManager memoryManager, String owner, long size) {
+            this.memoryManager = memoryManager;
+            this.owner = owner;
+            this.size = size;
+        }
+
+        void release() {
+            if (isReleased.compareAndSet(false, true)) {
+                memoryManager.release(owner, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.fnklabs.buffer;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference counted buffer that is allocated by {@link BufferPool}
+ * <p>
+ * Buffer is created with one reference. Region is returned to the pool when last reference is released, buffer must not be used
+ * after that
+ */
+public final class PooledBuffer extends SlicedBuffer implements Closeable {
+    private final BufferPool pool;
+
+    private final BufferPool.Region region;
+
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    PooledBuffer(BufferPool pool, BufferPool.Region region, int size) {
+        super(region.buffer(), region.offset(), size);
+
+        this.pool = pool;
+        this.region = region;
+    }
+
+    /**
+     * Acquire new reference
+     *
+     * @return current buffer
+     */
+    public PooledBuffer retain() {
+        for (; ; ) {
+            int current = references.get();
+
+            if (current <= 0) {
+                throw new IllegalStateException("buffer was already released");
+            }
+
+            if (references.compareAndSet(current, current + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Release reference and return region to the pool if it was last reference
+     *
+     * @return true if buffer was returned to the pool
+     */
+    public boolean release() {
+        int current = references.decrementAndGet();
+
+        if (current < 0) {
+            references.incrementAndGet();
+
+            throw new IllegalStateException("buffer was already released");
+        }
+
+        if (current == 0) {
+            pool.release(region);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return size of memory that is held by buffer, it is size of its size class and can be up to twice larger than
+     * {@link #bufferSize()}
+     */
+    public long capacity() {
+        return pool.capacity(region);
+    }
+
+    public int references() {
+        return references.get();
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
@@ -0,0 +1,345 @@
+package com.fnklabs.buffer;
+
+import com.google.common.base.Verify;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.IntFunction;
+
+/**
+ * Buffer that is split into fixed size {@link ByteBuffer} segments and addressed by long position
+ * <p>
+ * Segment size must be power of two so position translation is a shift and a mask. Accesses that straddle segment boundary
+ * are split between neighbour segments. It allows to use JDK managed heap and direct memory for buffers larger than 2 GB.
+ */
+class SegmentedBuffer implements Buffer {
+    /**
+     * Default segment size: 1 GB
+     */
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final long size;
+
+    private final ByteBuffer[] segments;
+
+    private final int segmentShift;
+    private final long segmentMask;
+
+    SegmentedBuffer(long size, int segmentSize, ByteBuffer[] segments) {
+        Verify.verify(Integer.bitCount(segmentSize) == 1, "segment size must be power of two: %s", segmentSize);
+        Verify.verify(segments.length == segmentsCount(size, segmentSize), "invalid segments count %s for size %s", segments.length, size);
+
+        this.size = size;
+        this.segments = segments;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+
+        for (ByteBuffer segment : segments) {
+            segment.order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Allocate segmented buffer
+     *
+     * @param size        buffer size
+     * @param segmentSize segment size, must be power of two
+     * @param allocator   segment allocator, for example {@link ByteBuffer#allocateDirect(int)}
+     *
+     * @return new buffer
+     */
+    static SegmentedBuffer allocate(long size, int segmentSize, IntFunction<ByteBuffer> allocator) {
+        ByteBuffer[] segments = new ByteBuffer[segmentsCount(size, segmentSize)];
+
+        for (int i = 0; i < segments.length; i++) {
+            long segmentPosition = (long) i * segmentSize;
+
+            segments[i] = allocator.apply((int) Math.min(segmentSize, size - segmentPosition));
+        }
+
+        return new SegmentedBuffer(size, segmentSize, segments);
+    }
+
+    /**
+     * Calculate number of segments that are required to address buffer of provided size
+     *
+     * @param size        buffer size
+     * @param segmentSize segment size
+     *
+     * @return segments count
+     */
+    static int segmentsCount(long size, int segmentSize) {
+        long count = (size + segmentSize - 1) / segmentSize;
+
+        Verify.verify(count <= Integer.MAX_VALUE, "too many segments: %s", count);
+
+        return (int) count;
+    }
+
+    @Override
+    public long bufferSize() {
+        return size;
+    }
+
+    @Override
+    public void read(long position, byte[] data) {
+        read(position, data, 0, data.length);
+    }
+
+    @Override
+    public void read(long position, byte[] data, int offset, int length) {
+        checkBounds(position, length);
+
+        while (length > 0) {
+            ByteBuffer segment = segment(position);
+            int segmentOffset = segmentOffset(position);
+            int chunkLength = Math.min(length, segment.capacity() - segmentOffset);
+
+            segment.duplicate().position(segmentOffset).get(data, offset, chunkLength);
+
+            position += chunkLength;
+            offset += chunkLength;
+            length -= chunkLength;
+        }
+    }
+
+    @Override
+    public void write(long position, byte[] data) {
+        write(position, data, 0, data.length);
+    }
+
+    @Override
+    public void write(long position, byte[] data, int offset, int length) {
+        checkBounds(position, length);
+
+        while (length > 0) {
+            ByteBuffer segment = segment(position);
+            int segmentOffset = segmentOffset(position);
+            int chunkLength = Math.min(length, segment.capacity() - segmentOffset);
+
+            segment.duplicate().position(segmentOffset).put(data, offset, chunkLength);
+
+            position += chunkLength;
+            offset += chunkLength;
+            length -= chunkLength;
+        }
+    }
+
+    @Override
+    public byte getByte(long position) {
+        checkBounds(position, Byte.BYTES);
+
+        return segment(position).get(segmentOffset(position));
+    }
+
+    @Override
+    public void putByte(long position, byte value) {
+        checkBounds(position, Byte.BYTES);
+
+        segment(position).put(segmentOffset(position), value);
+    }
+
+    @Override
+    public int getInt(long position) {
+        if (isSplit(position, Integer.BYTES)) {
+            return splitAccessor(position, Integer.BYTES).getInt(0);
+        }
+
+        return segment(position).getInt(segmentOffset(position));
+    }
+
+    @Override
+    public void putInt(long position, int value) {
+        if (isSplit(position, Integer.BYTES)) {
+            writeSplit(position, ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder()).putInt(0, value));
+        } else {
+            segment(position).putInt(segmentOffset(position), value);
+        }
+    }
+
+    @Override
+    public long getLong(long position) {
+        if (isSplit(position, Long.BYTES)) {
+            return splitAccessor(position, Long.BYTES).getLong(0);
+        }
+
+        return segment(position).getLong(segmentOffset(position));
+    }
+
+    @Override
+    public void putLong(long position, long value) {
+        if (isSplit(position, Long.BYTES)) {
+            writeSplit(position, ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(0, value));
+        } else {
+            segment(position).putLong(segmentOffset(position), value);
+        }
+    }
+
+    @Override
+    public float getFloat(long position) {
+        return Float.intBitsToFloat(getInt(position));
+    }
+
+    @Override
+    public void putFloat(long position, float value) {
+        putInt(position, Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public double getDouble(long position) {
+        return Double.longBitsToDouble(getLong(position));
+    }
+
+    @Override
+    public void putDouble(long position, double value) {
+        putLong(position, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public int getIntVolatile(long position) {
+        checkAligned(position, Integer.BYTES);
+
+        return Atomics.getIntVolatile(segment(position), segmentOffset(position));
+    }
+
+    @Override
+    public void putIntVolatile(long position, int value) {
+        checkAligned(position, Integer.BYTES);
+
+        Atomics.putIntVolatile(segment(position), segmentOffset(position), value);
+    }
+
+    @Override
+    public boolean compareAndSetInt(long position, int expected, int value) {
+        checkAligned(position, Integer.BYTES);
+
+        return Atomics.compareAndSetInt(segment(position), segmentOffset(position), expected, value);
+    }
+
+    @Override
+    public int getAndAddInt(long position, int delta) {
+        checkAligned(position, Integer.BYTES);
+
+        return Atomics.getAndAddInt(segment(position), segmentOffset(position), delta);
+    }
+
+    @Override
+    public long getLongVolatile(long position) {
+        checkAligned(position, Long.BYTES);
+
+        return Atomics.getLongVolatile(segment(position), segmentOffset(position));
+    }
+
+    @Override
+    public void putLongVolatile(long position, long value) {
+        checkAligned(position, Long.BYTES);
+
+        Atomics.putLongVolatile(segment(position), segmentOffset(position), value);
+    }
+
+    @Override
+    public boolean compareAndSetLong(long position, long expected, long value) {
+        checkAligned(position, Long.BYTES);
+
+        return Atomics.compareAndSetLong(segment(position), segmentOffset(position), expected, value);
+    }
+
+    @Override
+    public long getAndAddLong(long position, long delta) {
+        checkAligned(position, Long.BYTES);
+
+        return Atomics.getAndAddLong(segment(position), segmentOffset(position), delta);
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer(long position, int length) {
+        if (isSplit(position, length)) {
+            throw new UnsupportedOperationException(String.format("region %d:%d crosses segment boundary", position, length));
+        }
+
+        return chunk(position, length);
+    }
+
+    @Override
+    public long transferTo(long position, long length, WritableByteChannel channel) throws IOException {
+        checkBounds(position, length);
+
+        return BufferChannels.transferTo(position, length, channel, this::chunk);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel channel, long position, long length) throws IOException {
+        checkBounds(position, length);
+
+        return BufferChannels.transferFrom(channel, position, length, this::chunk);
+    }
+
+    ByteBuffer[] segments() {
+        return segments;
+    }
+
+    int segmentIndex(long position) {
+        return (int) (position >>> segmentShift);
+    }
+
+    ByteBuffer segment(long position) {
+        return segments[segmentIndex(position)];
+    }
+
+    int segmentOffset(long position) {
+        return (int) (position & segmentMask);
+    }
+
+    void checkBounds(long position, long length) {
+        if (position < 0 || length < 0 || position > size - length) {
+            throw new IndexOutOfBoundsException(String.format("position: %d length: %d buffer size: %d", position, length, size));
+        }
+    }
+
+    /**
+     * Aligned value never crosses segment boundary because segment size is power of two
+     */
+    private void checkAligned(long position, int length) {
+        checkBounds(position, length);
+        Atomics.checkAlignment(position, length);
+    }
+
+    /**
+     * Check bounds and whether value of provided length crosses segment boundary
+     *
+     * @param position value position
+     * @param length   value length
+     *
+     * @return true if value is split between two segments
+     */
+    private boolean isSplit(long position, int length) {
+        checkBounds(position, length);
+
+        return segmentOffset(position) + length > segment(position).capacity();
+    }
+
+    /**
+     * @return view of the region that is limited by segment end
+     */
+    private ByteBuffer chunk(long position, long maxLength) {
+        ByteBuffer segment = segment(position);
+        int segmentOffset = segmentOffset(position);
+
+        return segment.slice(segmentOffset, (int) Math.min(maxLength, segment.capacity() - segmentOffset)).order(ByteOrder.nativeOrder());
+    }
+
+    private ByteBuffer splitAccessor(long position, int length) {
+        byte[] data = new byte[length];
+
+        read(position, data, 0, length);
+
+        return ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
+    }
+
+    private void writeSplit(long position, ByteBuffer value) {
+        write(position, value.array(), 0, value.capacity());
+    }
+}
@@ -0,0 +1,185 @@
+package com.fnklabs.buffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * View of [offset, offset + length) region of parent buffer. Positions are relative to region start
+ */
+class SlicedBuffer implements Buffer {
+    private final Buffer parent;
+
+    private final long offset;
+    private final long length;
+
+    SlicedBuffer(Buffer parent, long offset, long length) {
+        if (offset < 0 || length < 0 || offset > parent.bufferSize() - length) {
+            throw new IndexOutOfBoundsException(String.format("offset: %d length: %d buffer size: %d", offset, length, parent.bufferSize()));
+        }
+
+        this.parent = parent;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public long bufferSize() {
+        return length;
+    }
+
+    @Override
+    public void read(long position, byte[] data) {
+        read(position, data, 0, data.length);
+    }
+
+    @Override
+    public void read(long position, byte[] data, int offset, int length) {
+        parent.read(translate(position, length), data, offset, length);
+    }
+
+    @Override
+    public void write(long position, byte[] data) {
+        write(position, data, 0, data.length);
+    }
+
+    @Override
+    public void write(long position, byte[] data, int offset, int length) {
+        parent.write(translate(position, length), data, offset, length);
+    }
+
+    @Override
+    public byte getByte(long position) {
+        return parent.getByte(translate(position, Byte.BYTES));
+    }
+
+    @Override
+    public void putByte(long position, byte value) {
+        parent.putByte(translate(position, Byte.BYTES), value);
+    }
+
+    @Override
+    public int getInt(long position) {
+        return parent.getInt(translate(position, Integer.BYTES));
+    }
+
+    @Override
+    public void putInt(long position, int value) {
+        parent.putInt(translate(position, Integer.BYTES), value);
+    }
+
+    @Override
+    public long getLong(long position) {
+        return parent.getLong(translate(position, Long.BYTES));
+    }
+
+    @Override
+    public void putLong(long position, long value) {
+        parent.putLong(translate(position, Long.BYTES), value);
+    }
+
+    @Override
+    public float getFloat(long position) {
+        return parent.getFloat(translate(position, Float.BYTES));
+    }
+
+    @Override
+    public void putFloat(long position, float value) {
+        parent.putFloat(translate(position, Float.BYTES), value);
+    }
+
+    @Override
+    public double getDouble(long position) {
+        return parent.getDouble(translate(position, Double.BYTES));
+    }
+
+    @Override
+    public void putDouble(long position, double value) {
+        parent.putDouble(translate(position, Double.BYTES), value);
+    }
+
+    @Override
+    public int getIntVolatile(long position) {
+        return parent.getIntVolatile(translate(position, Integer.BYTES));
+    }
+
+    @Override
+    public void putIntVolatile(long position, int value) {
+        parent.putIntVolatile(translate(position, Integer.BYTES), value);
+    }
+
+    @Override
+    public boolean compareAndSetInt(long position, int expected, int value) {
+        return parent.compareAndSetInt(translate(position, Integer.BYTES), expected, value);
+    }
+
+    @Override
+    public int getAndAddInt(long position, int delta) {
+        return parent.getAndAddInt(translate(position, Integer.BYTES), delta);
+    }
+
+    @Override
+    public long getLongVolatile(long position) {
+        return parent.getLongVolatile(translate(position, Long.BYTES));
+    }
+
+    @Override
+    public void putLongVolatile(long position, long value) {
+        parent.putLongVolatile(translate(position, Long.BYTES), value);
+    }
+
+    @Override
+    public boolean compareAndSetLong(long position, long expected, long value) {
+        return parent.compareAndSetLong(translate(position, Long.BYTES), expected, value);
+    }
+
+    @Override
+    public long getAndAddLong(long position, long delta) {
+        return parent.getAndAddLong(translate(position, Long.BYTES), delta);
+    }
+
+    @Override
+    public Buffer slice(long position, long length) {
+        return new SlicedBuffer(parent, translate(position, length), length);
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer(long position, int length) {
+        return parent.asByteBuffer(translate(position, length), length);
+    }
+
+    @Override
+    public long transferTo(long position, long length, WritableByteChannel channel) throws IOException {
+        return parent.transferTo(translate(position, length), length, channel);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel channel, long position, long length) throws IOException {
+        return parent.transferFrom(channel, translate(position, length), length);
+    }
+
+    Buffer parent() {
+        return parent;
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * Check that access is inside of the region and translate position to parent buffer position
+     *
+     * @param position region position
+     * @param length   access length
+     *
+     * @return parent buffer position
+     */
+    long translate(long position, long length) {
+        if (position < 0 || length < 0 || position > this.length - length) {
+            throw new IndexOutOfBoundsException(String.format("position: %d length: %d buffer size: %d", position, length, this.length));
+        }
+
+        return offset + position;
+    }
+}
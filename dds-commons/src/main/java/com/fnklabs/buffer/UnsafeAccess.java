@@ -0,0 +1,54 @@
+package com.fnklabs.buffer;
+
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Holder for {@link Unsafe} instance that is used by off-heap buffers
+ * <p>
+ * It is the only place that obtains Unsafe, dds-commons is compiled with -XDignore.symbol.file, so usages of this internal API
+ * don't produce compiler warnings
+ */
+final class UnsafeAccess {
+    static final Unsafe UNSAFE;
+
+    static final long BYTE_ARRAY_OFFSET;
+
+    /**
+     * Offset of {@link java.nio.Buffer} address field, it is only read to copy memory to and from direct buffers
+     */
+    private static final long BUFFER_ADDRESS_OFFSET;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+
+            UNSAFE = (Unsafe) field.get(null);
+            BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+            BUFFER_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(java.nio.Buffer.class.getDeclaredField("address"));
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private UnsafeAccess() {
+    }
+
+    /**
+     * Buffer must be kept reachable while its address is used
+     *
+     * @param buffer direct buffer
+     *
+     * @return address of the first byte of direct buffer
+     */
+    static long address(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("buffer is not direct");
+        }
+
+        return UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET);
+    }
+}
@@ -1,23 +1,59 @@
 package com.fnklabs.buffer;
 
-import com.alexkasko.unsafe.offheap.OffHeapMemory;
+import com.fnklabs.metrics.MetricsFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
+import static com.fnklabs.buffer.UnsafeAccess.BYTE_ARRAY_OFFSET;
+import static com.fnklabs.buffer.UnsafeAccess.UNSAFE;
+
+/**
+ * Buffer over native memory that is allocated by {@link sun.misc.Unsafe}
+ * <p>
+ * Memory is freed by {@link #close()} or by {@link MemoryManager} cleaner when buffer become unreachable without being closed, such
+ * buffers are counted as leaked.
+ * <p>
+ * Buffer can become unreachable while its memory is accessed, because only its address is used by the access, so every access is
+ * followed by reachability fence that keeps memory allocated until the access is completed.
+ */
 class UnsafeBuffer implements Buffer, Closeable {
     private final long size;
 
-    private final OffHeapMemory offHeapMemory;
+    /**
+     * Base address of allocated memory region
+     */
+    private final long address;
+
+    private final Deallocator deallocator;
+
+    private final Cleaner.Cleanable cleanable;
 
     public UnsafeBuffer(long size) {
+        this(size, () -> {});
+    }
+
+    /**
+     * @param size    buffer size
+     * @param onClose called after memory was freed
+     */
+    UnsafeBuffer(long size, Runnable onClose) {
         this.size = size;
+        this.address = UNSAFE.allocateMemory(size);
 
         try {
-            offHeapMemory = OffHeapMemory.allocateMemoryUnsafe(size);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            UNSAFE.setMemory(address, size, (byte) 0);
+        } finally {
+            Reference.reachabilityFence(this);
         }
+
+        this.deallocator = new Deallocator(address, size, onClose);
+        this.cleanable = MemoryManager.getInstance().register(this, deallocator);
     }
 
     @Override
@@ -27,29 +63,336 @@ class UnsafeBuffer implements Buffer, Closeable {
 
     @Override
     public void read(long position, byte[] data) {
-        offHeapMemory.get(position, data);
+        read(position, data, 0, data.length);
     }
 
     @Override
     public void read(long position, byte[] data, int offset, int length) {
-        offHeapMemory.get(position, data, (int) offset, length);
+        checkBounds(position, length);
+        checkArrayBounds(data, offset, length);
+
+        try {
+            UNSAFE.copyMemory(null, address + position, data, BYTE_ARRAY_OFFSET + offset, length);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     @Override
     public void write(long position, byte[] data) {
-        offHeapMemory.put(position, data);
+        write(position, data, 0, data.length);
     }
 
     @Override
     public void write(long position, byte[] data, int offset, int length) {
-        offHeapMemory.put(position, data, offset, length);
+        checkBounds(position, length);
+        checkArrayBounds(data, offset, length);
+
+        try {
+            UNSAFE.copyMemory(data, BYTE_ARRAY_OFFSET + offset, null, address + position, length);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public byte getByte(long position) {
+        checkBounds(position, Byte.BYTES);
+
+        try {
+            return UNSAFE.getByte(address + position);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public void putByte(long position, byte value) {
+        checkBounds(position, Byte.BYTES);
+
+        try {
+            UNSAFE.putByte(address + position, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public int getInt(long position) {
+        checkBounds(position, Integer.BYTES);
+
+        try {
+            return UNSAFE.getInt(address + position);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public void putInt(long position, int value) {
+        checkBounds(position, Integer.BYTES);
+
+        try {
+            UNSAFE.putInt(address + position, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public long getLong(long position) {
+        checkBounds(position, Long.BYTES);
+
+        try {
+            return UNSAFE.getLong(address + position);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public void putLong(long position, long value) {
+        checkBounds(position, Long.BYTES);
+
+        try {
+            UNSAFE.putLong(address + position, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public float getFloat(long position) {
+        checkBounds(position, Float.BYTES);
+
+        try {
+            return UNSAFE.getFloat(address + position);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public void putFloat(long position, float value) {
+        checkBounds(position, Float.BYTES);
+
+        try {
+            UNSAFE.putFloat(address + position, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public double getDouble(long position) {
+        checkBounds(position, Double.BYTES);
+
+        try {
+            return UNSAFE.getDouble(address + position);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public void putDouble(long position, double value) {
+        checkBounds(position, Double.BYTES);
+
+        try {
+            UNSAFE.putDouble(address + position, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public int getIntVolatile(long position) {
+        checkAligned(position, Integer.BYTES);
+
+        try {
+            return UNSAFE.getIntVolatile(null, address + position);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public void putIntVolatile(long position, int value) {
+        checkAligned(position, Integer.BYTES);
+
+        try {
+            UNSAFE.putIntVolatile(null, address + position, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public boolean compareAndSetInt(long position, int expected, int value) {
+        checkAligned(position, Integer.BYTES);
+
+        try {
+            return UNSAFE.compareAndSwapInt(null, address + position, expected, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public int getAndAddInt(long position, int delta) {
+        checkAligned(position, Integer.BYTES);
+
+        try {
+            return UNSAFE.getAndAddInt(null, address + position, delta);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public long getLongVolatile(long position) {
+        checkAligned(position, Long.BYTES);
+
+        try {
+            return UNSAFE.getLongVolatile(null, address + position);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public void putLongVolatile(long position, long value) {
+        checkAligned(position, Long.BYTES);
+
+        try {
+            UNSAFE.putLongVolatile(null, address + position, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public boolean compareAndSetLong(long position, long expected, long value) {
+        checkAligned(position, Long.BYTES);
+
+        try {
+            return UNSAFE.compareAndSwapLong(null, address + position, expected, value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    @Override
+    public long getAndAddLong(long position, long delta) {
+        checkAligned(position, Long.BYTES);
+
+        try {
+            return UNSAFE.getAndAddLong(null, address + position, delta);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Memory that isn't owned by {@link ByteBuffer} can't be exposed as ByteBuffer by public API, use {@link BufferType#DIRECT} or
+     * {@link BufferType#MAPPED} buffers for views
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public ByteBuffer asByteBuffer(long position, int length) {
+        throw new UnsupportedOperationException("unsafe buffer can't be exposed as ByteBuffer");
+    }
 
+    /**
+     * Region is copied to the channel through reusable direct staging buffer
+     */
+    @Override
+    public long transferTo(long position, long length, WritableByteChannel channel) throws IOException {
+        checkBounds(position, length);
+
+        try {
+            return BufferChannels.copyTo(address + position, length, channel);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Data is copied from the channel through reusable direct staging buffer
+     */
+    @Override
+    public long transferFrom(ReadableByteChannel channel, long position, long length) throws IOException {
+        checkBounds(position, length);
+
+        try {
+            return BufferChannels.copyFrom(channel, address + position, length);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     @Override
-    public void close() throws IOException {
-        offHeapMemory.free();
+    public void close() {
+        deallocator.closed = true;
+
+        cleanable.clean();
+    }
+
+    /**
+     * Caller must keep the buffer reachable while the address is used
+     *
+     * @return base address of buffer memory
+     */
+    long address() {
+        return address;
+    }
+
+    private void checkBounds(long position, long length) {
+        if (position < 0 || length < 0 || position > size - length) {
+            throw new IndexOutOfBoundsException(String.format("position: %d length: %d buffer size: %d", position, length, size));
+        }
     }
 
+    private void checkAligned(long position, int length) {
+        checkBounds(position, length);
+        Atomics.checkAlignment(position, length);
+    }
+
+    /**
+     * Frees memory of the buffer, must not reference the buffer otherwise buffer would never become unreachable
+     */
+    private static final class Deallocator implements Runnable {
+        private final long address;
+        private final long size;
+        private final Runnable onClose;
+
+        private volatile boolean closed;
 
+        private Deallocator(long address, long size, Runnable onClose) {
+            this.address = address;
+            this.size = size;
+            this.onClose = onClose;
+        }
+
+        /**
+         * Called once by cleanable
+         */
+        @Override
+        public void run() {
+            if (!closed) {
+                MetricsFactory.getMetrics().getCounter("memory.leaked").inc(size);
+            }
+
+            UNSAFE.freeMemory(address);
+
+            onClose.run();
+        }
+    }
+
+    private static void checkArrayBounds(byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IndexOutOfBoundsException(String.format("offset: %d length: %d array length: %d", offset, length, data.length));
+        }
+    }
 }
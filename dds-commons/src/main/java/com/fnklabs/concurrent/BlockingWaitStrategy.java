@@ -0,0 +1,57 @@
+package com.fnklabs.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Block consumer until producer signals new element. Producer takes the lock only if consumer is waiting.
+ * <p>
+ * Wait is limited by {@link #MAX_WAIT_MILLIS} so consumer can check whether it is still running
+ */
+final class BlockingWaitStrategy implements WaitStrategy {
+    private static final long MAX_WAIT_MILLIS = 100;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition signalled = lock.newCondition();
+
+    private final AtomicBoolean hasSignal = new AtomicBoolean();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    @Override
+    public void idle(int idleCount) {
+        lock.lock();
+
+        try {
+            waiters.incrementAndGet();
+
+            if (!hasSignal.get()) {
+                signalled.await(MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiters.decrementAndGet();
+            hasSignal.set(false);
+
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void signal() {
+        hasSignal.set(true);
+
+        if (waiters.get() > 0) {
+            lock.lock();
+
+            try {
+                signalled.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
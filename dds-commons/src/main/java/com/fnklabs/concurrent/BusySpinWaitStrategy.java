@@ -0,0 +1,12 @@
+package com.fnklabs.concurrent;
+
+final class BusySpinWaitStrategy implements WaitStrategy {
+    @Override
+    public void idle(int idleCount) {
+        Thread.onSpinWait();
+    }
+
+    @Override
+    public void signal() {
+    }
+}
@@ -0,0 +1,120 @@
+package com.fnklabs.concurrent;
+
+import com.fnklabs.metrics.Counter;
+import com.fnklabs.metrics.MetricsFactory;
+import com.fnklabs.metrics.Timer;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that runs every task in its own thread provided by delegate and limits count of concurrently executed tasks
+ * <p>
+ * Submitter is blocked while limit is reached, so executor doesn't need task queue. Executor reports the same metrics as
+ * {@link InstrumentedThreadPoolExecutor} except queue depth, wait time is time that submitter waits for execution permit.
+ */
+final class ConcurrencyLimitedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+
+    private final Semaphore permits;
+
+    private final String waitTimerName;
+    private final String executionTimerName;
+
+    private final Counter activeCounter;
+    private final Counter rejectedCounter;
+
+    ConcurrencyLimitedExecutor(ExecutorService delegate, int maxConcurrency, String name) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+
+        this.waitTimerName = String.format("executor.%s.wait", name);
+        this.executionTimerName = String.format("executor.%s.execution", name);
+
+        this.activeCounter = MetricsFactory.getMetrics().getCounter(String.format("executor.%s.active", name));
+        this.rejectedCounter = MetricsFactory.getMetrics().getCounter(String.format("executor.%s.rejected", name));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (delegate.isShutdown()) {
+            rejectedCounter.inc();
+
+            throw new RejectedExecutionException("executor was shutdown");
+        }
+
+        Timer waitTimer = MetricsFactory.getMetrics().getTimer(waitTimerName);
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            rejectedCounter.inc();
+
+            throw new RejectedExecutionException("interrupted while waiting for execution permit", e);
+        } finally {
+            waitTimer.stop();
+        }
+
+        try {
+            delegate.execute(() -> {
+                activeCounter.inc();
+
+                Timer executionTimer = MetricsFactory.getMetrics().getTimer(executionTimerName);
+
+                try {
+                    command.run();
+                } finally {
+                    executionTimer.stop();
+
+                    activeCounter.inc(-1);
+
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+
+            rejectedCounter.inc();
+
+            throw e;
+        }
+    }
+
+    /**
+     * @return count of tasks that can be submitted without blocking
+     */
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
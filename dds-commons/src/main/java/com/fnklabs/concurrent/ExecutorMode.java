@@ -0,0 +1,17 @@
+package com.fnklabs.concurrent;
+
+/**
+ * How tasks of node executors are executed
+ */
+public enum ExecutorMode {
+    /**
+     * Fixed pool of platform threads with bounded queue
+     */
+    PLATFORM,
+
+    /**
+     * One virtual thread per task, count of concurrently executed tasks is limited. Falls back to cached pool of platform threads
+     * if virtual threads are not supported by JVM
+     */
+    VIRTUAL,
+}
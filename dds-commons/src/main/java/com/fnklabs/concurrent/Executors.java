@@ -1,11 +1,19 @@
 package com.fnklabs.concurrent;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 public final class Executors {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Executors.class);
+
+    private static final int DEFAULT_QUEUE_SIZE = 500;
+
     private Executors() {
     }
 
@@ -16,15 +24,109 @@ public final class Executors {
         );
     }
 
+    /**
+     * Create instrumented fixed pool with queue of 500 tasks that rejects new tasks if queue is full
+     *
+     * @param poolSize pool size
+     * @param name     threads name prefix and metrics name
+     *
+     * @return executor
+     */
     public static ThreadPoolExecutor fixedPoolExecutor(int poolSize, String name) {
+        return fixedPoolExecutor(poolSize, DEFAULT_QUEUE_SIZE, name, RejectionPolicy.FAIL_FAST);
+    }
 
-        return new ThreadPoolExecutor(
-                poolSize,
-                poolSize,
-                Integer.MAX_VALUE,
-                TimeUnit.DAYS,
-                new ArrayBlockingQueue<>(500),
-                new ThreadFactory(name)
-        );
+    /**
+     * Create fixed pool that reports queue depth, wait time, execution time, active threads and rejections through
+     * {@link com.fnklabs.metrics.MetricsFactory} under executor.[name] prefix
+     *
+     * @param poolSize        pool size
+     * @param queueSize       max count of queued tasks
+     * @param name            threads name prefix and metrics name
+     * @param rejectionPolicy what to do with new tasks if queue is full
+     *
+     * @return executor
+     */
+    public static ThreadPoolExecutor fixedPoolExecutor(int poolSize, int queueSize, String name, RejectionPolicy rejectionPolicy) {
+        return new InstrumentedThreadPoolExecutor(poolSize, new ArrayBlockingQueue<>(queueSize), name, rejectionPolicy);
+    }
+
+    /**
+     * Create sharded executor with one shard per available processor
+     *
+     * @param name threads name prefix
+     *
+     * @return executor
+     */
+    public static ShardedExecutor shardPerCore(String name) {
+        return new ShardedExecutor(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_SIZE, WaitStrategyType.PARK, name);
+    }
+
+    /**
+     * Create executor for provided mode
+     *
+     * @param mode           executor mode
+     * @param poolSize       pool size of {@link ExecutorMode#PLATFORM} executor
+     * @param maxConcurrency max concurrently executed tasks of {@link ExecutorMode#VIRTUAL} executor
+     * @param name           threads name prefix
+     *
+     * @return executor
+     */
+    public static ExecutorService executor(ExecutorMode mode, int poolSize, int maxConcurrency, String name) {
+        switch (mode) {
+            case VIRTUAL:
+                return virtualThreadExecutor(maxConcurrency, name);
+            case PLATFORM:
+            default:
+                return fixedPoolExecutor(poolSize, name);
+        }
+    }
+
+    /**
+     * Create executor that runs every task in new virtual thread. Submitter is blocked while maxConcurrency tasks are executed.
+     * <p>
+     * If virtual threads are not supported by JVM tasks are executed by cached pool of daemon platform threads. Executor must be
+     * shut down by its owner in both cases, daemon threads only don't keep JVM alive if it wasn't
+     *
+     * @param maxConcurrency max concurrently executed tasks
+     * @param name           threads name prefix
+     *
+     * @return executor
+     */
+    public static ExecutorService virtualThreadExecutor(int maxConcurrency, String name) {
+        ExecutorService delegate = newVirtualThreadPerTaskExecutor(name);
+
+        if (delegate == null) {
+            LOGGER.warn("virtual threads are not supported by JVM {}, executor {} uses cached pool of platform threads", Runtime.version(), name);
+
+            delegate = java.util.concurrent.Executors.newCachedThreadPool(new ThreadFactory(name, true));
+        }
+
+        return new ConcurrencyLimitedExecutor(delegate, maxConcurrency, name);
+    }
+
+    /**
+     * Virtual threads API is accessed reflectively because project is compiled for JVM that doesn't have it
+     *
+     * @return thread per task executor or null if virtual threads are not supported
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+
+            Object threadFactory = builderClass.getMethod("factory").invoke(builder);
+
+            Method newThreadPerTaskExecutor = java.util.concurrent.Executors.class.getMethod(
+                    "newThreadPerTaskExecutor",
+                    java.util.concurrent.ThreadFactory.class
+            );
+
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
     }
 }
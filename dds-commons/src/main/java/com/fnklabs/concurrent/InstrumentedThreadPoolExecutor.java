@@ -0,0 +1,192 @@
+package com.fnklabs.concurrent;
+
+import com.fnklabs.metrics.Counter;
+import com.fnklabs.metrics.MetricsFactory;
+import com.fnklabs.metrics.Timer;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thread pool that reports its state through {@link MetricsFactory}:
+ * <ul>
+ * <li>executor.[name].queue - count of tasks in queue</li>
+ * <li>executor.[name].active - count of executing tasks</li>
+ * <li>executor.[name].rejected - count of rejected tasks</li>
+ * <li>executor.[name].wait - time between task submission and start of execution</li>
+ * <li>executor.[name].execution - task execution time</li>
+ * </ul>
+ * <p>
+ * Queue holds wrappers of submitted tasks, so {@link #remove(Runnable)} and {@link #purge()} match wrapped tasks, and tasks that
+ * leave the queue without execution are not counted in queue.
+ */
+class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+    private final String waitTimerName;
+    private final String executionTimerName;
+
+    private final Counter queueCounter;
+    private final Counter activeCounter;
+    private final Counter rejectedCounter;
+
+    InstrumentedThreadPoolExecutor(int poolSize, BlockingQueue<Runnable> queue, String name, RejectionPolicy rejectionPolicy) {
+        super(poolSize, poolSize, Integer.MAX_VALUE, TimeUnit.DAYS, queue, new ThreadFactory(name));
+
+        this.waitTimerName = String.format("executor.%s.wait", name);
+        this.executionTimerName = String.format("executor.%s.execution", name);
+
+        this.queueCounter = MetricsFactory.getMetrics().getCounter(String.format("executor.%s.queue", name));
+        this.activeCounter = MetricsFactory.getMetrics().getCounter(String.format("executor.%s.active", name));
+        this.rejectedCounter = MetricsFactory.getMetrics().getCounter(String.format("executor.%s.rejected", name));
+
+        setRejectedExecutionHandler(new InstrumentedRejectionHandler(rejectionPolicy));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        InstrumentedTask task = new InstrumentedTask(command, MetricsFactory.getMetrics().getTimer(waitTimerName));
+
+        queueCounter.inc();
+
+        super.execute(task);
+    }
+
+    /**
+     * @return wrappers of tasks that were never executed, they are not counted in queue anymore
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = super.shutdownNow();
+
+        for (Runnable task : tasks) {
+            ((InstrumentedTask) task).dequeue();
+        }
+
+        return tasks;
+    }
+
+    /**
+     * @param task submitted task or its wrapper
+     */
+    @Override
+    public boolean remove(Runnable task) {
+        for (Runnable queued : getQueue()) {
+            InstrumentedTask instrumentedTask = (InstrumentedTask) queued;
+
+            if ((instrumentedTask == task || instrumentedTask.task == task) && removeQueued(instrumentedTask)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove queued tasks that were submitted as {@link Future} and were cancelled
+     */
+    @Override
+    public void purge() {
+        for (Runnable queued : getQueue()) {
+            InstrumentedTask instrumentedTask = (InstrumentedTask) queued;
+
+            if (instrumentedTask.task instanceof Future && ((Future<?>) instrumentedTask.task).isCancelled()) {
+                removeQueued(instrumentedTask);
+            }
+        }
+    }
+
+    private boolean removeQueued(InstrumentedTask task) {
+        if (!super.remove(task)) {
+            return false;
+        }
+
+        task.dequeue();
+
+        return true;
+    }
+
+    private class InstrumentedTask implements Runnable {
+        private final Runnable task;
+
+        private final Timer waitTimer;
+
+        private final AtomicBoolean isDequeued = new AtomicBoolean();
+
+        private InstrumentedTask(Runnable task, Timer waitTimer) {
+            this.task = task;
+            this.waitTimer = waitTimer;
+        }
+
+        @Override
+        public void run() {
+            dequeue();
+
+            waitTimer.stop();
+
+            activeCounter.inc();
+
+            Timer executionTimer = MetricsFactory.getMetrics().getTimer(executionTimerName);
+
+            try {
+                task.run();
+            } finally {
+                executionTimer.stop();
+
+                activeCounter.inc(-1);
+            }
+        }
+
+        /**
+         * Task is removed from queue by worker, was rejected or was drained from queue. Task can be rejected by one thread while it
+         * is executed by other one, e.g. caller runs policy, so counter is decremented only by the first call
+         */
+        private void dequeue() {
+            if (isDequeued.compareAndSet(false, true)) {
+                queueCounter.inc(-1);
+            }
+        }
+    }
+
+    private class InstrumentedRejectionHandler implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler handler;
+
+        /**
+         * Blocking policy enqueues task so it is not counted as rejected unless enqueue failed
+         */
+        private final boolean isBlocking;
+
+        private InstrumentedRejectionHandler(RejectionPolicy rejectionPolicy) {
+            this.handler = rejectionPolicy.handler();
+            this.isBlocking = rejectionPolicy == RejectionPolicy.BLOCK;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (isBlocking) {
+                try {
+                    handler.rejectedExecution(task, executor);
+
+                    return;
+                } catch (RuntimeException e) {
+                    onRejected(task);
+
+                    throw e;
+                }
+            }
+
+            onRejected(task);
+
+            handler.rejectedExecution(task, executor);
+        }
+
+        private void onRejected(Runnable task) {
+            rejectedCounter.inc();
+
+            ((InstrumentedTask) task).dequeue();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.fnklabs.concurrent;
+
+import com.google.common.base.Verify;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi producer single consumer queue
+ * <p>
+ * Producers claim slot by CAS on producer index and publish element into the slot, consumer polls elements without CAS. Only one
+ * thread can call {@link #poll()} and {@link #peek()} at a time. Iteration is not supported.
+ *
+ * @param <E> element type
+ */
+public class MpscArrayQueue<E> extends AbstractQueue<E> {
+    private final AtomicReferenceArray<E> elements;
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * @param capacity max queue size, will be rounded up to power of two
+     */
+    public MpscArrayQueue(int capacity) {
+        Verify.verify(capacity > 0 && capacity <= 1 << 30, "invalid capacity: %s", capacity);
+
+        this.capacity = ceilingPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+
+        for (; ; ) {
+            long index = producerIndex.get();
+
+            if (index - consumerIndex.get() >= capacity) {
+                return false;
+            }
+
+            if (producerIndex.compareAndSet(index, index + 1)) {
+                elements.lazySet(offset(index), e);
+
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        long index = consumerIndex.get();
+        int offset = offset(index);
+
+        E e = elements.get(offset);
+
+        if (e == null) {
+            if (index == producerIndex.get()) {
+                return null;
+            }
+
+            // slot was claimed by producer but element is not published yet
+            do {
+                Thread.onSpinWait();
+
+                e = elements.get(offset);
+            } while (e == null);
+        }
+
+        elements.lazySet(offset, null);
+        consumerIndex.lazySet(index + 1);
+
+        return e;
+    }
+
+    @Override
+    public E peek() {
+        long index = consumerIndex.get();
+        int offset = offset(index);
+
+        E e = elements.get(offset);
+
+        while (e == null && index != producerIndex.get()) {
+            Thread.onSpinWait();
+
+            e = elements.get(offset);
+        }
+
+        return e;
+    }
+
+    @Override
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    private int offset(long index) {
+        return (int) (index & mask);
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -0,0 +1,37 @@
+package com.fnklabs.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spin for first polls, then yield and then park for exponentially growing period up to {@link #MAX_PARK_NANOS}
+ */
+final class ParkingWaitStrategy implements WaitStrategy {
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Max backoff shift, MIN_PARK_NANOS << MAX_SHIFT is above MAX_PARK_NANOS
+     */
+    private static final int MAX_SHIFT = 10;
+
+    @Override
+    public void idle(int idleCount) {
+        if (idleCount <= SPINS) {
+            Thread.onSpinWait();
+        } else if (idleCount <= SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            int shift = Math.min(idleCount - SPINS - YIELDS - 1, MAX_SHIFT);
+
+            LockSupport.parkNanos(Math.min(MIN_PARK_NANOS << shift, MAX_PARK_NANOS));
+        }
+    }
+
+    @Override
+    public void signal() {
+    }
+}
@@ -0,0 +1,56 @@
+package com.fnklabs.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * What to do with task that can't be accepted because executor queue is full
+ */
+public enum RejectionPolicy {
+    /**
+     * Throw {@link RejectedExecutionException}
+     */
+    FAIL_FAST,
+
+    /**
+     * Execute task in submitter thread
+     */
+    CALLER_RUNS,
+
+    /**
+     * Block submitter until queue has free space. Task that was enqueued after executor was shutdown is removed and rejected
+     */
+    BLOCK;
+
+    RejectedExecutionHandler handler() {
+        switch (this) {
+            case CALLER_RUNS:
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+            case BLOCK:
+                return RejectionPolicy::block;
+            case FAIL_FAST:
+            default:
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
+
+    private static void block(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("executor was shutdown");
+        }
+
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new RejectedExecutionException("interrupted while waiting for free space in queue", e);
+        }
+
+        // executor could be shutdown while submitter was blocked, its workers can exit before they take the task
+        if (executor.isShutdown() && executor.remove(task)) {
+            throw new RejectedExecutionException("executor was shutdown");
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.fnklabs.concurrent;
+
+import com.google.common.base.Verify;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Thread per shard executor
+ * <p>
+ * Token space [Long.MIN_VALUE, Long.MAX_VALUE] is split into equal contiguous ranges, one range per shard, and every shard owns one
+ * worker thread with its own task queue. Tasks of the same shard are executed sequentially by owner thread in submission order, so
+ * state that is modified only by tasks of one shard is single writer and doesn't require atomics or locks.
+ * <p>
+ * Tasks that are submitted from the owner thread are executed in place, so shard can wait for its own nested tasks without deadlock.
+ * <p>
+ * Shard queues are bounded. {@link #execute(int, Runnable)} rejects task if queue is full, {@link #executeBlocking(int, Runnable)}
+ * backs off until worker frees space in the queue.
+ */
+public class ShardedExecutor implements AutoCloseable {
+    /**
+     * Attempts to enqueue task that spin before submitter starts to park
+     */
+    private static final int SPIN_ATTEMPTS = 64;
+
+    /**
+     * Max park time of blocked submitter
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Shard[] shards;
+
+    private final AtomicBoolean isRunning = new AtomicBoolean(true);
+
+    /**
+     * @param shards        count of shards
+     * @param queueCapacity max count of queued tasks per shard
+     * @param waitStrategy  how idle worker waits for new tasks
+     * @param name          threads name prefix
+     */
+    public ShardedExecutor(int shards, int queueCapacity, WaitStrategyType waitStrategy, String name) {
+        Verify.verify(shards > 0, "shards count must be positive: %s", shards);
+
+        this.shards = new Shard[shards];
+
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard(new MpscArrayQueue<>(queueCapacity), waitStrategy.create());
+
+            Thread thread = new Thread(this.shards[i], String.format("%s-%d", name, i));
+            thread.setDaemon(true);
+
+            this.shards[i].thread = thread;
+        }
+
+        for (Shard shard : this.shards) {
+            shard.thread.start();
+        }
+    }
+
+    public int shards() {
+        return shards.length;
+    }
+
+    /**
+     * @param token token
+     *
+     * @return index of shard which token range contains provided token
+     */
+    public int shardOf(long token) {
+        // unsigned offset of token from Long.MIN_VALUE multiplied by shards count, high 64 bits are shard index
+        long offset = token ^ Long.MIN_VALUE;
+
+        return (int) (Math.multiplyHigh(offset, shards.length) + ((offset >> 63) & shards.length));
+    }
+
+    /**
+     * @return true if current thread is worker of provided shard
+     */
+    public boolean isOwner(int shard) {
+        return Thread.currentThread() == shards[shard].thread;
+    }
+
+    /**
+     * Execute task by owner of token range that contains provided token
+     *
+     * @param token token
+     * @param task  task
+     *
+     * @throws RejectedExecutionException if executor was closed or shard queue is full
+     */
+    public void execute(long token, Runnable task) {
+        execute(shardOf(token), task);
+    }
+
+    /**
+     * Execute task by shard worker
+     *
+     * @param shard shard index
+     * @param task  task
+     *
+     * @throws RejectedExecutionException if executor was closed or shard queue is full
+     */
+    public void execute(int shard, Runnable task) {
+        enqueue(shard, task, false);
+    }
+
+    /**
+     * Execute task by shard worker, wait while shard queue is full
+     *
+     * @param shard shard index
+     * @param task  task
+     *
+     * @throws RejectedExecutionException if executor was closed or submitter was interrupted while waiting for free space in queue
+     */
+    public void executeBlocking(int shard, Runnable task) {
+        enqueue(shard, task, true);
+    }
+
+    /**
+     * Execute task by shard worker
+     *
+     * @param shard shard index
+     * @param task  task
+     * @param <T>   result type
+     *
+     * @return future that is completed by task result or failure
+     *
+     * @throws RejectedExecutionException if executor was closed or shard queue is full
+     */
+    public <T> CompletableFuture<T> submit(int shard, Supplier<T> task) {
+        return submit(shard, task, false);
+    }
+
+    /**
+     * Execute task by shard worker, wait while shard queue is full
+     *
+     * @param shard shard index
+     * @param task  task
+     * @param <T>   result type
+     *
+     * @return future that is completed by task result or failure
+     *
+     * @throws RejectedExecutionException if executor was closed or submitter was interrupted while waiting for free space in queue
+     */
+    public <T> CompletableFuture<T> submitBlocking(int shard, Supplier<T> task) {
+        return submit(shard, task, true);
+    }
+
+    /**
+     * Stop workers. Tasks that were queued before close are executed, new tasks are rejected. If current thread is interrupted while
+     * waiting for workers, close returns with interrupt flag set
+     */
+    @Override
+    public void close() {
+        if (isRunning.compareAndSet(true, false)) {
+            for (Shard shard : shards) {
+                shard.waitStrategy.signal();
+            }
+
+            try {
+                for (Shard shard : shards) {
+                    shard.thread.join(TimeUnit.SECONDS.toMillis(10));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, Supplier<T> task, boolean block) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        enqueue(shard, () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, block);
+
+        return future;
+    }
+
+    private void enqueue(int shard, Runnable task, boolean block) {
+        Shard owner = shards[shard];
+
+        if (Thread.currentThread() == owner.thread) {
+            task.run();
+
+            return;
+        }
+
+        // worker doesn't exit while submitter that could observe running executor is in flight
+        owner.submitters.incrementAndGet();
+
+        try {
+            for (int attempt = 0; ; attempt++) {
+                if (!isRunning.get()) {
+                    throw new RejectedExecutionException("executor was closed");
+                }
+
+                if (owner.queue.offer(task)) {
+                    break;
+                }
+
+                if (!block) {
+                    throw new RejectedExecutionException(String.format("shard %d queue is full", shard));
+                }
+
+                backOff(attempt);
+            }
+        } finally {
+            owner.submitters.decrementAndGet();
+        }
+
+        owner.waitStrategy.signal();
+    }
+
+    private static void backOff(int attempt) {
+        if (attempt < SPIN_ATTEMPTS) {
+            Thread.onSpinWait();
+
+            return;
+        }
+
+        LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1L << Math.min(attempt - SPIN_ATTEMPTS, 20)));
+
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+
+            throw new RejectedExecutionException("interrupted while waiting for free space in queue");
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final MpscArrayQueue<Runnable> queue;
+
+        private final WaitStrategy waitStrategy;
+
+        /**
+         * Count of submitters that are enqueuing tasks
+         */
+        private final AtomicInteger submitters = new AtomicInteger();
+
+        private Thread thread;
+
+        private Shard(MpscArrayQueue<Runnable> queue, WaitStrategy waitStrategy) {
+            this.queue = queue;
+            this.waitStrategy = waitStrategy;
+        }
+
+        @Override
+        public void run() {
+            int idleCount = 0;
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Runnable task = queue.poll();
+
+                if (task != null) {
+                    idleCount = 0;
+
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        // task failure must not stop shard worker
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                } else if (isRunning.get()) {
+                    waitStrategy.idle(idleCount < Integer.MAX_VALUE ? ++idleCount : idleCount);
+                } else if (submitters.get() != 0) {
+                    // submitter could observe running executor before close, its task must be executed
+                    Thread.onSpinWait();
+                } else if (queue.isEmpty()) {
+                    break;
+                }
+            }
+        }
+    }
+}
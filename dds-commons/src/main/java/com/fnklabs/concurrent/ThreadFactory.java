@@ -9,17 +9,27 @@ public class ThreadFactory implements java.util.concurrent.ThreadFactory {
     private final ThreadGroup group;
     private final AtomicInteger threadNumber = new AtomicInteger(1);
     private final String namePrefix;
+    private final boolean daemon;
 
     public ThreadFactory(String name) {
+        this(name, false);
+    }
+
+    /**
+     * @param name   threads name prefix
+     * @param daemon whether threads are daemon, daemon threads don't prevent JVM exit if executor wasn't shut down
+     */
+    public ThreadFactory(String name, boolean daemon) {
         SecurityManager s = System.getSecurityManager();
         group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
         this.namePrefix = name + "-";
+        this.daemon = daemon;
     }
 
     public Thread newThread(Runnable r) {
         Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
-        if (t.isDaemon())
-            t.setDaemon(false);
+        if (t.isDaemon() != daemon)
+            t.setDaemon(daemon);
 
         if (t.getPriority() != Thread.NORM_PRIORITY)
             t.setPriority(Thread.NORM_PRIORITY);
@@ -0,0 +1,22 @@
+package com.fnklabs.concurrent;
+
+/**
+ * Defines how consumer loop waits when its queue is empty
+ * <p>
+ * Consumer calls {@link #idle(int)} after every unsuccessful poll and producer calls {@link #signal()} after new element was added
+ * to the queue. Strategy instance must be shared only between producers and consumer of one queue.
+ */
+public interface WaitStrategy {
+    /**
+     * Wait for new elements. Method can return spuriously, consumer must poll queue again after it. Interrupt status is preserved
+     * if waiting thread was interrupted.
+     *
+     * @param idleCount count of consecutive unsuccessful polls, starts from 1
+     */
+    void idle(int idleCount);
+
+    /**
+     * Notify consumer that new element is available
+     */
+    void signal();
+}
@@ -0,0 +1,44 @@
+package com.fnklabs.concurrent;
+
+/**
+ * Available wait strategies ordered by latency/CPU trade-off: from the lowest wake up latency and a full busy core to the highest
+ * latency without CPU usage while idle
+ */
+public enum WaitStrategyType {
+    /**
+     * Spin in the loop, consumer thread always keeps a core busy
+     */
+    BUSY_SPIN,
+
+    /**
+     * Yield to other threads between polls
+     */
+    YIELD,
+
+    /**
+     * Spin, then yield, then park with exponential backoff
+     */
+    PARK,
+
+    /**
+     * Block until producer signals new element
+     */
+    BLOCKING;
+
+    /**
+     * @return new strategy instance
+     */
+    public WaitStrategy create() {
+        switch (this) {
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            case YIELD:
+                return new YieldingWaitStrategy();
+            case BLOCKING:
+                return new BlockingWaitStrategy();
+            case PARK:
+            default:
+                return new ParkingWaitStrategy();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.fnklabs.concurrent;
+
+final class YieldingWaitStrategy implements WaitStrategy {
+    @Override
+    public void idle(int idleCount) {
+        Thread.yield();
+    }
+
+    @Override
+    public void signal() {
+    }
+}
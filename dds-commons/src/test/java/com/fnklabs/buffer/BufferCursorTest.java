@@ -0,0 +1,115 @@
+package com.fnklabs.buffer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+@RunWith(Parameterized.class)
+public class BufferCursorTest {
+    private static final int SIZE = 64 * 1024;
+    private static final int RECORD_SIZE = 16;
+
+    @Parameterized.Parameter
+    public BufferType bufferType;
+
+    private Buffer buffer;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> bufferTypes() {
+        return Arrays.asList(new Object[][]{
+                {BufferType.HEAP},
+                {BufferType.DIRECT},
+                {BufferType.UNSAFE},
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = bufferType.get(SIZE);
+
+        for (int i = 0; i < SIZE / RECORD_SIZE; i++) {
+            buffer.putLong((long) i * RECORD_SIZE, i);
+            buffer.putInt((long) i * RECORD_SIZE + Long.BYTES, -i);
+        }
+    }
+
+    @Test
+    public void scan() {
+        BufferCursor cursor = BufferCursor.of(buffer, 0, SIZE, RECORD_SIZE).prefetch(8 * 1024);
+
+        Assert.assertEquals(SIZE / RECORD_SIZE, cursor.remaining());
+
+        long records = 0;
+
+        while (cursor.hasNext()) {
+            long position = cursor.nextLong();
+
+            Assert.assertEquals(records * RECORD_SIZE, position);
+            Assert.assertEquals(records, cursor.getLong(0));
+            Assert.assertEquals(-records, cursor.getInt(Long.BYTES));
+
+            records++;
+        }
+
+        Assert.assertEquals(SIZE / RECORD_SIZE, records);
+    }
+
+    @Test
+    public void incompleteRecordIsSkipped() {
+        BufferCursor cursor = BufferCursor.of(buffer, RECORD_SIZE, 3 * RECORD_SIZE + 5, RECORD_SIZE);
+
+        Assert.assertEquals(RECORD_SIZE, cursor.nextLong());
+        Assert.assertEquals(2 * RECORD_SIZE, cursor.nextLong());
+        Assert.assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void read() {
+        byte[] record = new byte[RECORD_SIZE];
+        byte[] expected = new byte[RECORD_SIZE];
+
+        BufferCursor cursor = BufferCursor.of(buffer, 5 * RECORD_SIZE, SIZE, RECORD_SIZE);
+        cursor.nextLong();
+        cursor.read(record);
+
+        buffer.read(5 * RECORD_SIZE, expected);
+
+        Assert.assertArrayEquals(expected, record);
+    }
+
+    @Test
+    public void slice() {
+        BufferCursor cursor = BufferCursor.of(new SlicedBuffer(buffer, 4 * RECORD_SIZE, 2 * RECORD_SIZE), 0, 2 * RECORD_SIZE, RECORD_SIZE);
+
+        cursor.nextLong();
+        Assert.assertEquals(4, cursor.getLong(0));
+
+        cursor.nextLong();
+        Assert.assertEquals(5, cursor.getLong(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void fieldOutOfRecord() {
+        BufferCursor cursor = BufferCursor.of(buffer, 0, SIZE, RECORD_SIZE);
+        cursor.nextLong();
+        cursor.getLong(RECORD_SIZE - Integer.BYTES);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rangeOutOfBounds() {
+        BufferCursor.of(buffer, 0, SIZE + 1, RECORD_SIZE);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void nextAfterEnd() {
+        BufferCursor cursor = BufferCursor.of(buffer, SIZE - RECORD_SIZE, SIZE, RECORD_SIZE);
+        cursor.nextLong();
+        cursor.nextLong();
+    }
+}
@@ -0,0 +1,203 @@
+package com.fnklabs.buffer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BufferPoolTest {
+    private static final int ARENA_SIZE = 64 * 1024;
+
+    private BufferPool bufferPool;
+
+    @Before
+    public void setUp() throws Exception {
+        bufferPool = BufferPool.builder()
+                               .setArenaSize(ARENA_SIZE)
+                               .setMinSize(64)
+                               .setMaxSize(4 * 1024)
+                               .setThreadCacheSize(2)
+                               .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        bufferPool.close();
+    }
+
+    @Test
+    public void sizeClass() {
+        Assert.assertEquals(0, bufferPool.sizeClass(1));
+        Assert.assertEquals(0, bufferPool.sizeClass(64));
+        Assert.assertEquals(1, bufferPool.sizeClass(65));
+        Assert.assertEquals(6, bufferPool.sizeClass(4 * 1024));
+    }
+
+    @Test
+    public void allocate() {
+        PooledBuffer buffer = bufferPool.allocate(100);
+
+        Assert.assertEquals(100, buffer.bufferSize());
+        Assert.assertEquals(128, buffer.capacity());
+        Assert.assertEquals(128, bufferPool.liveBytes());
+        Assert.assertEquals(ARENA_SIZE - 128, bufferPool.freeBytes());
+
+        buffer.putLong(92, 42);
+
+        Assert.assertEquals(42, buffer.getLong(92));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void accessOutsideOfRequestedSize() {
+        bufferPool.allocate(100).getLong(96);
+    }
+
+    @Test
+    public void regionsAreReused() {
+        PooledBuffer first = bufferPool.allocate(64);
+        first.putLong(0, 1);
+
+        Assert.assertTrue(first.release());
+
+        Assert.assertEquals(0, bufferPool.liveBytes());
+        Assert.assertEquals(ARENA_SIZE, bufferPool.freeBytes());
+
+        PooledBuffer second = bufferPool.allocate(64);
+
+        Assert.assertEquals(1, second.getLong(0)); // same region
+        Assert.assertEquals(ARENA_SIZE, bufferPool.arenaBytes());
+    }
+
+    @Test
+    public void referenceCounting() {
+        PooledBuffer buffer = bufferPool.allocate(64);
+
+        buffer.retain();
+
+        Assert.assertFalse(buffer.release());
+        Assert.assertEquals(64, bufferPool.liveBytes());
+
+        Assert.assertTrue(buffer.release());
+        Assert.assertEquals(0, bufferPool.liveBytes());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void doubleRelease() {
+        PooledBuffer buffer = bufferPool.allocate(64);
+
+        buffer.release();
+        buffer.release();
+    }
+
+    @Test
+    public void newArena() {
+        for (int i = 0; i < ARENA_SIZE / 4096 + 1; i++) {
+            bufferPool.allocate(4096);
+        }
+
+        Assert.assertEquals(2 * ARENA_SIZE, bufferPool.arenaBytes());
+        Assert.assertEquals(ARENA_SIZE + 4096, bufferPool.liveBytes());
+    }
+
+    @Test
+    public void hugeBuffer() {
+        PooledBuffer buffer = bufferPool.allocate(ARENA_SIZE * 2);
+
+        Assert.assertEquals(ARENA_SIZE * 2, bufferPool.liveBytes());
+        Assert.assertEquals(0, bufferPool.arenaBytes());
+
+        buffer.close();
+
+        Assert.assertEquals(0, bufferPool.liveBytes());
+    }
+
+    @Test
+    public void sharedFreeList() throws Exception {
+        PooledBuffer[] buffers = new PooledBuffer[4];
+
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = bufferPool.allocate(64);
+        }
+
+        for (PooledBuffer buffer : buffers) {
+            buffer.release(); // two regions are kept in thread cache, other go to shared list
+        }
+
+        Thread thread = new Thread(() -> {
+            bufferPool.allocate(64);
+            bufferPool.allocate(64);
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertEquals(ARENA_SIZE, bufferPool.arenaBytes());
+        Assert.assertEquals(128, bufferPool.liveBytes());
+    }
+
+    @Test
+    public void deadThreadCacheIsReclaimed() throws Exception {
+        Thread thread = new Thread(() -> {
+            bufferPool.allocate(4096).release();
+            bufferPool.allocate(4096).release(); // same region is kept in thread cache
+        });
+        thread.start();
+        thread.join();
+
+        for (int i = 0; i < ARENA_SIZE / 4096; i++) {
+            bufferPool.allocate(4096);
+        }
+
+        Assert.assertEquals(ARENA_SIZE, bufferPool.arenaBytes());
+        Assert.assertEquals(ARENA_SIZE, bufferPool.liveBytes());
+    }
+
+    @Test
+    public void overflowingThreadCacheIsHalvedByBytes() throws Exception {
+        try (BufferPool pool = BufferPool.builder()
+                                         .setArenaSize(8 * 1024)
+                                         .setMaxSize(4 * 1024)
+                                         .setThreadCacheSize(8)
+                                         .setThreadCacheBytes(4 * 1024)
+                                         .build()) {
+            PooledBuffer[] buffers = new PooledBuffer[5];
+
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = pool.allocate(1024);
+            }
+
+            for (PooledBuffer buffer : buffers) {
+                buffer.release(); // the fifth region overflows 4 KB cache, two older regions go to shared list
+            }
+
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5; i++) {
+                    pool.allocate(1024);
+                }
+            });
+            thread.start();
+            thread.join();
+
+            Assert.assertEquals(8 * 1024, pool.arenaBytes());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void allocateAfterClose() throws Exception {
+        bufferPool.allocate(64).release();
+
+        bufferPool.close();
+
+        bufferPool.allocate(64);
+    }
+
+    @Test
+    public void releaseAfterClose() throws Exception {
+        PooledBuffer buffer = bufferPool.allocate(64);
+
+        bufferPool.close();
+
+        Assert.assertTrue(buffer.release());
+        Assert.assertEquals(0, bufferPool.liveBytes());
+        Assert.assertEquals(0, bufferPool.freeBytes());
+    }
+}
@@ -0,0 +1,120 @@
+package com.fnklabs.buffer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(Parameterized.class)
+public class BufferSearchTest {
+    private static final int SIZE = 16 * 1024;
+
+    @Parameterized.Parameter(0)
+    public BufferType bufferType;
+
+    @Parameterized.Parameter(1)
+    public int width;
+
+    private Buffer buffer;
+
+    private byte[] data;
+
+    private byte[] key;
+
+    @Parameterized.Parameters(name = "{0} {1}")
+    public static Collection<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+
+        for (BufferType bufferType : new BufferType[]{BufferType.HEAP, BufferType.UNSAFE}) {
+            for (int width : new int[]{1, 2, 3, 4, 8, 12, 16}) {
+                parameters.add(new Object[]{bufferType, width});
+            }
+        }
+
+        return parameters;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(width);
+
+        key = new byte[width];
+        random.nextBytes(key);
+
+        // small alphabet so partial matches are frequent
+        data = new byte[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            data[i] = (byte) random.nextInt(2);
+        }
+
+        for (int position = 5 * width + 3; position <= SIZE - width; position += 7 * width) {
+            System.arraycopy(key, 0, data, position, width);
+        }
+
+        buffer = bufferType.get(SIZE);
+        buffer.write(0, data);
+    }
+
+    @Test
+    public void count() {
+        for (long start : new long[]{0, 3, 17}) {
+            Assert.assertEquals(expected(start, SIZE - 1).cardinality(), buffer.count(start, SIZE - 1, key));
+        }
+    }
+
+    @Test
+    public void findFirst() {
+        for (long start : new long[]{0, 3, 17}) {
+            BitSet expected = expected(start, SIZE);
+
+            long position = expected.isEmpty() ? -1 : start + (long) expected.nextSetBit(0) * width;
+
+            Assert.assertEquals(position, buffer.findFirst(start, SIZE, key));
+        }
+    }
+
+    @Test
+    public void findNothing() {
+        Assert.assertEquals(-1, buffer.findFirst(0, 5 * width, key));
+        Assert.assertEquals(0, buffer.count(0, 5 * width, key));
+    }
+
+    @Test
+    public void match() {
+        for (long start : new long[]{0, 3, 17}) {
+            long records = (SIZE - start) / width;
+
+            long[] bitmap = new long[(int) ((records + Long.SIZE - 1) / Long.SIZE)];
+
+            long count = buffer.match(start, SIZE, key, bitmap);
+
+            BitSet expected = expected(start, SIZE);
+
+            Assert.assertEquals(expected, BitSet.valueOf(bitmap));
+            Assert.assertEquals(expected.cardinality(), count);
+        }
+    }
+
+    private BitSet expected(long start, long end) {
+        BitSet bitSet = new BitSet();
+
+        for (int index = 0; start + (long) (index + 1) * width <= end; index++) {
+            int from = (int) (start + (long) index * width);
+
+            if (Arrays.equals(data, from, from + width, key, 0, width)) {
+                bitSet.set(index);
+            }
+        }
+
+        return bitSet;
+    }
+}
@@ -0,0 +1,131 @@
+package com.fnklabs.buffer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RunWith(Parameterized.class)
+public class BufferTest {
+    private static final int SIZE = 32 * 1024;
+
+    @Parameterized.Parameter
+    public BufferType bufferType;
+
+    private Buffer buffer;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> bufferTypes() {
+        return Arrays.asList(new Object[][]{
+                {BufferType.HEAP},
+                {BufferType.DIRECT},
+                {BufferType.UNSAFE},
+                {BufferType.MAPPED},
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = bufferType.get(SIZE);
+    }
+
+    @Test
+    public void primitives() {
+        buffer.putByte(1, (byte) 7);
+        buffer.putInt(3, 42);
+        buffer.putLong(11, Long.MIN_VALUE + 1);
+        buffer.putFloat(SIZE - Double.BYTES - Float.BYTES, 1.5f);
+        buffer.putDouble(SIZE - Double.BYTES, -2.25);
+
+        Assert.assertEquals(7, buffer.getByte(1));
+        Assert.assertEquals(42, buffer.getInt(3));
+        Assert.assertEquals(Long.MIN_VALUE + 1, buffer.getLong(11));
+        Assert.assertEquals(1.5f, buffer.getFloat(SIZE - Double.BYTES - Float.BYTES), 0);
+        Assert.assertEquals(-2.25, buffer.getDouble(SIZE - Double.BYTES), 0);
+    }
+
+    @Test
+    public void primitivesAreVisibleThroughBytes() {
+        byte[] data = new byte[Long.BYTES];
+
+        buffer.putLong(64, 0x0102030405060708L);
+        buffer.read(64, data);
+
+        byte[] expected = ByteBuffer.allocate(Long.BYTES)
+                                    .order(ByteOrder.nativeOrder())
+                                    .putLong(0x0102030405060708L)
+                                    .array();
+
+        Assert.assertArrayEquals(expected, data);
+
+        buffer.write(128, expected);
+
+        Assert.assertEquals(0x0102030405060708L, buffer.getLong(128));
+    }
+
+    @Test
+    public void atomics() {
+        buffer.putIntVolatile(8, 1);
+        buffer.putLongVolatile(SIZE - Long.BYTES, 10);
+
+        Assert.assertTrue(buffer.compareAndSetInt(8, 1, 2));
+        Assert.assertFalse(buffer.compareAndSetInt(8, 1, 3));
+        Assert.assertEquals(2, buffer.getAndAddInt(8, 5));
+        Assert.assertEquals(7, buffer.getIntVolatile(8));
+
+        Assert.assertTrue(buffer.compareAndSetLong(SIZE - Long.BYTES, 10, 20));
+        Assert.assertFalse(buffer.compareAndSetLong(SIZE - Long.BYTES, 10, 30));
+        Assert.assertEquals(20, buffer.getAndAddLong(SIZE - Long.BYTES, -5));
+        Assert.assertEquals(15, buffer.getLongVolatile(SIZE - Long.BYTES));
+        Assert.assertEquals(15, buffer.getLong(SIZE - Long.BYTES));
+    }
+
+    @Test
+    public void concurrentGetAndAdd() throws Exception {
+        int threads = 4;
+        int increments = 10_000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        try {
+            Future<?>[] futures = new Future[threads];
+
+            for (int i = 0; i < threads; i++) {
+                futures[i] = executorService.submit(() -> {
+                    for (int j = 0; j < increments; j++) {
+                        buffer.getAndAddLong(64, 1);
+                        buffer.getAndAddInt(128, 1);
+                    }
+                });
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        Assert.assertEquals(threads * increments, buffer.getLongVolatile(64));
+        Assert.assertEquals(threads * increments, buffer.getIntVolatile(128));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void misalignedAtomicAccess() {
+        buffer.compareAndSetLong(4, 0, 1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readOutOfBounds() {
+        buffer.getLong(SIZE - Integer.BYTES);
+    }
+}
@@ -0,0 +1,117 @@
+package com.fnklabs.buffer;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+@RunWith(Parameterized.class)
+public class BufferTransferTest {
+    /**
+     * Transfers span several staging buffers
+     */
+    private static final int SIZE = 200 * 1024;
+
+    @Parameterized.Parameter
+    public BufferType bufferType;
+
+    private Buffer buffer;
+
+    private byte[] data;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> bufferTypes() {
+        return Arrays.asList(new Object[][]{
+                {BufferType.HEAP},
+                {BufferType.DIRECT},
+                {BufferType.UNSAFE},
+                {BufferType.MAPPED},
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        data = new byte[SIZE];
+        new Random(1).nextBytes(data);
+
+        buffer = bufferType.get(SIZE);
+        buffer.write(0, data);
+    }
+
+    @Test
+    public void slice() {
+        Buffer slice = buffer.slice(1024, 2048);
+
+        Assert.assertEquals(2048, slice.bufferSize());
+        Assert.assertEquals(buffer.getLong(1024 + 16), slice.getLong(16));
+
+        slice.putLong(0, 42);
+
+        Assert.assertEquals(42, buffer.getLong(1024));
+
+        Buffer nested = slice.slice(8, 16);
+
+        Assert.assertEquals(buffer.getLong(1024 + 8), nested.getLong(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void sliceOutOfBounds() {
+        buffer.slice(1024, 2048).slice(1024, 2048);
+    }
+
+    @Test
+    public void asByteBuffer() {
+        Assume.assumeTrue(bufferType != BufferType.UNSAFE);
+
+        ByteBuffer byteBuffer = buffer.asByteBuffer(100, 200);
+
+        Assert.assertEquals(200, byteBuffer.remaining());
+        Assert.assertEquals(buffer.getLong(108), byteBuffer.getLong(8));
+
+        byteBuffer.putInt(0, 7);
+
+        Assert.assertEquals(7, buffer.getInt(100));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unsafeBufferIsNotExposed() {
+        Assume.assumeTrue(bufferType == BufferType.UNSAFE);
+
+        buffer.asByteBuffer(100, 200);
+    }
+
+    @Test
+    public void transferTo() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long transferred = buffer.slice(10, SIZE - 10).transferTo(5, SIZE - 100, Channels.newChannel(outputStream));
+
+        Assert.assertEquals(SIZE - 100, transferred);
+        Assert.assertArrayEquals(Arrays.copyOfRange(data, 15, 15 + SIZE - 100), outputStream.toByteArray());
+    }
+
+    @Test
+    public void transferFrom() throws Exception {
+        byte[] source = new byte[SIZE / 2];
+        new Random(2).nextBytes(source);
+
+        long transferred = buffer.transferFrom(Channels.newChannel(new ByteArrayInputStream(source)), 100, SIZE - 100);
+
+        Assert.assertEquals(source.length, transferred);
+
+        byte[] actual = new byte[source.length];
+        buffer.read(100, actual);
+
+        Assert.assertArrayEquals(source, actual);
+    }
+}
@@ -0,0 +1,125 @@
+package com.fnklabs.buffer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+public class LazySegmentedBufferTest {
+    private static final int SEGMENT_SIZE = 1024;
+    private static final long SIZE = 8 * SEGMENT_SIZE + 10;
+
+    private static final String OWNER = "lazy-segmented-buffer-test";
+
+    private LazySegmentedBuffer buffer;
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = new LazySegmentedBuffer(SIZE, SEGMENT_SIZE, OWNER);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        buffer.close();
+
+        Assert.assertEquals(0, MemoryManager.getInstance().usedMemory(OWNER));
+    }
+
+    @Test
+    public void segmentsAreAllocatedOnWrite() {
+        Assert.assertEquals(0, buffer.allocatedSize());
+        Assert.assertEquals(0, buffer.getLong(3 * SEGMENT_SIZE));
+
+        byte[] data = new byte[100];
+        buffer.read(SEGMENT_SIZE - 50, data);
+
+        Assert.assertArrayEquals(new byte[100], data);
+        Assert.assertEquals(0, buffer.allocatedSize());
+
+        buffer.putLong(3 * SEGMENT_SIZE + 8, 42);
+
+        Assert.assertEquals(42, buffer.getLong(3 * SEGMENT_SIZE + 8));
+        Assert.assertEquals(SEGMENT_SIZE, buffer.allocatedSize());
+        Assert.assertEquals(SEGMENT_SIZE, MemoryManager.getInstance().usedMemory(OWNER));
+
+        // last segment is shorter
+        buffer.putByte(SIZE - 1, (byte) 1);
+
+        Assert.assertEquals(SEGMENT_SIZE + 10, buffer.allocatedSize());
+    }
+
+    @Test
+    public void crossSegmentAccess() {
+        Random random = new Random(1);
+
+        byte[] data = new byte[3 * SEGMENT_SIZE + 7];
+        random.nextBytes(data);
+
+        buffer.write(SEGMENT_SIZE - 3, data);
+
+        byte[] result = new byte[data.length];
+        buffer.read(SEGMENT_SIZE - 3, result);
+
+        Assert.assertArrayEquals(data, result);
+
+        buffer.putLong(5 * SEGMENT_SIZE - 4, Long.MIN_VALUE + 1);
+
+        Assert.assertEquals(Long.MIN_VALUE + 1, buffer.getLong(5 * SEGMENT_SIZE - 4));
+    }
+
+    @Test
+    public void atomics() {
+        Assert.assertEquals(0, buffer.getAndAddLong(2 * SEGMENT_SIZE, 5));
+        Assert.assertTrue(buffer.compareAndSetLong(2 * SEGMENT_SIZE, 5, 7));
+        Assert.assertEquals(7, buffer.getLongVolatile(2 * SEGMENT_SIZE));
+        Assert.assertEquals(0, buffer.getIntVolatile(6 * SEGMENT_SIZE));
+    }
+
+    @Test
+    public void trimReleasesTrailingEmptySegments() {
+        buffer.putLong(0, 1);
+        buffer.putLong(2 * SEGMENT_SIZE, 1);
+        buffer.putLong(5 * SEGMENT_SIZE, 1);
+
+        buffer.putLong(5 * SEGMENT_SIZE, 0);
+
+        Assert.assertEquals(SEGMENT_SIZE, buffer.trim());
+        Assert.assertEquals(2 * SEGMENT_SIZE, buffer.allocatedSize());
+        Assert.assertEquals(2 * SEGMENT_SIZE, MemoryManager.getInstance().usedMemory(OWNER));
+        Assert.assertEquals(1, buffer.getLong(2 * SEGMENT_SIZE));
+        Assert.assertEquals(0, buffer.getLong(5 * SEGMENT_SIZE));
+    }
+
+    @Test
+    public void transferToDoesNotAllocateMissingSegments() throws Exception {
+        byte[] data = new byte[100];
+        new Random(2).nextBytes(data);
+
+        buffer.write(2 * SEGMENT_SIZE - 50, data);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        Assert.assertEquals(SIZE, buffer.transferTo(0, SIZE, Channels.newChannel(outputStream)));
+
+        byte[] expected = new byte[(int) SIZE];
+        System.arraycopy(data, 0, expected, 2 * SEGMENT_SIZE - 50, data.length);
+
+        Assert.assertArrayEquals(expected, outputStream.toByteArray());
+        Assert.assertEquals(2 * SEGMENT_SIZE, buffer.allocatedSize());
+    }
+
+    @Test
+    public void byteBufferViewDoesNotAllocateSegment() {
+        try {
+            buffer.asByteBuffer(SEGMENT_SIZE, 16);
+
+            Assert.fail("view of unsafe segment must be rejected");
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals(0, buffer.allocatedSize());
+        }
+    }
+}
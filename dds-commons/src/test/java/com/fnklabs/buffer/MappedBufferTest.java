@@ -0,0 +1,78 @@
+package com.fnklabs.buffer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedBufferTest {
+    private static final int SEGMENT_SIZE = 4 * 1024;
+    private static final long SIZE = 4 * SEGMENT_SIZE + 100;
+
+    private Path file;
+
+    private MappedBuffer buffer;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("dds-", ".buffer");
+
+        buffer = MappedBuffer.map(file, SIZE, SEGMENT_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        buffer.close();
+
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void crossSegmentBytes() {
+        byte[] data = new byte[SEGMENT_SIZE + 32];
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        buffer.write(SEGMENT_SIZE - 16, data);
+
+        byte[] result = new byte[data.length];
+
+        buffer.read(SEGMENT_SIZE - 16, result);
+
+        Assert.assertArrayEquals(data, result);
+    }
+
+    @Test
+    public void crossSegmentPrimitives() {
+        buffer.putLong(SEGMENT_SIZE - 3, Long.MAX_VALUE - 1);
+        buffer.putInt(2 * SEGMENT_SIZE - 1, -42);
+        buffer.putDouble(3 * SEGMENT_SIZE - 5, 3.5);
+
+        Assert.assertEquals(Long.MAX_VALUE - 1, buffer.getLong(SEGMENT_SIZE - 3));
+        Assert.assertEquals(-42, buffer.getInt(2 * SEGMENT_SIZE - 1));
+        Assert.assertEquals(3.5, buffer.getDouble(3 * SEGMENT_SIZE - 5), 0);
+    }
+
+    @Test
+    public void lastSegment() {
+        buffer.putLong(SIZE - Long.BYTES, 17);
+
+        Assert.assertEquals(17, buffer.getLong(SIZE - Long.BYTES));
+    }
+
+    @Test
+    public void reopen() throws Exception {
+        buffer.putLong(SEGMENT_SIZE * 2, 42);
+        buffer.force(SEGMENT_SIZE * 2, Long.BYTES);
+        buffer.close();
+
+        buffer = MappedBuffer.map(file, SIZE, SEGMENT_SIZE);
+
+        Assert.assertEquals(42, buffer.getLong(SEGMENT_SIZE * 2));
+    }
+}
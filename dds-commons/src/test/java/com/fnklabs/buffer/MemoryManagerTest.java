@@ -0,0 +1,108 @@
+package com.fnklabs.buffer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+public class MemoryManagerTest {
+    private MemoryManager memoryManager;
+
+    @Before
+    public void setUp() throws Exception {
+        memoryManager = new MemoryManager();
+    }
+
+    @Test
+    public void reserve() {
+        MemoryManager.Reservation table = memoryManager.reserve(MemoryManager.TABLE, 100);
+        memoryManager.reserve(MemoryManager.NETWORK, 10);
+
+        Assert.assertEquals(110, memoryManager.usedMemory());
+        Assert.assertEquals(100, memoryManager.usedMemory(MemoryManager.TABLE));
+        Assert.assertEquals(10, memoryManager.usedMemoryByOwner().get(MemoryManager.NETWORK).longValue());
+
+        table.release();
+        table.release();
+
+        Assert.assertEquals(10, memoryManager.usedMemory());
+        Assert.assertEquals(0, memoryManager.usedMemory(MemoryManager.TABLE));
+    }
+
+    @Test(expected = MemoryLimitException.class)
+    public void hardLimit() {
+        memoryManager.setHardLimit(100);
+
+        memoryManager.reserve(MemoryManager.TABLE, 60);
+        memoryManager.reserve(MemoryManager.TABLE, 60);
+    }
+
+    @Test
+    public void softLimitWaitsForRelease() throws Exception {
+        memoryManager.setSoftLimit(100, 10, TimeUnit.SECONDS);
+
+        MemoryManager.Reservation reservation = memoryManager.reserve(MemoryManager.TABLE, 80);
+
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            reservation.release();
+        });
+        thread.start();
+
+        long start = System.nanoTime();
+
+        memoryManager.reserve(MemoryManager.CHUNK, 80);
+
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(80, memoryManager.usedMemory());
+
+        thread.join();
+    }
+
+    @Test
+    public void softLimitTimeout() {
+        memoryManager.setSoftLimit(100, 10, TimeUnit.MILLISECONDS);
+
+        memoryManager.reserve(MemoryManager.TABLE, 80);
+        memoryManager.reserve(MemoryManager.TABLE, 80);
+
+        Assert.assertEquals(160, memoryManager.usedMemory());
+    }
+
+    @Test
+    public void bufferTypeRegistersAllocation() throws Exception {
+        String owner = "test.buffer-type";
+
+        Buffer buffer = BufferType.UNSAFE.get(1024, owner);
+
+        Assert.assertEquals(1024, MemoryManager.getInstance().usedMemory(owner));
+
+        ((Closeable) buffer).close();
+
+        Assert.assertEquals(0, MemoryManager.getInstance().usedMemory(owner));
+    }
+
+    @Test
+    public void unreachableBufferIsFreed() throws Exception {
+        String owner = "test.unreachable";
+
+        BufferType.UNSAFE.get(1024, owner);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (MemoryManager.getInstance().usedMemory(owner) != 0 && System.nanoTime() < deadline) {
+            System.gc();
+
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(0, MemoryManager.getInstance().usedMemory(owner));
+    }
+}
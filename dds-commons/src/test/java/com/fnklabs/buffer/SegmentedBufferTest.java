@@ -0,0 +1,110 @@
+package com.fnklabs.buffer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntFunction;
+
+@RunWith(Parameterized.class)
+public class SegmentedBufferTest {
+    private static final int SEGMENT_SIZE = 1024;
+    private static final long SIZE = 3 * SEGMENT_SIZE + 10;
+
+    @Parameterized.Parameter
+    public IntFunction<ByteBuffer> allocator;
+
+    private Buffer buffer;
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> allocators() {
+        return Arrays.asList(new Object[][]{
+                {(IntFunction<ByteBuffer>) ByteBuffer::allocate},
+                {(IntFunction<ByteBuffer>) ByteBuffer::allocateDirect},
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = SegmentedBuffer.allocate(SIZE, SEGMENT_SIZE, allocator);
+    }
+
+    @Test
+    public void bufferSize() {
+        Assert.assertEquals(SIZE, buffer.bufferSize());
+    }
+
+    @Test
+    public void crossSegmentBytes() {
+        byte[] data = new byte[2 * SEGMENT_SIZE + 1];
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+
+        buffer.write(SEGMENT_SIZE - 1, data);
+
+        byte[] result = new byte[data.length];
+
+        buffer.read(SEGMENT_SIZE - 1, result);
+
+        Assert.assertArrayEquals(data, result);
+        Assert.assertEquals(data[1], buffer.getByte(SEGMENT_SIZE));
+    }
+
+    @Test
+    public void crossSegmentPrimitives() {
+        for (int offset = 1; offset < Long.BYTES; offset++) {
+            long position = (long) SEGMENT_SIZE * 2 - offset;
+
+            buffer.putLong(position, 0x1122334455667788L + offset);
+            buffer.putInt(SEGMENT_SIZE - (offset % Integer.BYTES) - 1, offset);
+
+            Assert.assertEquals(0x1122334455667788L + offset, buffer.getLong(position));
+            Assert.assertEquals(offset, buffer.getInt(SEGMENT_SIZE - (offset % Integer.BYTES) - 1));
+        }
+
+        buffer.putFloat(SEGMENT_SIZE - 2, 0.25f);
+        buffer.putDouble(SIZE - Double.BYTES, 8.5);
+
+        Assert.assertEquals(0.25f, buffer.getFloat(SEGMENT_SIZE - 2), 0);
+        Assert.assertEquals(8.5, buffer.getDouble(SIZE - Double.BYTES), 0);
+    }
+
+    @Test
+    public void crossSegmentTransfer() throws Exception {
+        byte[] data = new byte[2 * SEGMENT_SIZE + 1];
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+
+        long transferred = buffer.transferFrom(Channels.newChannel(new ByteArrayInputStream(data)), SEGMENT_SIZE - 1, data.length);
+
+        Assert.assertEquals(data.length, transferred);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        buffer.transferTo(SEGMENT_SIZE - 1, data.length, Channels.newChannel(outputStream));
+
+        Assert.assertArrayEquals(data, outputStream.toByteArray());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void crossSegmentByteBuffer() {
+        buffer.asByteBuffer(SEGMENT_SIZE - 1, 2);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void writeOutOfBounds() {
+        buffer.write(SIZE - 1, new byte[2]);
+    }
+}
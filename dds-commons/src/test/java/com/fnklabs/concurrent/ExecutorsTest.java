@@ -0,0 +1,85 @@
+package com.fnklabs.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExecutorsTest {
+    @Test
+    public void virtualThreadExecutorLimitsConcurrency() throws Exception {
+        int maxConcurrency = 4;
+
+        ExecutorService executor = Executors.virtualThreadExecutor(maxConcurrency, "test.virtual");
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try {
+            Future<?>[] futures = new Future[100];
+
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> {
+                    int current = running.incrementAndGet();
+
+                    maxRunning.accumulateAndGet(current, Math::max);
+
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    running.decrementAndGet();
+                });
+            }
+
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(maxRunning.get() <= maxConcurrency);
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(maxConcurrency, ((ConcurrencyLimitedExecutor) executor).availablePermits());
+    }
+
+    @Test
+    public void permitIsReleasedOnFailure() throws Exception {
+        ExecutorService executor = Executors.virtualThreadExecutor(1, "test.virtual");
+
+        try {
+            CountDownLatch latch = new CountDownLatch(2);
+
+            executor.execute(() -> {
+                latch.countDown();
+
+                throw new IllegalStateException("task failure");
+            });
+
+            executor.execute(latch::countDown);
+
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void executorMode() {
+        ExecutorService platform = Executors.executor(ExecutorMode.PLATFORM, 2, 10, "test.platform");
+        ExecutorService virtual = Executors.executor(ExecutorMode.VIRTUAL, 2, 10, "test.virtual");
+
+        Assert.assertTrue(platform instanceof java.util.concurrent.ThreadPoolExecutor);
+        Assert.assertTrue(virtual instanceof ConcurrencyLimitedExecutor);
+
+        platform.shutdown();
+        virtual.shutdown();
+    }
+}
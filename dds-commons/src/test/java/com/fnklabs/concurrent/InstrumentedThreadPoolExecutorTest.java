@@ -0,0 +1,180 @@
+package com.fnklabs.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class InstrumentedThreadPoolExecutorTest {
+    @Test(expected = RejectedExecutionException.class)
+    public void failFast() throws Exception {
+        ThreadPoolExecutor executor = Executors.fixedPoolExecutor(1, 1, "test.fail-fast", RejectionPolicy.FAIL_FAST);
+
+        CountDownLatch latch = new CountDownLatch(1);
+
+        try {
+            executor.execute(() -> await(latch));
+            executor.execute(() -> {});
+            executor.execute(() -> {});
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void callerRuns() throws Exception {
+        ThreadPoolExecutor executor = Executors.fixedPoolExecutor(1, 1, "test.caller-runs", RejectionPolicy.CALLER_RUNS);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger callerExecutions = new AtomicInteger();
+
+        Thread caller = Thread.currentThread();
+
+        try {
+            executor.execute(() -> await(latch));
+            executor.execute(() -> {});
+            executor.execute(() -> {
+                if (Thread.currentThread() == caller) {
+                    callerExecutions.incrementAndGet();
+                }
+            });
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(1, callerExecutions.get());
+    }
+
+    @Test
+    public void block() throws Exception {
+        ThreadPoolExecutor executor = Executors.fixedPoolExecutor(1, 1, "test.block", RejectionPolicy.BLOCK);
+
+        AtomicInteger executed = new AtomicInteger();
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                executor.execute(() -> {
+                    sleep();
+
+                    executed.incrementAndGet();
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(100, executed.get());
+    }
+
+    @Test
+    public void blockedTaskIsRejectedAfterShutdown() throws Exception {
+        ThreadPoolExecutor executor = Executors.fixedPoolExecutor(1, 1, "test.block-shutdown", RejectionPolicy.BLOCK);
+
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+        AtomicReference<Exception> rejection = new AtomicReference<>();
+
+        executor.execute(() -> await(first));
+        executor.execute(() -> await(second));
+
+        Thread submitter = new Thread(() -> {
+            try {
+                executor.execute(executed::incrementAndGet);
+            } catch (RejectedExecutionException e) {
+                rejection.set(e);
+            }
+        });
+        submitter.start();
+
+        while (submitter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+
+        executor.shutdown();
+
+        // worker takes the second task, so blocked task is enqueued after shutdown
+        first.countDown();
+        submitter.join();
+        second.countDown();
+
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertTrue(rejection.get() instanceof RejectedExecutionException);
+        Assert.assertEquals(0, executed.get());
+    }
+
+    @Test
+    public void submit() throws Exception {
+        ThreadPoolExecutor executor = Executors.fixedPoolExecutor(2, "test.submit");
+
+        try {
+            Assert.assertEquals(Integer.valueOf(42), executor.submit(() -> 42).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void removeAndPurgeQueuedTasks() throws Exception {
+        ThreadPoolExecutor executor = Executors.fixedPoolExecutor(1, 10, "test.remove", RejectionPolicy.FAIL_FAST);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+
+        try {
+            executor.execute(() -> await(latch));
+
+            Runnable removed = executed::incrementAndGet;
+
+            executor.execute(removed);
+
+            Future<?> cancelled = executor.submit(executed::incrementAndGet);
+
+            executor.execute(executed::incrementAndGet);
+
+            Assert.assertTrue(executor.remove(removed));
+            Assert.assertFalse(executor.remove(removed));
+
+            cancelled.cancel(false);
+            executor.purge();
+
+            Assert.assertEquals(1, executor.getQueue().size());
+
+            List<Runnable> drained = executor.shutdownNow();
+
+            Assert.assertEquals(1, drained.size());
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, executed.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.fnklabs.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+public class MpscArrayQueueTest {
+    @Test
+    public void capacity() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(5);
+
+        Assert.assertEquals(8, queue.capacity());
+
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+
+        Assert.assertFalse(queue.offer(8));
+        Assert.assertEquals(8, queue.size());
+
+        Assert.assertEquals(Integer.valueOf(0), queue.peek());
+        Assert.assertEquals(Integer.valueOf(0), queue.poll());
+        Assert.assertTrue(queue.offer(8));
+    }
+
+    @Test
+    public void pollEmpty() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(4);
+
+        Assert.assertNull(queue.poll());
+        Assert.assertNull(queue.peek());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void multipleProducers() throws Exception {
+        int producers = 4;
+        int elements = 100_000;
+
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(1024);
+
+        ExecutorService executorService = java.util.concurrent.Executors.newFixedThreadPool(producers);
+
+        try {
+            Future<?>[] futures = new Future[producers];
+
+            for (int producer = 0; producer < producers; producer++) {
+                int id = producer;
+
+                futures[producer] = executorService.submit(() -> {
+                    for (int i = 0; i < elements; i++) {
+                        while (!queue.offer(id * elements + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+            }
+
+            int[] lastElement = new int[producers];
+            java.util.Arrays.fill(lastElement, -1);
+
+            for (int received = 0; received < producers * elements; ) {
+                Integer element = queue.poll();
+
+                if (element == null) {
+                    continue;
+                }
+
+                int producer = element / elements;
+                int value = element % elements;
+
+                // order of elements of one producer is preserved
+                Assert.assertEquals(lastElement[producer] + 1, value);
+
+                lastElement[producer] = value;
+                received++;
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,168 @@
+package com.fnklabs.concurrent;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class ShardedExecutorTest {
+    private static final int SHARDS = 4;
+
+    private ShardedExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new ShardedExecutor(SHARDS, 1024, WaitStrategyType.PARK, "test.sharded");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.close();
+    }
+
+    @Test
+    public void shardOf() {
+        Assert.assertEquals(0, executor.shardOf(Long.MIN_VALUE));
+        Assert.assertEquals(1, executor.shardOf(Long.MIN_VALUE / 2));
+        Assert.assertEquals(1, executor.shardOf(-1));
+        Assert.assertEquals(2, executor.shardOf(0));
+        Assert.assertEquals(3, executor.shardOf(Long.MAX_VALUE / 2 + 1));
+        Assert.assertEquals(3, executor.shardOf(Long.MAX_VALUE));
+
+        int previous = 0;
+
+        for (long token = Long.MIN_VALUE; token < Long.MAX_VALUE - Long.MAX_VALUE / 1000; token += Long.MAX_VALUE / 1000) {
+            int shard = executor.shardOf(token);
+
+            Assert.assertTrue(shard == previous || shard == previous + 1);
+
+            previous = shard;
+        }
+    }
+
+    @Test
+    public void tasksOfShardAreExecutedByOwner() throws Exception {
+        long[] counters = new long[SHARDS];
+
+        CompletableFuture<?>[] futures = new CompletableFuture[10_000];
+
+        for (int i = 0; i < futures.length; i++) {
+            int shard = i % SHARDS;
+
+            futures[i] = executor.submitBlocking(shard, () -> {
+                Assert.assertTrue(executor.isOwner(shard));
+
+                // single writer, no atomics
+                return ++counters[shard];
+            });
+        }
+
+        CompletableFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < SHARDS; i++) {
+            int shard = i;
+            long expected = futures.length / SHARDS;
+
+            Assert.assertEquals(expected, (long) executor.submit(shard, () -> counters[shard]).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void blockingSubmitWaitsForFreeSpace() throws Exception {
+        try (ShardedExecutor smallQueues = new ShardedExecutor(2, 4, WaitStrategyType.PARK, "test.sharded-small")) {
+            long[] counter = new long[1];
+
+            for (int i = 0; i < 10_000; i++) {
+                smallQueues.executeBlocking(0, () -> counter[0]++);
+            }
+
+            Assert.assertEquals(10_000L, (long) smallQueues.submitBlocking(0, () -> counter[0]).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void fullQueueRejectsTask() throws Exception {
+        try (ShardedExecutor smallQueues = new ShardedExecutor(1, 4, WaitStrategyType.PARK, "test.sharded-full")) {
+            CountDownLatch latch = new CountDownLatch(1);
+
+            try {
+                for (int i = 0; i < 100; i++) {
+                    smallQueues.execute(0, () -> {
+                        try {
+                            latch.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                }
+            } finally {
+                latch.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void nestedTaskIsExecutedInPlace() throws Exception {
+        CompletableFuture<Integer> future = executor.submit(1, () -> executor.submit(1, () -> 42).join());
+
+        Assert.assertEquals(Integer.valueOf(42), future.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failureDoesNotStopShard() throws Exception {
+        CompletableFuture<Object> failed = executor.submit(0, () -> {
+            throw new IllegalStateException("task failure");
+        });
+
+        Assert.assertTrue(failed.handle((result, e) -> e instanceof IllegalStateException).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Integer.valueOf(1), executor.submit(0, () -> 1).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void errorDoesNotStopShard() throws Exception {
+        executor.execute(0, () -> {
+            throw new AssertionError("task error");
+        });
+
+        Assert.assertEquals(Integer.valueOf(1), executor.submit(0, () -> 1).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void acceptedTasksAreExecutedIfExecutorIsClosedConcurrently() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            ShardedExecutor closing = new ShardedExecutor(2, 1024, WaitStrategyType.PARK, "test.sharded-closing");
+
+            List<CompletableFuture<Integer>> accepted = new ArrayList<>();
+
+            CompletableFuture<Void> submitter = CompletableFuture.runAsync(() -> {
+                for (int task = 0; task < 1000; task++) {
+                    try {
+                        accepted.add(closing.submit(task % 2, () -> 1));
+                    } catch (RejectedExecutionException e) {
+                        return;
+                    }
+                }
+            });
+
+            closing.close();
+
+            submitter.get(10, TimeUnit.SECONDS);
+
+            CompletableFuture.allOf(accepted.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void closedExecutorRejectsTasks() throws Exception {
+        executor.close();
+
+        executor.execute(0, () -> {});
+    }
+}
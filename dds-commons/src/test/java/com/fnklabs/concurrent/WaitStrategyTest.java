@@ -0,0 +1,82 @@
+package com.fnklabs.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WaitStrategyTest {
+    @Test
+    public void busySpin() throws Exception {
+        consume(WaitStrategyType.BUSY_SPIN);
+    }
+
+    @Test
+    public void yield() throws Exception {
+        consume(WaitStrategyType.YIELD);
+    }
+
+    @Test
+    public void park() throws Exception {
+        consume(WaitStrategyType.PARK);
+    }
+
+    @Test
+    public void blocking() throws Exception {
+        consume(WaitStrategyType.BLOCKING);
+    }
+
+    @Test
+    public void blockingWaitIsLimited() {
+        WaitStrategy waitStrategy = WaitStrategyType.BLOCKING.create();
+
+        long start = System.nanoTime();
+
+        waitStrategy.idle(1);
+
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    private static void consume(WaitStrategyType waitStrategyType) throws Exception {
+        int elements = 10_000;
+
+        Queue<Integer> queue = new MpscArrayQueue<>(elements);
+        WaitStrategy waitStrategy = waitStrategyType.create();
+
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread consumer = new Thread(() -> {
+            int idleCount = 0;
+
+            while (received.get() < elements) {
+                if (queue.poll() != null) {
+                    idleCount = 0;
+
+                    received.incrementAndGet();
+                } else {
+                    waitStrategy.idle(++idleCount);
+                }
+            }
+
+            done.countDown();
+        });
+
+        consumer.start();
+
+        for (int i = 0; i < elements; i++) {
+            queue.offer(i);
+            waitStrategy.signal();
+
+            if (i % 1000 == 0) {
+                Thread.sleep(1);
+            }
+        }
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(elements, received.get());
+    }
+}
@@ -2,6 +2,8 @@ package com.fnklabs.dds.index;
 
 import java.io.Closeable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public interface Index extends Closeable {
     /**
@@ -23,6 +25,31 @@ public interface Index extends Closeable {
      */
     boolean put(byte[] key, long dataPosition);
 
+    /**
+     * Get node on executor of blocking I/O
+     *
+     * @param key      Index key
+     * @param executor executor of blocking I/O
+     *
+     * @return future of node if present
+     */
+    default CompletableFuture<Optional<Long>> getAsync(byte[] key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> get(key), executor);
+    }
+
+    /**
+     * Add node to index on executor of blocking I/O
+     *
+     * @param key          Node
+     * @param dataPosition dataPosition
+     * @param executor     executor of blocking I/O
+     *
+     * @return future of {@link #put(byte[], long)} result
+     */
+    default CompletableFuture<Boolean> putAsync(byte[] key, long dataPosition, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> put(key, dataPosition), executor);
+    }
+
     /**
      * Count of entries in index
      *
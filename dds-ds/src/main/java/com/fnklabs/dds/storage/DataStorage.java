@@ -3,6 +3,9 @@ package com.fnklabs.dds.storage;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 
@@ -53,4 +56,36 @@ public interface DataStorage {
      * @return Number of successfully tested entries
      */
     long scan(BiPredicate<Long, DataBlock> predicate, BiFunction<Long, DataBlock, Boolean> consumer);
+
+    /**
+     * Get DataBlock by provided key on executor of blocking I/O, e.g. created by
+     * {@link com.fnklabs.concurrent.Executors#executor(com.fnklabs.concurrent.ExecutorMode, int, int, String)}
+     *
+     * @param dataKey  key
+     * @param executor executor of blocking I/O
+     *
+     * @return future of DataBlock or null if it doesn't exist
+     */
+    default CompletableFuture<DataBlock> getAsync(byte[] dataKey, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> get(dataKey), executor);
+    }
+
+    /**
+     * Write or update DataBlock on executor of blocking I/O
+     *
+     * @param dataKey  Key
+     * @param data     Value
+     * @param executor executor of blocking I/O
+     *
+     * @return future of DataBlock position that is completed exceptionally with {@link UncheckedIOException} if write failed
+     */
+    default CompletableFuture<Long> putAsync(byte[] dataKey, byte[] data, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return put(dataKey, data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
 }
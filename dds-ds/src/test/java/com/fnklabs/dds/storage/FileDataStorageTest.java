@@ -1,5 +1,7 @@
 package com.fnklabs.dds.storage;
 
+import com.fnklabs.concurrent.ExecutorMode;
+import com.fnklabs.concurrent.Executors;
 import com.fnklabs.dds.DdsVersion;
 import org.junit.After;
 import org.junit.Before;
@@ -10,6 +12,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
@@ -75,6 +78,29 @@ public class FileDataStorageTest {
         assertArrayEquals(String.format("%s", dataBlock.getData()), data, dataBlock.getData());
     }
 
+    @Test
+    public void readWriteAsync() throws Exception {
+        fileDataStorage = FileDataStorage.open(path, metaInformation);
+
+        byte[] key = {0, 0, 0, 1};
+        byte[] data = {0, 0, 0, 2};
+
+        ExecutorService ioExecutor = Executors.executor(ExecutorMode.VIRTUAL, 1, 16, "test.io");
+
+        try {
+            long position = fileDataStorage.putAsync(key, data, ioExecutor).get();
+
+            assertEquals(FileDataStorage.DATA_START_OFFSET, position);
+
+            DataBlock dataBlock = fileDataStorage.getAsync(key, ioExecutor).get();
+
+            assertNotNull(dataBlock);
+            assertArrayEquals(data, dataBlock.getData());
+        } finally {
+            ioExecutor.shutdown();
+        }
+    }
+
     @Test
     public void write() throws Exception {
         fileDataStorage = FileDataStorage.open(path, metaInformation);
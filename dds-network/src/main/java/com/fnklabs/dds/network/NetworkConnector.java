@@ -1,5 +1,9 @@
 package com.fnklabs.dds.network;
 
+import com.fnklabs.buffer.BufferPool;
+import com.fnklabs.buffer.BufferType;
+import com.fnklabs.buffer.MemoryManager;
+import com.fnklabs.buffer.PooledBuffer;
 import com.fnklabs.metrics.Metrics;
 import com.fnklabs.metrics.MetricsFactory;
 import com.fnklabs.metrics.Timer;
@@ -9,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
@@ -25,6 +30,17 @@ public abstract class NetworkConnector<T extends Message> {
     private final static Logger log = LoggerFactory.getLogger(NetworkConnector.class);
 
     private static final Metrics METRICS = MetricsFactory.getMetrics();
+
+    /**
+     * Direct buffers of outgoing frames, socket write from direct buffer doesn't copy frame to temporary direct buffer
+     */
+    private static final BufferPool FRAME_POOL = BufferPool.builder()
+                                                           .setBufferType(BufferType.DIRECT)
+                                                           .setOwner(MemoryManager.NETWORK)
+                                                           .setArenaSize(16 * 1024 * 1024)
+                                                           .setMaxSize(ApiVersion.CURRENT.MAX_MESSAGE_SIZE)
+                                                           .build();
+
     private final Selector selector = Selector.open();
 
     private final Queue<T> messageQueue;
@@ -100,6 +116,27 @@ public abstract class NetworkConnector<T extends Message> {
     }
 
 
+    /**
+     * Serialize message into pooled frame. Frame must be closed after it was written
+     *
+     * @param message message
+     *
+     * @return frame of {@link Message#getSize()} bytes
+     */
+    public static PooledBuffer frame(Message message) {
+        PooledBuffer frame = FRAME_POOL.allocate(message.getSize());
+
+        try {
+            message.read(frame.asByteBuffer(0, message.getSize()).order(ByteOrder.BIG_ENDIAN));
+        } catch (RuntimeException e) {
+            frame.close();
+
+            throw e;
+        }
+
+        return frame;
+    }
+
     /**
      * Write data to channel
      *
@@ -1,6 +1,10 @@
 package com.fnklabs.dds.network.client;
 
+import com.fnklabs.buffer.PooledBuffer;
 import com.fnklabs.concurrent.Executors;
+import com.fnklabs.concurrent.MpscArrayQueue;
+import com.fnklabs.concurrent.WaitStrategy;
+import com.fnklabs.concurrent.WaitStrategyType;
 import com.fnklabs.dds.network.ApiVersion;
 import com.fnklabs.dds.network.ChannelClosedException;
 import com.fnklabs.dds.network.Message;
@@ -26,7 +30,6 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -52,6 +55,10 @@ public class NetworkClient implements Closeable {
      * New (not process) messages from server for processing
      */
     private final Queue<ReplyMessage> messageQueue;
+    /**
+     * Wait strategy of worker that consumes {@link #messageQueue}
+     */
+    private final WaitStrategy waitStrategy;
     private final ByteBuffer messageBuffer = ByteBuffer.allocate(ApiVersion.CURRENT.MAX_MESSAGE_SIZE);
     /**
      * Response futures map
@@ -62,10 +69,11 @@ public class NetworkClient implements Closeable {
      */
     private SocketChannel channel;
 
-    NetworkClient(HostAndPort remoteAddress, int workers, Consumer<ReplyMessage> unboundedMessageConsumer) throws IOException {
+    NetworkClient(HostAndPort remoteAddress, int workers, WaitStrategyType waitStrategyType, Consumer<ReplyMessage> unboundedMessageConsumer) throws IOException {
         this.remoteAddress = remoteAddress;
 
-        messageQueue = new ArrayBlockingQueue<>(500);
+        messageQueue = new MpscArrayQueue<>(500);
+        waitStrategy = waitStrategyType.create();
 
 
 //        connector = new NetworkClientConnector(
@@ -76,7 +84,7 @@ public class NetworkClient implements Closeable {
 
         executorService = Executors.fixedPoolExecutor(workers, "network.client.worker");
 
-        executorService.submit(new NetworkClientWorker(messageQueue, unboundedMessageConsumer, responseFutures, isRunning));
+        executorService.submit(new NetworkClientWorker(messageQueue, unboundedMessageConsumer, responseFutures, isRunning, waitStrategy));
         scheduler.scheduleWithFixedDelay(new RemovePendingRequestTask(responseFutures, isRunning), 0, 100, TimeUnit.MILLISECONDS);
     }
 
@@ -108,12 +116,6 @@ public class NetworkClient implements Closeable {
 
         log.debug("Sending message: {}", message);
 
-        ByteBuffer buffer = ByteBuffer.allocate(message.getSize());
-
-        message.read(buffer);
-
-        buffer.rewind();
-
         ResponseFuture responseFuture = new ResponseFuture(message);
 
         Futures.addCallback(responseFuture, new FutureCallback<ReplyMessage>() {
@@ -129,7 +131,9 @@ public class NetworkClient implements Closeable {
         });
         responseFutures.put(message.getId(), responseFuture);
 
-        write(channel, buffer);
+        try (PooledBuffer frame = frame(message)) {
+            write(channel, frame.asByteBuffer(0, message.getSize()));
+        }
 
         return responseFuture;
     }
@@ -137,6 +141,7 @@ public class NetworkClient implements Closeable {
     @Override
     public void close() throws IOException {
         isRunning.set(false);
+        waitStrategy.signal();
 
         channel.close();
 
@@ -172,7 +177,7 @@ public class NetworkClient implements Closeable {
 
             messageBuffer.flip();
 
-            readMessagesFromBuffer(messageBuffer, messageQueue::add);
+            readMessagesFromBuffer(messageBuffer, this::onNewMessage);
 
             messageBuffer.compact();
         } catch (ChannelClosedException e) {
@@ -182,6 +187,12 @@ public class NetworkClient implements Closeable {
 
     }
 
+    private void onNewMessage(ReplyMessage message) {
+        messageQueue.add(message);
+
+        waitStrategy.signal();
+    }
+
     private void readMessagesFromBuffer(ByteBuffer messageBuffer, Consumer<ReplyMessage> newMessageHandler) {
         while (messageBuffer.remaining() >= Message.HEADER_SIZE) { // read all from buffer
             try (Timer timer = MetricsFactory.getMetrics().getTimer("network.client.connector.buffer.write")) {
@@ -1,5 +1,6 @@
 package com.fnklabs.dds.network.client;
 
+import com.fnklabs.concurrent.WaitStrategyType;
 import com.fnklabs.dds.network.RemoteHostIsNotAvailable;
 import com.fnklabs.dds.network.ReplyMessage;
 import com.google.common.net.HostAndPort;
@@ -13,6 +14,19 @@ import java.util.function.Consumer;
 public class NetworkClientFactory {
     private final static Logger log = LoggerFactory.getLogger(NetworkClientFactory.class);
 
+    /**
+     * Wait strategy of client workers
+     */
+    private final WaitStrategyType waitStrategyType;
+
+    public NetworkClientFactory() {
+        this(WaitStrategyType.PARK);
+    }
+
+    public NetworkClientFactory(WaitStrategyType waitStrategyType) {
+        this.waitStrategyType = waitStrategyType;
+    }
+
     /**
      * Build new network client
      *
@@ -25,7 +39,7 @@ public class NetworkClientFactory {
      */
     public NetworkClient build(HostAndPort remoteAddress, Consumer<ReplyMessage> messageConsumer) throws ClientException {
         try {
-            return new NetworkClient(remoteAddress, 1, messageConsumer);
+            return new NetworkClient(remoteAddress, 1, waitStrategyType, messageConsumer);
         } catch (IOException e) {
             log.warn("Can't build client connector", e);
         }
@@ -1,5 +1,6 @@
 package com.fnklabs.dds.network.client;
 
+import com.fnklabs.concurrent.WaitStrategy;
 import com.fnklabs.dds.network.ReplyMessage;
 import com.fnklabs.dds.network.ResponseFuture;
 import com.fnklabs.metrics.MetricsFactory;
@@ -24,22 +25,34 @@ class NetworkClientWorker implements Runnable {
 
     private final AtomicBoolean isRunning;
 
-    NetworkClientWorker(Queue<ReplyMessage> inputMessages, Consumer<ReplyMessage> unboundMessageConsumer, Map<Long, ResponseFuture> responseFutureMap, AtomicBoolean isRunning) {
+    /**
+     * Wait strategy that is used while queue is empty
+     */
+    private final WaitStrategy waitStrategy;
+
+    NetworkClientWorker(Queue<ReplyMessage> inputMessages, Consumer<ReplyMessage> unboundMessageConsumer, Map<Long, ResponseFuture> responseFutureMap, AtomicBoolean isRunning, WaitStrategy waitStrategy) {
         this.inputMessages = inputMessages;
         this.unboundMessageConsumer = unboundMessageConsumer;
         this.responseFutureMap = responseFutureMap;
         this.isRunning = isRunning;
+        this.waitStrategy = waitStrategy;
     }
 
     @Override
     public void run() {
-        while (isRunning.get()) {
+        int idleCount = 0;
+
+        while (isRunning.get() && !Thread.currentThread().isInterrupted()) {
             ReplyMessage message = inputMessages.poll();
 
             if (message != null) {
                 log.debug("Received new message: {}", message);
 
+                idleCount = 0;
+
                 onNewMessage(message);
+            } else {
+                waitStrategy.idle(idleCount < Integer.MAX_VALUE ? ++idleCount : idleCount);
             }
         }
     }
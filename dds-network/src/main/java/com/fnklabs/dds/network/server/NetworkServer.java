@@ -1,6 +1,10 @@
 package com.fnklabs.dds.network.server;
 
+import com.fnklabs.buffer.PooledBuffer;
 import com.fnklabs.concurrent.Executors;
+import com.fnklabs.concurrent.MpscArrayQueue;
+import com.fnklabs.concurrent.WaitStrategy;
+import com.fnklabs.concurrent.WaitStrategyType;
 import com.fnklabs.dds.network.*;
 import com.fnklabs.dds.network.pool.NetworkExecutor;
 import com.fnklabs.metrics.MetricsFactory;
@@ -20,7 +24,6 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -47,6 +50,11 @@ public class NetworkServer implements Closeable {
     private final ConcurrentHashMap<Long, ByteBuffer> sessionBuffers = new ConcurrentHashMap<>();
 
     private final Queue<RequestMessage> incomeMessageQueue;
+
+    /**
+     * Wait strategy of worker that consumes {@link #incomeMessageQueue}
+     */
+    private final WaitStrategy waitStrategy;
     private ServerSocketChannel serverSocketChannel;
 
     /**
@@ -55,13 +63,24 @@ public class NetworkServer implements Closeable {
      * @param incomeMessageHandler New message handler
      */
     public NetworkServer(HostAndPort listenAddress, int workers, IncomeMessageHandler incomeMessageHandler) {
+        this(listenAddress, workers, WaitStrategyType.PARK, incomeMessageHandler);
+    }
+
+    /**
+     * Initialize network server but does not start it
+     *
+     * @param waitStrategyType     Wait strategy of worker while there are no new messages
+     * @param incomeMessageHandler New message handler
+     */
+    public NetworkServer(HostAndPort listenAddress, int workers, WaitStrategyType waitStrategyType, IncomeMessageHandler incomeMessageHandler) {
         this.listenAddress = listenAddress;
 
-        incomeMessageQueue = new ArrayBlockingQueue<>(10_000);
+        incomeMessageQueue = new MpscArrayQueue<>(10_000);
+        waitStrategy = waitStrategyType.create();
 
         this.workerPoolExecutor = Executors.fixedPoolExecutor(workers, "network.server.worker");
 
-        workerPoolExecutor.submit(new NetworkServerWorker(incomeMessageQueue, isRunning, incomeMessageHandler, this::onNewReply));
+        workerPoolExecutor.submit(new NetworkServerWorker(incomeMessageQueue, isRunning, incomeMessageHandler, waitStrategy, this::onNewReply));
     }
 
     public void join(NetworkExecutor executor) throws IOException {
@@ -87,6 +106,7 @@ public class NetworkServer implements Closeable {
     @Override
     public void close() throws IOException {
         isRunning.set(false);
+        waitStrategy.signal();
 
         workerPoolExecutor.shutdown();
 
@@ -152,9 +172,11 @@ public class NetworkServer implements Closeable {
         readMessagesFromBuffer(messageBuffer, message -> {
             message.setSessionId(sessionId);
 
-            if (!incomeMessageQueue.add(message)) {
+            if (!incomeMessageQueue.offer(message)) {
                 throw new RuntimeException(new MessageQueueLimits(message));
             }
+
+            waitStrategy.signal();
         });
 
 
@@ -223,12 +245,9 @@ public class NetworkServer implements Closeable {
     private void onNewReply(long sessionId, ReplyMessage message) {
         LOGGER.debug("Receive reply message: {}", message);
 
-        try (Timer timer = MetricsFactory.getMetrics().getTimer("network.server.reply")) {
-            ByteBuffer buffer = ByteBuffer.allocate(message.getSize());
-            message.read(buffer);
-            buffer.rewind();
-
-            sendMessage(sessionId, buffer);
+        try (Timer timer = MetricsFactory.getMetrics().getTimer("network.server.reply");
+             PooledBuffer frame = NetworkConnector.frame(message)) {
+            sendMessage(sessionId, frame.asByteBuffer(0, message.getSize()));
         } catch (Exception e) {
             LOGGER.warn("Can't send data to client", e);
         }
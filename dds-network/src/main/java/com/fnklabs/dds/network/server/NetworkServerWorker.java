@@ -1,5 +1,6 @@
 package com.fnklabs.dds.network.server;
 
+import com.fnklabs.concurrent.WaitStrategy;
 import com.fnklabs.dds.network.ApiVersion;
 import com.fnklabs.dds.network.ReplyMessage;
 import com.fnklabs.dds.network.RequestMessage;
@@ -40,28 +41,40 @@ class NetworkServerWorker implements Runnable {
 
     private final IncomeMessageHandler incomeMessageHandler;
 
+    /**
+     * Wait strategy that is used while queue is empty
+     */
+    private final WaitStrategy waitStrategy;
+
     /**
      * Response consumer
      */
     private final BiConsumer<Long, ReplyMessage> responseConsumer;
 
-    NetworkServerWorker(Queue<RequestMessage> messagesQueue, AtomicBoolean isRunning, IncomeMessageHandler incomeMessageHandler, BiConsumer<Long, ReplyMessage> responseConsumer) {
+    NetworkServerWorker(Queue<RequestMessage> messagesQueue, AtomicBoolean isRunning, IncomeMessageHandler incomeMessageHandler, WaitStrategy waitStrategy, BiConsumer<Long, ReplyMessage> responseConsumer) {
         this.messagesQueue = messagesQueue;
         this.isRunning = isRunning;
         this.incomeMessageHandler = incomeMessageHandler;
+        this.waitStrategy = waitStrategy;
         this.responseConsumer = responseConsumer;
     }
 
 
     @Override
     public void run() {
-        while (isRunning.get()) {
+        int idleCount = 0;
+
+        while (isRunning.get() && !Thread.currentThread().isInterrupted()) {
             RequestMessage message = messagesQueue.poll();
 
             if (message != null) {
                 log.debug("Received new message: {}", message);
 
+                idleCount = 0;
+
                 onMessage(message);
+            } else {
+                waitStrategy.idle(idleCount < Integer.MAX_VALUE ? ++idleCount : idleCount);
             }
         }
     }
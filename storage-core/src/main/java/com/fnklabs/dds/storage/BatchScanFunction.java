@@ -0,0 +1,16 @@
+package com.fnklabs.dds.storage;
+
+/**
+ * Consumer of contiguous blocks of fixed width records
+ */
+@FunctionalInterface
+public interface BatchScanFunction {
+    /**
+     * @param position position of the first record in the batch
+     * @param records  records data, only first count * record size bytes are valid. Array is reused between batches
+     * @param count    count of records in the batch
+     *
+     * @return true to continue scan, false to stop it
+     */
+    boolean accept(long position, byte[] records, int count);
+}
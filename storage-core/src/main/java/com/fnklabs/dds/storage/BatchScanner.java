@@ -0,0 +1,102 @@
+package com.fnklabs.dds.storage;
+
+import com.google.common.base.Verify;
+
+/**
+ * Batch scan loop of fixed width records that is shared by storages and their views, they differ only by how block of records is
+ * read
+ */
+public final class BatchScanner {
+    private BatchScanner() {
+    }
+
+    /**
+     * Scan fixed width records of [position, min(end, limit)) range by batches of contiguous records. Incomplete record at the end
+     * of the range is skipped.
+     *
+     * @param position     start position
+     * @param end          end position (exclusive)
+     * @param limit        end of readable data
+     * @param recordSize   record size
+     * @param batchSize    max count of records in one batch
+     * @param blockReader  reader of record blocks
+     * @param scanFunction batch consumer
+     */
+    public static void scan(long position, long end, long limit, int recordSize, int batchSize, BlockReader blockReader, BatchScanFunction scanFunction) {
+        checkBatch(recordSize, batchSize);
+
+        byte[] records = new byte[recordSize * batchSize];
+
+        forEachBatch(position, end, limit, recordSize, batchSize, (batchPosition, count) -> {
+            blockReader.read(batchPosition, records, count * recordSize);
+
+            return scanFunction.accept(batchPosition, records, count);
+        });
+    }
+
+    /**
+     * Split [position, min(end, limit)) range into batches of contiguous fixed width records. Incomplete record at the end of the
+     * range is skipped.
+     *
+     * @param position      start position
+     * @param end           end position (exclusive)
+     * @param limit         end of readable data
+     * @param recordSize    record size
+     * @param batchSize     max count of records in one batch
+     * @param batchFunction batch consumer
+     */
+    public static void forEachBatch(long position, long end, long limit, int recordSize, int batchSize, BatchFunction batchFunction) {
+        Verify.verify(position < end, "end position must be > start position");
+        checkBatch(recordSize, batchSize);
+
+        long scanLimit = Math.min(end, limit);
+
+        for (long batchPosition = position; scanLimit - batchPosition >= recordSize; ) {
+            int count = (int) Math.min(batchSize, (scanLimit - batchPosition) / recordSize);
+
+            if (!batchFunction.accept(batchPosition, count)) {
+                return;
+            }
+
+            batchPosition += (long) count * recordSize;
+        }
+    }
+
+    /**
+     * Verify that batch length fits into int
+     *
+     * @param recordSize record size
+     * @param batchSize  max count of records in one batch
+     */
+    public static void checkBatch(int recordSize, int batchSize) {
+        Verify.verify(recordSize > 0 && batchSize > 0, "record size and batch size must be positive");
+        Verify.verify((long) recordSize * batchSize <= Integer.MAX_VALUE, "batch is too large: %s records", batchSize);
+    }
+
+    /**
+     * Reader of contiguous block of records
+     */
+    @FunctionalInterface
+    public interface BlockReader {
+        /**
+         * @param position block position
+         * @param data     destination, block is read to its beginning
+         * @param length   block length
+         */
+        void read(long position, byte[] data, int length);
+    }
+
+    /**
+     * Consumer of batch bounds
+     */
+    @FunctionalInterface
+    public interface BatchFunction {
+        /**
+         * @param position position of the first record in the batch
+         * @param count    count of records in the batch
+         *
+         * @return true to continue scan, false to stop it
+         */
+        boolean accept(long position, int count);
+    }
+}
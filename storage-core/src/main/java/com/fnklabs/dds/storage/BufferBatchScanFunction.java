@@ -0,0 +1,18 @@
+package com.fnklabs.dds.storage;
+
+import com.fnklabs.buffer.Buffer;
+
+/**
+ * Consumer of contiguous blocks of fixed width records that are exposed as {@link Buffer} view
+ */
+@FunctionalInterface
+public interface BufferBatchScanFunction {
+    /**
+     * @param position position of the first record in the batch
+     * @param records  view of batch records, its size is count of records multiplied by record size. View is valid only during the
+     *                 call and must not be modified, records can be read by {@link com.fnklabs.buffer.BufferCursor}
+     *
+     * @return true to continue scan, false to stop it
+     */
+    boolean accept(long position, Buffer records);
+}
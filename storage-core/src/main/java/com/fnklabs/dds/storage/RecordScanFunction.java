@@ -0,0 +1,18 @@
+package com.fnklabs.dds.storage;
+
+import com.fnklabs.buffer.BufferCursor;
+
+/**
+ * Consumer of fixed width records that are accessed in place by read-only cursor
+ */
+@FunctionalInterface
+public interface RecordScanFunction {
+    /**
+     * @param position record position in the storage
+     * @param record   cursor that is positioned at the record, fields are read by offset in the record. Cursor is valid only
+     *                 during the call and must not be advanced by consumer
+     *
+     * @return true to continue scan, false to stop it
+     */
+    boolean accept(long position, BufferCursor record);
+}
@@ -0,0 +1,21 @@
+package com.fnklabs.dds.storage;
+
+import com.fnklabs.buffer.BufferPool;
+import com.fnklabs.buffer.MemoryManager;
+
+/**
+ * Batch buffers of default {@link TableStorage} record scans
+ */
+final class ScanBuffers {
+    /**
+     * Batch of default scan takes at most 64 KB unless record is bigger
+     */
+    static final BufferPool POOL = BufferPool.builder()
+                                             .setOwner(MemoryManager.SCAN)
+                                             .setArenaSize(4 * 1024 * 1024)
+                                             .setMaxSize(64 * 1024)
+                                             .build();
+
+    private ScanBuffers() {
+    }
+}
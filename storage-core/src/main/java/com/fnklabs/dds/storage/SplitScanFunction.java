@@ -0,0 +1,17 @@
+package com.fnklabs.dds.storage;
+
+/**
+ * Scan of one split of parallel scan
+ *
+ * @param <R> split result type
+ */
+@FunctionalInterface
+public interface SplitScanFunction<R> {
+    /**
+     * @param position split start position, aligned by record size
+     * @param end      split end position (exclusive), end of the last split is end of the scan range
+     *
+     * @return split result
+     */
+    R scan(long position, long end);
+}
@@ -0,0 +1,31 @@
+package com.fnklabs.dds.storage;
+
+/**
+ * Position and data of one record of batched storage operation
+ */
+public final class StorageRecord {
+    private final long position;
+
+    /**
+     * Data to write or buffer to which data will be read
+     */
+    private final byte[] data;
+
+    public StorageRecord(long position, byte[] data) {
+        this.position = position;
+        this.data = data;
+    }
+
+    public long position() {
+        return position;
+    }
+
+    public byte[] data() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StorageRecord{position=%d, length=%d}", position, data.length);
+    }
+}
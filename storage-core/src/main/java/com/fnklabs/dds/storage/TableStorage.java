@@ -1,5 +1,18 @@
 package com.fnklabs.dds.storage;
 
+import com.fnklabs.buffer.Buffer;
+import com.fnklabs.buffer.BufferCursor;
+import com.fnklabs.buffer.PooledBuffer;
+import com.google.common.base.Verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
 import java.util.function.Supplier;
 
 /**
@@ -21,6 +34,21 @@ public interface TableStorage {
      */
     void write(long position, byte[] data);
 
+    /**
+     * Allocate region for new data above all previously written and allocated data. Concurrent appends never return overlapping
+     * regions, but storage may leave gaps between regions.
+     *
+     * @param length region length
+     *
+     * @return position of allocated region
+     *
+     * @throws IllegalStateException         if storage has no space for region
+     * @throws UnsupportedOperationException if storage doesn't support append
+     */
+    default long append(int length) {
+        throw new UnsupportedOperationException("append is not supported");
+    }
+
     /**
      * Read data
      *  @param position position
@@ -29,5 +57,233 @@ public interface TableStorage {
     int read(long position, byte[] data);
 
 
+    /**
+     * Read fixed width records at provided positions in address order
+     * <p>
+     * First count positions are sorted in place, after the call record at positions[i] is located in values at i * recordSize
+     * offset
+     *
+     * @param positions  record positions, will be sorted
+     * @param count      count of positions to read
+     * @param recordSize record size
+     * @param values     buffer to which records will be read, must have at least count * recordSize length
+     */
+    default void read(long[] positions, int count, int recordSize, byte[] values) {
+        Verify.verify(count <= positions.length, "count is greater than positions length: %s", count);
+        Verify.verify((long) count * recordSize <= values.length, "values buffer is too small for %s records", count);
+
+        Arrays.sort(positions, 0, count);
+
+        byte[] record = new byte[recordSize];
+
+        for (int i = 0; i < count; i++) {
+            read(positions[i], record);
+
+            System.arraycopy(record, 0, values, i * recordSize, recordSize);
+        }
+    }
+
     void scan(long position, long end, ScanFunction scanFunction, Supplier<byte[]> bufferSupplier);
+
+    /**
+     * Write batch of records. Storage may reorder records, so records of one batch must not overlap.
+     * <p>
+     * Default implementation writes records synchronously by {@link #write(long, byte[])}
+     *
+     * @param records records to write
+     *
+     * @return future that is completed when all records were written
+     */
+    default CompletableFuture<Void> writeAsync(List<StorageRecord> records) {
+        try {
+            for (StorageRecord record : records) {
+                write(record.position(), record.data());
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Read batch of records into their data buffers. Storage may reorder records.
+     * <p>
+     * Default implementation reads records synchronously by {@link #read(long, byte[])}
+     *
+     * @param records records to read
+     *
+     * @return future that is completed when all records were read
+     */
+    default CompletableFuture<Void> readAsync(List<StorageRecord> records) {
+        try {
+            for (StorageRecord record : records) {
+                read(record.position(), record.data());
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Scan fixed width records of [position, end) range by batches of contiguous records. Incomplete record at the end of the range
+     * is skipped.
+     *
+     * @param position     start position
+     * @param end          end position (exclusive)
+     * @param recordSize   record size
+     * @param batchSize    max count of records in one batch
+     * @param scanFunction batch consumer
+     */
+    default void scan(long position, long end, int recordSize, int batchSize, BatchScanFunction scanFunction) {
+        BatchScanner.scan(position, end, allocatedSize(), recordSize, batchSize, this::readBlock, scanFunction);
+    }
+
+    /**
+     * Read contiguous block of records for batch scan. Storages override it to read block by one bulk read, consumers that don't
+     * need records in array should use {@link #scan(long, long, int, int, BufferBatchScanFunction)} that doesn't copy them
+     * <p>
+     * Default implementation reads block by {@link #read(long, byte[])}
+     *
+     * @param position block position
+     * @param data     destination, block is read to its beginning
+     * @param length   block length
+     */
+    default void readBlock(long position, byte[] data, int length) {
+        if (length == data.length) {
+            read(position, data);
+
+            return;
+        }
+
+        byte[] block = new byte[length];
+
+        read(position, block);
+
+        System.arraycopy(block, 0, data, 0, length);
+    }
+
+    /**
+     * Scan fixed width records of [position, end) range by batches of contiguous records that are exposed as {@link Buffer} views.
+     * Incomplete record at the end of the range is skipped.
+     * <p>
+     * Default implementation copies records by batches into pooled buffer, storages that keep data in {@link Buffer} expose
+     * batches in place without copying
+     *
+     * @param position     start position
+     * @param end          end position (exclusive)
+     * @param recordSize   record size
+     * @param batchSize    max count of records in one batch
+     * @param scanFunction batch consumer
+     */
+    default void scan(long position, long end, int recordSize, int batchSize, BufferBatchScanFunction scanFunction) {
+        BatchScanner.checkBatch(recordSize, batchSize);
+
+        try (PooledBuffer batchBuffer = ScanBuffers.POOL.allocate(recordSize * batchSize)) {
+            scan(position, end, recordSize, batchSize, (batchPosition, records, count) -> {
+                batchBuffer.write(0, records, 0, count * recordSize);
+
+                return scanFunction.accept(batchPosition, batchBuffer.slice(0, (long) count * recordSize));
+            });
+        }
+    }
+
+    /**
+     * Scan fixed width records of [position, end) range by cursor. Incomplete record at the end of the range is skipped.
+     * <p>
+     * Default implementation moves cursor over batches of {@link #scan(long, long, int, int, BufferBatchScanFunction)}, storages
+     * that keep data in {@link Buffer} give access to records in place by single cursor
+     *
+     * @param position     start position
+     * @param end          end position (exclusive)
+     * @param recordSize   record size
+     * @param scanFunction record consumer
+     */
+    default void scan(long position, long end, int recordSize, RecordScanFunction scanFunction) {
+        int batchSize = Math.max(1, 64 * 1024 / recordSize);
+
+        scan(position, end, recordSize, batchSize, (batchPosition, records) -> {
+            BufferCursor cursor = BufferCursor.of(records, 0, records.bufferSize(), recordSize);
+
+            while (cursor.hasNext()) {
+                long offset = cursor.nextLong();
+
+                if (!scanFunction.accept(batchPosition + offset, cursor)) {
+                    return false;
+                }
+            }
+
+            return true;
+        });
+    }
+
+    /**
+     * Scan [position, end) range in parallel on {@link ForkJoinPool#commonPool()}
+     *
+     * @see #parallelScan(long, long, int, int, Executor, SplitScanFunction, BinaryOperator)
+     */
+    default <R> R parallelScan(long position, long end, int recordSize, int parallelism, SplitScanFunction<R> splitScanFunction, BinaryOperator<R> combiner) {
+        return parallelScan(position, end, recordSize, parallelism, ForkJoinPool.commonPool(), splitScanFunction, combiner);
+    }
+
+    /**
+     * Split [position, end) range into record aligned sub ranges, scan them in parallel and merge split results in range order
+     * <p>
+     * Range is split into at most parallelism splits, so one scan occupies at most parallelism executor threads. Last split is
+     * scanned by the caller thread.
+     *
+     * @param position          start position
+     * @param end               end position (exclusive)
+     * @param recordSize        record size
+     * @param parallelism       max count of concurrently scanned splits
+     * @param executor          executor for splits
+     * @param splitScanFunction scan of one split
+     * @param combiner          split results combiner
+     * @param <R>               result type
+     *
+     * @return combined result
+     */
+    default <R> R parallelScan(long position, long end, int recordSize, int parallelism, Executor executor, SplitScanFunction<R> splitScanFunction, BinaryOperator<R> combiner) {
+        Verify.verify(position < end, "end position must be > start position");
+        Verify.verify(recordSize > 0, "record size must be positive: %s", recordSize);
+        Verify.verify(parallelism > 0, "parallelism must be positive: %s", parallelism);
+
+        long records = (Math.min(end, allocatedSize()) - position) / recordSize;
+        long splitRecords = Math.max(1, (records + parallelism - 1) / parallelism);
+
+        List<CompletableFuture<R>> splits = new ArrayList<>(parallelism);
+
+        long splitPosition = position;
+
+        for (long scheduled = splitRecords; scheduled < records; scheduled += splitRecords) {
+            long from = splitPosition;
+            long to = from + splitRecords * recordSize;
+
+            splits.add(CompletableFuture.supplyAsync(() -> splitScanFunction.scan(from, to), executor));
+
+            splitPosition = to;
+        }
+
+        R lastSplitResult = splitScanFunction.scan(splitPosition, end);
+
+        R result = null;
+
+        try {
+            for (CompletableFuture<R> split : splits) {
+                R splitResult = split.join();
+
+                result = result == null ? splitResult : combiner.apply(result, splitResult);
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+
+        return result == null ? lastSplitResult : combiner.apply(result, lastSplitResult);
+    }
 }
@@ -0,0 +1,76 @@
+package com.fnklabs.dds.storage.cache;
+
+import com.fnklabs.dds.storage.StorageFactory;
+import com.fnklabs.dds.storage.StorageOptions;
+
+/**
+ * Options of {@link CachingTableStorage} and of underlying storage
+ * <p>
+ * Cache is guarded by lock stripes, every stripe guards its share of pages and frames. One stripe serializes all reads and writes
+ * of the table and keeps exact eviction order over all frames, more stripes let concurrent accesses to different pages proceed in
+ * parallel while every stripe evicts only its own frames.
+ *
+ * @param <O> underlying storage options type
+ */
+public class CacheOptions<O extends StorageOptions> implements StorageOptions {
+    private final StorageFactory<O> storageFactory;
+    private final O storageOptions;
+
+    private final int pageSize;
+    private final int pages;
+
+    private final EvictionPolicy evictionPolicy;
+    private final WritePolicy writePolicy;
+
+    private int stripes = 1;
+
+    public CacheOptions(StorageFactory<O> storageFactory, O storageOptions, int pageSize, int pages) {
+        this(storageFactory, storageOptions, pageSize, pages, EvictionPolicy.CLOCK, WritePolicy.WRITE_THROUGH);
+    }
+
+    public CacheOptions(StorageFactory<O> storageFactory, O storageOptions, int pageSize, int pages, EvictionPolicy evictionPolicy, WritePolicy writePolicy) {
+        this.storageFactory = storageFactory;
+        this.storageOptions = storageOptions;
+        this.pageSize = pageSize;
+        this.pages = pages;
+        this.evictionPolicy = evictionPolicy;
+        this.writePolicy = writePolicy;
+    }
+
+    public StorageFactory<O> storageFactory() {
+        return storageFactory;
+    }
+
+    public O storageOptions() {
+        return storageOptions;
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    public int pages() {
+        return pages;
+    }
+
+    public EvictionPolicy evictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public WritePolicy writePolicy() {
+        return writePolicy;
+    }
+
+    public int stripes() {
+        return stripes;
+    }
+
+    /**
+     * @param stripes count of lock stripes, must not exceed pages count
+     */
+    public CacheOptions<O> setStripes(int stripes) {
+        this.stripes = stripes;
+
+        return this;
+    }
+}
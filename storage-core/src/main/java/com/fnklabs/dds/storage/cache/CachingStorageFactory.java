@@ -0,0 +1,26 @@
+package com.fnklabs.dds.storage.cache;
+
+import com.fnklabs.dds.storage.StorageFactory;
+import com.fnklabs.dds.storage.StorageOptions;
+import com.fnklabs.dds.storage.TableStorage;
+
+/**
+ * Creates underlying storage and wraps it by {@link CachingTableStorage}
+ *
+ * @param <O> underlying storage options type
+ */
+public class CachingStorageFactory<O extends StorageOptions> implements StorageFactory<CacheOptions<O>> {
+    @Override
+    public TableStorage get(CacheOptions<O> storageOptions) {
+        TableStorage storage = storageOptions.storageFactory().get(storageOptions.storageOptions());
+
+        return new CachingTableStorage(
+                storage,
+                storageOptions.pageSize(),
+                storageOptions.pages(),
+                storageOptions.stripes(),
+                storageOptions.evictionPolicy(),
+                storageOptions.writePolicy()
+        );
+    }
+}
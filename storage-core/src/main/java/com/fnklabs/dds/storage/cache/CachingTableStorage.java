@@ -0,0 +1,370 @@
+package com.fnklabs.dds.storage.cache;
+
+import com.fnklabs.buffer.Buffer;
+import com.fnklabs.buffer.BufferType;
+import com.fnklabs.buffer.MemoryManager;
+import com.fnklabs.dds.storage.ScanFunction;
+import com.fnklabs.dds.storage.TableStorage;
+import com.fnklabs.metrics.Counter;
+import com.fnklabs.metrics.MetricsFactory;
+import com.google.common.base.Verify;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Storage decorator that caches fixed size pages of underlying storage in off-heap pool
+ * <p>
+ * Pool is allocated once and is split into frames of page size. Page is loaded into free frame on first access, if all frames are
+ * occupied then frame is chosen by {@link EvictionPolicy} and its page is evicted (and written to underlying storage if it is dirty).
+ * <p>
+ * Pages are split into stripes by page number and frames are split evenly between stripes. Every stripe has its own frames, page
+ * replacement and lock, so accesses to pages of different stripes don't contend, eviction chooses victim only among frames of
+ * the stripe. Access to one page is atomic, access that spans several pages isn't atomic as a whole. Underlying storage must
+ * support concurrent access to different pages.
+ * <p>
+ * Hits, misses and evictions are reported by storage.cache.hits, storage.cache.misses and storage.cache.evictions counters
+ */
+public class CachingTableStorage implements TableStorage, Flushable, Closeable {
+    private final TableStorage storage;
+
+    private final int pageSize;
+
+    private final WritePolicy writePolicy;
+
+    private final Buffer pool;
+
+    private final Stripe[] stripes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /**
+     * @param storage        underlying storage
+     * @param pageSize       page size
+     * @param pages          max count of cached pages
+     * @param evictionPolicy page replacement algorithm
+     * @param writePolicy    write policy
+     */
+    public CachingTableStorage(TableStorage storage, int pageSize, int pages, EvictionPolicy evictionPolicy, WritePolicy writePolicy) {
+        this(storage, pageSize, pages, 1, evictionPolicy, writePolicy);
+    }
+
+    /**
+     * @param storage        underlying storage
+     * @param pageSize       page size
+     * @param pages          max count of cached pages
+     * @param stripes        count of lock stripes, must not exceed pages count
+     * @param evictionPolicy page replacement algorithm
+     * @param writePolicy    write policy
+     */
+    public CachingTableStorage(TableStorage storage, int pageSize, int pages, int stripes, EvictionPolicy evictionPolicy, WritePolicy writePolicy) {
+        Verify.verify(pageSize > 0, "page size must be positive: %s", pageSize);
+        Verify.verify(pages > 0, "pages count must be positive: %s", pages);
+        Verify.verify(stripes > 0 && stripes <= pages, "stripes count must be in [1, %s]: %s", pages, stripes);
+
+        this.storage = storage;
+        this.pageSize = pageSize;
+        this.writePolicy = writePolicy;
+        this.pool = BufferType.UNSAFE.get((long) pageSize * pages, MemoryManager.CACHE);
+        this.stripes = new Stripe[stripes];
+
+        for (int stripe = 0, firstFrame = 0; stripe < stripes; stripe++) {
+            // remainder of frames goes to the first stripes
+            int frames = pages / stripes + (stripe < pages % stripes ? 1 : 0);
+
+            this.stripes[stripe] = new Stripe(firstFrame, frames, evictionPolicy);
+
+            firstFrame += frames;
+        }
+
+        this.hits = MetricsFactory.getMetrics().getCounter("storage.cache.hits");
+        this.misses = MetricsFactory.getMetrics().getCounter("storage.cache.misses");
+        this.evictions = MetricsFactory.getMetrics().getCounter("storage.cache.evictions");
+    }
+
+    @Override
+    public long allocatedSize() {
+        return storage.allocatedSize();
+    }
+
+    /**
+     * Allocation is delegated to underlying storage, allocated region is not cached until it is accessed
+     */
+    @Override
+    public long append(int length) {
+        return storage.append(length);
+    }
+
+    /**
+     * Write through storage writes data to underlying storage by pages under page stripe lock, so underlying storage and cached
+     * page are modified in the same order by concurrent writes
+     */
+    @Override
+    public void write(long position, byte[] data) {
+        checkBounds(position, data.length);
+
+        int offset = 0;
+
+        while (offset < data.length) {
+            long pagePosition = position + offset;
+            long page = pagePosition / pageSize;
+            int pageOffset = (int) (pagePosition % pageSize);
+            int length = Math.min(data.length - offset, pageSize - pageOffset);
+
+            stripe(page).write(page, pageOffset, data, offset, length);
+
+            offset += length;
+        }
+    }
+
+    @Override
+    public int read(long position, byte[] data) {
+        int length = (int) Math.min(data.length, allocatedSize() - position);
+
+        checkBounds(position, length);
+
+        int offset = 0;
+
+        while (offset < length) {
+            long pagePosition = position + offset;
+            long page = pagePosition / pageSize;
+            int pageOffset = (int) (pagePosition % pageSize);
+            int pageLength = Math.min(length - offset, pageSize - pageOffset);
+
+            stripe(page).read(page, pageOffset, data, offset, pageLength);
+
+            offset += pageLength;
+        }
+
+        return length;
+    }
+
+    @Override
+    public void scan(long position, long end, ScanFunction scanFunction, Supplier<byte[]> bufferSupplier) {
+        Verify.verify(position < end, "end position must be > start position");
+
+        byte[] data = bufferSupplier.get();
+
+        long limit = Math.min(end, allocatedSize());
+
+        for (long recordPosition = position; limit - recordPosition >= data.length; recordPosition += data.length) {
+            read(recordPosition, data);
+
+            if (!scanFunction.accept(recordPosition, data)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write dirty pages to underlying storage and flush it
+     *
+     * @throws IOException if underlying storage can't be flushed
+     */
+    @Override
+    public void flush() throws IOException {
+        for (Stripe stripe : stripes) {
+            stripe.flush();
+        }
+
+        if (storage instanceof Flushable) {
+            ((Flushable) storage).flush();
+        }
+    }
+
+    /**
+     * Flush dirty pages, release pool and close underlying storage
+     *
+     * @throws IOException if underlying storage can't be flushed or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+
+        if (pool instanceof Closeable) {
+            ((Closeable) pool).close();
+        }
+
+        if (storage instanceof Closeable) {
+            ((Closeable) storage).close();
+        }
+    }
+
+    private Stripe stripe(long page) {
+        return stripes[(int) (page % stripes.length)];
+    }
+
+    /**
+     * @return page length, last page of storage can be shorter than page size
+     */
+    private int pageLength(long page) {
+        return (int) Math.min(pageSize, allocatedSize() - page * pageSize);
+    }
+
+    private void checkBounds(long position, int length) {
+        if (position < 0 || length < 0 || position > allocatedSize() - length) {
+            throw new IndexOutOfBoundsException(String.format("position: %d length: %d size: %d", position, length, allocatedSize()));
+        }
+    }
+
+    /**
+     * Frames of pages of one stripe, stripe state is guarded by stripe lock
+     */
+    private final class Stripe {
+        /**
+         * Pool index of the first frame of stripe
+         */
+        private final int firstFrame;
+
+        /**
+         * Page number to stripe frame index
+         */
+        private final Map<Long, Integer> frames = new HashMap<>();
+
+        /**
+         * Stripe frame index to cached page number
+         */
+        private final long[] framePages;
+
+        private final boolean[] dirty;
+
+        private final PageReplacement pageReplacement;
+
+        /**
+         * Count of frames that were used at least once, frames are used in index order before eviction starts
+         */
+        private int usedFrames;
+
+        /**
+         * Transfer buffer between pool and underlying storage
+         */
+        private final byte[] pageBuffer;
+
+        private Stripe(int firstFrame, int frames, EvictionPolicy evictionPolicy) {
+            this.firstFrame = firstFrame;
+            this.framePages = new long[frames];
+            this.dirty = new boolean[frames];
+            this.pageReplacement = evictionPolicy.create(frames);
+            this.pageBuffer = new byte[pageSize];
+        }
+
+        synchronized void write(long page, int pageOffset, byte[] data, int offset, int length) {
+            Integer frame;
+
+            if (writePolicy == WritePolicy.WRITE_BACK) {
+                // page that is overwritten entirely doesn't need to be loaded
+                frame = frame(page, length < pageLength(page));
+
+                dirty[frame] = true;
+            } else {
+                storage.write(page * pageSize + pageOffset, length == data.length ? data : Arrays.copyOfRange(data, offset, offset + length));
+
+                frame = frames.get(page);
+            }
+
+            if (frame != null) {
+                pool.write(frameOffset(frame) + pageOffset, data, offset, length);
+            }
+        }
+
+        synchronized void read(long page, int pageOffset, byte[] data, int offset, int length) {
+            int frame = frame(page, true);
+
+            pool.read(frameOffset(frame) + pageOffset, data, offset, length);
+        }
+
+        synchronized void flush() {
+            for (int frame = 0; frame < usedFrames; frame++) {
+                if (dirty[frame]) {
+                    writePage(frame);
+                }
+            }
+        }
+
+        /**
+         * Get frame of cached page or load page into new frame
+         *
+         * @param page page number
+         * @param load whether page data must be loaded from underlying storage on cache miss
+         *
+         * @return stripe frame index
+         */
+        private int frame(long page, boolean load) {
+            Integer cachedFrame = frames.get(page);
+
+            if (cachedFrame != null) {
+                hits.inc();
+
+                pageReplacement.onAccess(cachedFrame);
+
+                return cachedFrame;
+            }
+
+            misses.inc();
+
+            int frame;
+
+            if (usedFrames < framePages.length) {
+                frame = usedFrames++;
+            } else {
+                frame = pageReplacement.victim();
+
+                evict(frame);
+            }
+
+            framePages[frame] = page;
+            frames.put(page, frame);
+
+            if (load) {
+                loadPage(frame);
+            }
+
+            pageReplacement.onAccess(frame);
+
+            return frame;
+        }
+
+        private void evict(int frame) {
+            if (dirty[frame]) {
+                writePage(frame);
+            }
+
+            frames.remove(framePages[frame]);
+
+            evictions.inc();
+        }
+
+        private void loadPage(int frame) {
+            int length = pageLength(framePages[frame]);
+
+            byte[] data = length == pageSize ? pageBuffer : new byte[length];
+
+            storage.read(framePages[frame] * pageSize, data);
+
+            pool.write(frameOffset(frame), data, 0, length);
+        }
+
+        private void writePage(int frame) {
+            int length = pageLength(framePages[frame]);
+
+            byte[] data = length == pageSize ? pageBuffer : new byte[length];
+
+            pool.read(frameOffset(frame), data, 0, length);
+
+            storage.write(framePages[frame] * pageSize, data);
+
+            dirty[frame] = false;
+        }
+
+        private long frameOffset(int frame) {
+            return (long) (firstFrame + frame) * pageSize;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.fnklabs.dds.storage.cache;
+
+class ClockPageReplacement implements PageReplacement {
+    private final boolean[] referenced;
+
+    private int hand;
+
+    ClockPageReplacement(int frames) {
+        this.referenced = new boolean[frames];
+    }
+
+    @Override
+    public void onAccess(int frame) {
+        referenced[frame] = true;
+    }
+
+    @Override
+    public int victim() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+
+            hand = (hand + 1) % referenced.length;
+        }
+
+        int victim = hand;
+
+        hand = (hand + 1) % referenced.length;
+
+        return victim;
+    }
+}
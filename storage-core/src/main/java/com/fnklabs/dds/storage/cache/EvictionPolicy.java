@@ -0,0 +1,26 @@
+package com.fnklabs.dds.storage.cache;
+
+/**
+ * Page replacement algorithm of {@link CachingTableStorage}
+ */
+public enum EvictionPolicy {
+    /**
+     * Second chance clock, cache hit only sets reference bit of the page
+     */
+    CLOCK,
+
+    /**
+     * Least recently used page is evicted
+     */
+    LRU;
+
+    PageReplacement create(int frames) {
+        switch (this) {
+            case LRU:
+                return new LruPageReplacement(frames);
+            case CLOCK:
+            default:
+                return new ClockPageReplacement(frames);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.fnklabs.dds.storage.cache;
+
+/**
+ * Frames are kept in doubly linked list ordered by access time, most recently used frame is the head
+ */
+class LruPageReplacement implements PageReplacement {
+    private static final int NONE = -1;
+
+    private final int[] prev;
+    private final int[] next;
+
+    private int head;
+    private int tail;
+
+    LruPageReplacement(int frames) {
+        this.prev = new int[frames];
+        this.next = new int[frames];
+
+        for (int i = 0; i < frames; i++) {
+            prev[i] = i - 1;
+            next[i] = i + 1 < frames ? i + 1 : NONE;
+        }
+
+        this.head = 0;
+        this.tail = frames - 1;
+    }
+
+    @Override
+    public void onAccess(int frame) {
+        if (frame == head) {
+            return;
+        }
+
+        // unlink
+        next[prev[frame]] = next[frame];
+
+        if (frame == tail) {
+            tail = prev[frame];
+        } else {
+            prev[next[frame]] = prev[frame];
+        }
+
+        // link as head
+        prev[frame] = NONE;
+        next[frame] = head;
+        prev[head] = frame;
+
+        head = frame;
+    }
+
+    @Override
+    public int victim() {
+        return tail;
+    }
+}
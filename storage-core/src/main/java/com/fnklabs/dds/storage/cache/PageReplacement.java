@@ -0,0 +1,20 @@
+package com.fnklabs.dds.storage.cache;
+
+/**
+ * Chooses cache frame to evict
+ */
+interface PageReplacement {
+    /**
+     * Register access to the page in provided frame
+     *
+     * @param frame frame index
+     */
+    void onAccess(int frame);
+
+    /**
+     * Choose frame which page must be evicted, is called only when all frames are occupied
+     *
+     * @return frame index
+     */
+    int victim();
+}
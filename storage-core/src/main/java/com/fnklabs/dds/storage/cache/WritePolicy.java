@@ -0,0 +1,16 @@
+package com.fnklabs.dds.storage.cache;
+
+/**
+ * How {@link CachingTableStorage} propagates writes to underlying storage
+ */
+public enum WritePolicy {
+    /**
+     * Data is written to underlying storage immediately, cached pages are updated only if they are already cached
+     */
+    WRITE_THROUGH,
+
+    /**
+     * Data is written only to cached page, dirty pages are written to underlying storage on eviction and flush
+     */
+    WRITE_BACK
+}
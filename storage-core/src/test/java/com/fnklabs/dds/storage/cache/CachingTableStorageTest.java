@@ -0,0 +1,256 @@
+package com.fnklabs.dds.storage.cache;
+
+import com.fnklabs.dds.storage.ScanFunction;
+import com.fnklabs.dds.storage.TableStorage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@RunWith(Parameterized.class)
+public class CachingTableStorageTest {
+    private static final int SIZE = 64 * 1024 + 100;
+    private static final int PAGE_SIZE = 1024;
+    private static final int PAGES = 8;
+
+    @Parameterized.Parameter(0)
+    public EvictionPolicy evictionPolicy;
+
+    @Parameterized.Parameter(1)
+    public WritePolicy writePolicy;
+
+    @Parameterized.Parameter(2)
+    public int stripes;
+
+    private ArrayStorage storage;
+
+    private CachingTableStorage cache;
+
+    @Parameterized.Parameters(name = "{0} {1} {2}")
+    public static Collection<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+
+        for (EvictionPolicy evictionPolicy : EvictionPolicy.values()) {
+            for (WritePolicy writePolicy : WritePolicy.values()) {
+                parameters.add(new Object[]{evictionPolicy, writePolicy, 1});
+                parameters.add(new Object[]{evictionPolicy, writePolicy, 3});
+            }
+        }
+
+        return parameters;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        storage = new ArrayStorage(SIZE);
+        cache = new CachingTableStorage(storage, PAGE_SIZE, PAGES, stripes, evictionPolicy, writePolicy);
+    }
+
+    @Test
+    public void randomReadWrite() throws Exception {
+        Random random = new Random(1);
+
+        byte[] expected = new byte[SIZE];
+
+        for (int i = 0; i < 10_000; i++) {
+            int length = random.nextInt(3 * PAGE_SIZE);
+            int position = random.nextInt(SIZE - length);
+
+            if (random.nextBoolean()) {
+                byte[] data = new byte[length];
+                random.nextBytes(data);
+
+                cache.write(position, data);
+
+                System.arraycopy(data, 0, expected, position, length);
+            } else {
+                byte[] data = new byte[length];
+
+                Assert.assertEquals(length, cache.read(position, data));
+                Assert.assertArrayEquals(Arrays.copyOfRange(expected, position, position + length), data);
+            }
+        }
+
+        cache.flush();
+
+        Assert.assertArrayEquals(expected, storage.data);
+    }
+
+    @Test
+    public void concurrentReadWrite() throws Exception {
+        int threads = 4;
+        int recordsPerThread = SIZE / Long.BYTES / threads;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int thread = 0; thread < threads; thread++) {
+                int first = thread * recordsPerThread;
+
+                futures.add(executorService.submit(() -> {
+                    byte[] record = new byte[Long.BYTES];
+
+                    for (int i = first; i < first + recordsPerThread; i++) {
+                        cache.write((long) i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).putLong(i).array());
+                        cache.read((long) i * Long.BYTES, record);
+
+                        Assert.assertEquals(i, ByteBuffer.wrap(record).getLong());
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        cache.flush();
+
+        for (int i = 0; i < threads * recordsPerThread; i++) {
+            Assert.assertEquals(i, ByteBuffer.wrap(storage.data, i * Long.BYTES, Long.BYTES).getLong());
+        }
+    }
+
+    @Test
+    public void readOfLastPage() {
+        byte[] data = new byte[200];
+
+        Assert.assertEquals(100, cache.read(SIZE - 100, data));
+    }
+
+    @Test
+    public void scan() {
+        for (int i = 0; i < SIZE / Long.BYTES; i++) {
+            cache.write((long) i * Long.BYTES, new byte[]{0, 0, 0, 0, 0, 0, 0, (byte) i});
+        }
+
+        long[] records = new long[1];
+
+        cache.scan(0, SIZE, (position, data) -> {
+            Assert.assertEquals((byte) (position / Long.BYTES), data[Long.BYTES - 1]);
+
+            records[0]++;
+
+            return true;
+        }, () -> new byte[Long.BYTES]);
+
+        Assert.assertEquals(SIZE / Long.BYTES, records[0]);
+    }
+
+    @Test
+    public void recordScan() {
+        for (int i = 0; i < SIZE / Long.BYTES; i++) {
+            cache.write((long) i * Long.BYTES, new byte[]{(byte) i, 0, 0, 0, 0, 0, 0, 0});
+        }
+
+        long[] records = new long[1];
+
+        cache.scan(3, SIZE, Long.BYTES, (position, record) -> {
+            Assert.assertEquals(3 + records[0] * Long.BYTES, position);
+            // byte at offset 5 of the record is the first byte of the next written long
+            long next = (position + Long.BYTES - 3) / Long.BYTES;
+
+            Assert.assertEquals(next < SIZE / Long.BYTES ? (byte) next : 0, record.getByte(Long.BYTES - 3));
+
+            records[0]++;
+
+            return true;
+        });
+
+        Assert.assertEquals((SIZE - 3) / Long.BYTES, records[0]);
+    }
+
+    @Test
+    public void writeBackDelaysWrites() throws Exception {
+        cache.write(10, new byte[]{1, 2, 3});
+
+        byte expected = writePolicy == WritePolicy.WRITE_THROUGH ? (byte) 1 : 0;
+
+        Assert.assertEquals(expected, storage.data[10]);
+
+        cache.flush();
+
+        Assert.assertEquals(1, storage.data[10]);
+    }
+
+    @Test
+    public void lruEvictsLeastRecentlyUsedFrame() {
+        LruPageReplacement replacement = new LruPageReplacement(3);
+
+        replacement.onAccess(0);
+        replacement.onAccess(1);
+        replacement.onAccess(2);
+        replacement.onAccess(0);
+
+        Assert.assertEquals(1, replacement.victim());
+
+        replacement.onAccess(1);
+
+        Assert.assertEquals(2, replacement.victim());
+    }
+
+    @Test
+    public void clockGivesSecondChance() {
+        ClockPageReplacement replacement = new ClockPageReplacement(3);
+
+        replacement.onAccess(0);
+        replacement.onAccess(1);
+        replacement.onAccess(2);
+
+        Assert.assertEquals(0, replacement.victim());
+
+        replacement.onAccess(0);
+        replacement.onAccess(1);
+
+        Assert.assertEquals(2, replacement.victim());
+    }
+
+    private static class ArrayStorage implements TableStorage {
+        private final byte[] data;
+
+        private ArrayStorage(int size) {
+            this.data = new byte[size];
+        }
+
+        @Override
+        public long allocatedSize() {
+            return data.length;
+        }
+
+        @Override
+        public void write(long position, byte[] data) {
+            System.arraycopy(data, 0, this.data, (int) position, data.length);
+        }
+
+        @Override
+        public int read(long position, byte[] data) {
+            int length = Math.min(data.length, this.data.length - (int) position);
+
+            System.arraycopy(this.data, (int) position, data, 0, length);
+
+            return length;
+        }
+
+        @Override
+        public void scan(long position, long end, ScanFunction scanFunction, Supplier<byte[]> bufferSupplier) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.fnklabs.dds.storage.im;
 
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.profile.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -78,6 +79,80 @@ public class ImStorageBenchmarkTest {
         );
     }
 
+    /**
+     * Every record is copied into scan buffer
+     */
+    @Benchmark
+    public void scanCopy(ScanContext context, ScanParameters parameters, Blackhole blackhole) {
+        context.imStorage.scan(
+                0,
+                Context.ALLOCATED_SIZE,
+                (position, data) -> {
+                    blackhole.consume(data[0]);
+
+                    return true;
+                },
+                () -> parameters.buffer
+        );
+    }
+
+    /**
+     * Every batch of records is copied into scan buffer
+     */
+    @Benchmark
+    public void scanBatch(ScanContext context, ScanParameters parameters, Blackhole blackhole) {
+        context.imStorage.scan(
+                0,
+                Context.ALLOCATED_SIZE,
+                parameters.buffer.length,
+                ScanParameters.BATCH_SIZE,
+                (position, records, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        blackhole.consume(records[i * parameters.buffer.length]);
+                    }
+
+                    return true;
+                }
+        );
+    }
+
+    /**
+     * Batches of records are read in place
+     */
+    @Benchmark
+    public void scanBatchInPlace(ScanContext context, ScanParameters parameters, Blackhole blackhole) {
+        context.imStorage.scan(
+                0,
+                Context.ALLOCATED_SIZE,
+                parameters.buffer.length,
+                ScanParameters.BATCH_SIZE,
+                (position, records) -> {
+                    for (long offset = 0; offset < records.bufferSize(); offset += parameters.buffer.length) {
+                        blackhole.consume(records.getByte(offset));
+                    }
+
+                    return true;
+                }
+        );
+    }
+
+    /**
+     * Records are read in place
+     */
+    @Benchmark
+    public void scanZeroCopy(ScanContext context, ScanParameters parameters, Blackhole blackhole) {
+        context.imStorage.scan(
+                0,
+                Context.ALLOCATED_SIZE,
+                parameters.buffer.length,
+                (position, record) -> {
+                    blackhole.consume(record.getByte(0));
+
+                    return true;
+                }
+        );
+    }
+
     @State(Scope.Benchmark)
     public static class Context {
         public static final int ALLOCATED_SIZE = 512 * 1024 * 1024;
@@ -128,6 +203,7 @@ public class ImStorageBenchmarkTest {
 
     @State(Scope.Thread)
     public static class ScanParameters {
+        static final int BATCH_SIZE = 1024;
 
         byte[] buffer;
 
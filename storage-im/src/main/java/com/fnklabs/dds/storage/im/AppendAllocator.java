@@ -0,0 +1,204 @@
+package com.fnklabs.dds.storage.im;
+
+import com.google.common.base.Verify;
+import com.google.common.math.IntMath;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongConsumer;
+
+/**
+ * Lock-free bump allocator of storage regions
+ * <p>
+ * Allocator tracks high water mark of the storage: end of the last allocated region or of the last written region if it is
+ * greater. Regions are allocated above the mark by CAS loop, so concurrent appends never overlap each other and previously
+ * written data.
+ * <p>
+ * If allocation buffer size is positive, threads reserve regions of that size in allocation buffers and allocate sub ranges from
+ * them without touching shared mark. Buffers are striped by thread, so count of partially used buffers is bounded by count of
+ * stripes rather than by count of threads that ever appended. Rows of different stripes are interleaved by regions and unused
+ * tail of region is left as a zero filled hole when region is exhausted. Write that overlaps unused part of a buffer trims it, so
+ * region that is allocated after write never overlaps written data.
+ * <p>
+ * Every move of the mark is reported to the mark listener before allocated region is returned, so storage that persists the mark
+ * never hands out region that is not covered by persisted mark.
+ */
+class AppendAllocator {
+    private final long maxSize;
+
+    private final int allocationBufferSize;
+
+    private final AtomicLong highWaterMark = new AtomicLong();
+
+    private final LongConsumer markListener;
+
+    /**
+     * Allocation buffers by stripe, null if allocation buffers are disabled
+     */
+    private final AtomicReferenceArray<AllocationBuffer> allocationBuffers;
+
+    /**
+     * @param maxSize              storage size
+     * @param allocationBufferSize size of allocation buffer, 0 disables allocation buffers
+     */
+    AppendAllocator(long maxSize, int allocationBufferSize) {
+        this(maxSize, allocationBufferSize, mark -> {});
+    }
+
+    /**
+     * @param maxSize              storage size
+     * @param allocationBufferSize size of allocation buffer, 0 disables allocation buffers
+     * @param markListener         consumer of new high water mark, is called concurrently and marks can be reported out of order
+     */
+    AppendAllocator(long maxSize, int allocationBufferSize, LongConsumer markListener) {
+        Verify.verify(allocationBufferSize >= 0, "allocation buffer size must be non negative: %s", allocationBufferSize);
+
+        this.maxSize = maxSize;
+        this.allocationBufferSize = allocationBufferSize;
+        this.markListener = markListener;
+        this.allocationBuffers = allocationBufferSize == 0
+                                 ? null
+                                 : new AtomicReferenceArray<>(IntMath.ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @return high water mark
+     */
+    long position() {
+        return highWaterMark.get();
+    }
+
+    /**
+     * Allocate region of provided length
+     *
+     * @param length region length
+     *
+     * @return region position
+     *
+     * @throws IllegalStateException if storage has no space for region
+     */
+    long allocate(int length) {
+        Verify.verify(length > 0, "length must be positive: %s", length);
+
+        if (allocationBuffers == null || length > allocationBufferSize) {
+            return bump(length);
+        }
+
+        int stripe = (int) (Thread.currentThread().getId() & (allocationBuffers.length() - 1));
+
+        AllocationBuffer buffer = allocationBuffers.get(stripe);
+
+        if (buffer != null) {
+            long position = buffer.allocate(length);
+
+            if (position >= 0) {
+                return position;
+            }
+        }
+
+        // the last buffer can be shorter if storage is almost full
+        int bufferSize = (int) Math.min(allocationBufferSize, Math.max(length, maxSize - highWaterMark.get()));
+
+        long position = bump(bufferSize);
+
+        // if other thread of the stripe has replaced buffer concurrently, the rest of the new one is left as a hole
+        allocationBuffers.compareAndSet(stripe, buffer, new AllocationBuffer(position + length, position + bufferSize));
+
+        return position;
+    }
+
+    /**
+     * Move high water mark to the end of written region if it is greater and trim allocation buffers that overlap region. Must be
+     * called before region is written
+     *
+     * @param position written region position
+     * @param end      written region end
+     */
+    void onWrite(long position, long end) {
+        if (allocationBuffers != null) {
+            for (int stripe = 0; stripe < allocationBuffers.length(); stripe++) {
+                AllocationBuffer buffer = allocationBuffers.get(stripe);
+
+                if (buffer != null) {
+                    buffer.trim(position, end);
+                }
+            }
+        }
+
+        long mark = highWaterMark.get();
+
+        while (mark < end) {
+            if (highWaterMark.compareAndSet(mark, end)) {
+                markListener.accept(end);
+
+                return;
+            }
+
+            mark = highWaterMark.get();
+        }
+    }
+
+    private long bump(int length) {
+        for (; ; ) {
+            long position = highWaterMark.get();
+
+            if (position > maxSize - length) {
+                throw new IllegalStateException(String.format("storage is full, can't allocate %d bytes at %d", length, position));
+            }
+
+            if (highWaterMark.compareAndSet(position, position + length)) {
+                markListener.accept(position + length);
+
+                return position;
+            }
+        }
+    }
+
+    /**
+     * Unused part [position, limit) of region that was reserved for stripe
+     */
+    private static final class AllocationBuffer {
+        private final AtomicLong position;
+
+        private final long limit;
+
+        private AllocationBuffer(long position, long limit) {
+            this.position = new AtomicLong(position);
+            this.limit = limit;
+        }
+
+        /**
+         * @return position of allocated region or -1 if buffer has no space for region
+         */
+        private long allocate(int length) {
+            for (; ; ) {
+                long current = position.get();
+
+                if (limit - current < length) {
+                    return -1;
+                }
+
+                if (position.compareAndSet(current, current + length)) {
+                    return current;
+                }
+            }
+        }
+
+        /**
+         * Move position above written region if region overlaps unused part of buffer
+         */
+        private void trim(long from, long to) {
+            for (; ; ) {
+                long current = position.get();
+
+                if (to <= current || from >= limit) {
+                    return;
+                }
+
+                if (position.compareAndSet(current, Math.min(limit, to))) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.fnklabs.dds.storage.im;
+
+/**
+ * Codec of {@link CompressedTableStorage} blocks
+ * <p>
+ * Codec instance is not thread safe
+ */
+interface BlockCodec {
+    /**
+     * @param block  block data
+     * @param length block length
+     *
+     * @return encoded block
+     */
+    byte[] encode(byte[] block, int length);
+
+    /**
+     * @param encoded       encoded block
+     * @param offset        offset of encoded block in the array
+     * @param encodedLength encoded block length
+     * @param block         buffer to which block will be decoded
+     * @param length        block length
+     */
+    void decode(byte[] encoded, int offset, int encodedLength, byte[] block, int length);
+}
@@ -0,0 +1,27 @@
+package com.fnklabs.dds.storage.im;
+
+/**
+ * Compression algorithms of {@link CompressedTableStorage} blocks
+ */
+public enum BlockCompression {
+    /**
+     * Block is encoded as big endian longs, every long is stored as zigzag varint delta from previous one. Effective for
+     * low entropy LONG columns (ids, timestamps, counters), decoding is one pass without table lookups
+     */
+    DELTA,
+
+    /**
+     * Generic LZ77 + Huffman compression of {@link java.util.zip.Deflater} with the fastest level
+     */
+    DEFLATE;
+
+    BlockCodec create() {
+        switch (this) {
+            case DEFLATE:
+                return new DeflateBlockCodec();
+            case DELTA:
+            default:
+                return new DeltaBlockCodec();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fnklabs.dds.storage.im;
+
+import com.fnklabs.dds.storage.StorageFactory;
+import com.fnklabs.dds.storage.TableStorage;
+
+public class CompressedStorageFactory implements StorageFactory<CompressedStorageOptions> {
+    @Override
+    public TableStorage get(CompressedStorageOptions storageOptions) {
+        return new CompressedTableStorage(
+                storageOptions.maxSize(),
+                storageOptions.blockSize(),
+                storageOptions.cachedBlocks(),
+                storageOptions.compression()
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package com.fnklabs.dds.storage.im;
+
+import com.fnklabs.dds.storage.StorageOptions;
+
+public class CompressedStorageOptions implements StorageOptions {
+    private final long maxSize;
+
+    /**
+     * Size of independently compressed block
+     */
+    private final int blockSize;
+
+    /**
+     * Count of decompressed hot blocks
+     */
+    private final int cachedBlocks;
+
+    private final BlockCompression compression;
+
+    public CompressedStorageOptions(long maxSize, int blockSize, int cachedBlocks) {
+        this(maxSize, blockSize, cachedBlocks, BlockCompression.DELTA);
+    }
+
+    public CompressedStorageOptions(long maxSize, int blockSize, int cachedBlocks, BlockCompression compression) {
+        this.maxSize = maxSize;
+        this.blockSize = blockSize;
+        this.cachedBlocks = cachedBlocks;
+        this.compression = compression;
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public int cachedBlocks() {
+        return cachedBlocks;
+    }
+
+    public BlockCompression compression() {
+        return compression;
+    }
+}
@@ -0,0 +1,358 @@
+package com.fnklabs.dds.storage.im;
+
+import com.fnklabs.buffer.BufferPool;
+import com.fnklabs.buffer.MemoryManager;
+import com.fnklabs.buffer.PooledBuffer;
+import com.fnklabs.dds.storage.ScanFunction;
+import com.fnklabs.dds.storage.TableStorage;
+import com.fnklabs.metrics.Counter;
+import com.fnklabs.metrics.MetricsFactory;
+import com.fnklabs.metrics.Timer;
+import com.google.common.base.Verify;
+import com.google.common.math.IntMath;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In memory storage that keeps data as independently compressed fixed size blocks
+ * <p>
+ * Block index maps block number to compressed block, blocks that were never written are not stored. Compressed blocks are kept
+ * off-heap in regions of {@link BufferPool} arenas, block that doesn't shrink by compression is stored raw. Blocks are decompressed into
+ * LRU cache of hot blocks, reads and writes are served from the cache and modified blocks are compressed again when they are
+ * evicted from the cache or on {@link #flush()}. Storage state is guarded by single lock.
+ * <p>
+ * Stored block is held in region of power of two size class, so it can take up to twice its compressed length. Stored size is
+ * capacity of these regions, it is what storage actually holds, and compression ratio is computed from it.
+ * <p>
+ * Reported metrics: storage.compressed.raw counter of raw size of stored blocks, storage.compressed.stored counter of capacity
+ * of regions of stored blocks, storage.compressed.encode and storage.compressed.decode timers
+ */
+public class CompressedTableStorage implements TableStorage, Flushable, Closeable {
+    private static final long MIN_ARENA_SIZE = 4 * 1024 * 1024;
+
+    private final long maxSize;
+
+    private final int blockSize;
+
+    /**
+     * Stored blocks, null if block was never written. Block is raw if its stored length equals block length
+     */
+    private final PooledBuffer[] blocks;
+
+    /**
+     * Arenas of stored blocks
+     */
+    private final BufferPool arena;
+
+    /**
+     * Heap copy of stored block that is decoded
+     */
+    private final byte[] storedBuffer;
+
+    private final BlockCodec codec;
+
+    /**
+     * Decompressed blocks in access order
+     */
+    private final LinkedHashMap<Integer, CachedBlock> cache;
+
+    private final int cachedBlocks;
+
+    private final AppendAllocator appendAllocator;
+
+    /**
+     * Raw size of stored blocks
+     */
+    private long rawSize;
+
+    /**
+     * Capacity of regions of stored blocks
+     */
+    private long storedSize;
+
+    private final Counter rawSizeCounter;
+    private final Counter storedSizeCounter;
+
+    /**
+     * @param maxSize      storage size
+     * @param blockSize    size of compressed block
+     * @param cachedBlocks count of decompressed blocks that are kept in cache
+     * @param compression  block compression
+     */
+    public CompressedTableStorage(long maxSize, int blockSize, int cachedBlocks, BlockCompression compression) {
+        Verify.verify(blockSize > 0, "block size must be positive: %s", blockSize);
+        Verify.verify(cachedBlocks > 0, "cached blocks count must be positive: %s", cachedBlocks);
+        Verify.verify((maxSize + blockSize - 1) / blockSize <= Integer.MAX_VALUE, "too many blocks, increase block size");
+
+        this.maxSize = maxSize;
+        this.blockSize = blockSize;
+        this.blocks = new PooledBuffer[(int) ((maxSize + blockSize - 1) / blockSize)];
+        this.arena = BufferPool.builder()
+                               .setOwner(MemoryManager.TABLE)
+                               .setMaxSize(IntMath.ceilingPowerOfTwo(blockSize))
+                               .setArenaSize(Math.max(MIN_ARENA_SIZE, IntMath.ceilingPowerOfTwo(blockSize)))
+                               .build();
+        this.storedBuffer = new byte[blockSize];
+        this.codec = compression.create();
+        this.cachedBlocks = cachedBlocks;
+        this.appendAllocator = new AppendAllocator(maxSize, 0);
+
+        this.cache = new LinkedHashMap<>(cachedBlocks * 2, 0.75f, true);
+
+        this.rawSizeCounter = MetricsFactory.getMetrics().getCounter("storage.compressed.raw");
+        this.storedSizeCounter = MetricsFactory.getMetrics().getCounter("storage.compressed.stored");
+    }
+
+    @Override
+    public long allocatedSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return ratio of raw size of stored blocks to capacity of their regions, blocks that are cached but were not flushed yet are
+     * not counted
+     */
+    public synchronized double compressionRatio() {
+        return storedSize == 0 ? 1 : (double) rawSize / storedSize;
+    }
+
+    @Override
+    public synchronized void write(long position, byte[] data) {
+        checkBounds(position, data.length);
+
+        int offset = 0;
+
+        while (offset < data.length) {
+            long blockPosition = position + offset;
+            int blockOffset = (int) (blockPosition % blockSize);
+            int length = Math.min(data.length - offset, blockSize - blockOffset);
+
+            CachedBlock block = block((int) (blockPosition / blockSize));
+
+            System.arraycopy(data, offset, block.data, blockOffset, length);
+
+            block.dirty = true;
+
+            offset += length;
+        }
+
+        appendAllocator.onWrite(position, position + data.length);
+    }
+
+    @Override
+    public long append(int length) {
+        return appendAllocator.allocate(length);
+    }
+
+    @Override
+    public synchronized int read(long position, byte[] data) {
+        int length = (int) Math.min(data.length, maxSize - position);
+
+        checkBounds(position, length);
+
+        int offset = 0;
+
+        while (offset < length) {
+            long blockPosition = position + offset;
+            int blockOffset = (int) (blockPosition % blockSize);
+            int blockLength = Math.min(length - offset, blockSize - blockOffset);
+
+            CachedBlock block = block((int) (blockPosition / blockSize));
+
+            System.arraycopy(block.data, blockOffset, data, offset, blockLength);
+
+            offset += blockLength;
+        }
+
+        return length;
+    }
+
+    @Override
+    public void scan(long position, long end, ScanFunction scanFunction, Supplier<byte[]> bufferSupplier) {
+        Verify.verify(position < end, "end position must be > start position");
+
+        byte[] data = bufferSupplier.get();
+
+        long limit = Math.min(end, maxSize);
+
+        for (long recordPosition = position; limit - recordPosition >= data.length; recordPosition += data.length) {
+            read(recordPosition, data);
+
+            if (!scanFunction.accept(recordPosition, data)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compress modified cached blocks
+     */
+    @Override
+    public synchronized void flush() {
+        for (Map.Entry<Integer, CachedBlock> entry : cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                store(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Release stored blocks and their arenas, blocks that were not flushed are dropped
+     *
+     * @throws IOException if arena can't be released
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (int index = 0; index < blocks.length; index++) {
+            if (blocks[index] != null) {
+                rawSizeCounter.inc(-blockLength(index));
+                storedSizeCounter.inc(-blocks[index].capacity());
+
+                blocks[index].release();
+                blocks[index] = null;
+            }
+        }
+
+        rawSize = 0;
+        storedSize = 0;
+
+        cache.clear();
+
+        arena.close();
+    }
+
+    /**
+     * Get cached block or decompress it into the cache, least recently used block is evicted if cache is full
+     */
+    private CachedBlock block(int index) {
+        CachedBlock block = cache.get(index);
+
+        if (block != null) {
+            return block;
+        }
+
+        if (cache.size() >= cachedBlocks) {
+            Iterator<Map.Entry<Integer, CachedBlock>> iterator = cache.entrySet().iterator();
+
+            Map.Entry<Integer, CachedBlock> eldest = iterator.next();
+
+            iterator.remove();
+
+            if (eldest.getValue().dirty) {
+                store(eldest.getKey(), eldest.getValue());
+            }
+
+            // reuse evicted block buffer
+            block = eldest.getValue();
+        } else {
+            block = new CachedBlock(new byte[blockSize]);
+        }
+
+        load(index, block);
+
+        cache.put(index, block);
+
+        return block;
+    }
+
+    private void load(int index, CachedBlock block) {
+        PooledBuffer stored = blocks[index];
+
+        block.dirty = false;
+
+        if (stored == null) {
+            Arrays.fill(block.data, (byte) 0);
+
+            return;
+        }
+
+        int length = blockLength(index);
+        int storedLength = (int) stored.bufferSize();
+
+        if (storedLength == length) {
+            stored.read(0, block.data, 0, length);
+
+            return;
+        }
+
+        stored.read(0, storedBuffer, 0, storedLength);
+
+        Timer timer = MetricsFactory.getMetrics().getTimer("storage.compressed.decode");
+
+        codec.decode(storedBuffer, 0, storedLength, block.data, length);
+
+        timer.stop();
+    }
+
+    private void store(int index, CachedBlock block) {
+        int length = blockLength(index);
+
+        Timer timer = MetricsFactory.getMetrics().getTimer("storage.compressed.encode");
+
+        byte[] encoded = codec.encode(block.data, length);
+
+        timer.stop();
+
+        PooledBuffer stored;
+
+        if (encoded.length < length) {
+            stored = arena.allocate(encoded.length);
+            stored.write(0, encoded, 0, encoded.length);
+        } else {
+            stored = arena.allocate(length);
+            stored.write(0, block.data, 0, length);
+        }
+
+        PooledBuffer previous = blocks[index];
+
+        if (previous != null) {
+            rawSize -= length;
+            storedSize -= previous.capacity();
+
+            rawSizeCounter.inc(-length);
+            storedSizeCounter.inc(-previous.capacity());
+
+            previous.release();
+        }
+
+        blocks[index] = stored;
+
+        rawSize += length;
+        storedSize += stored.capacity();
+
+        rawSizeCounter.inc(length);
+        storedSizeCounter.inc(stored.capacity());
+
+        block.dirty = false;
+    }
+
+    /**
+     * @return block length, last block can be shorter than block size
+     */
+    private int blockLength(int index) {
+        return (int) Math.min(blockSize, maxSize - (long) index * blockSize);
+    }
+
+    private void checkBounds(long position, int length) {
+        if (position < 0 || length < 0 || position > maxSize - length) {
+            throw new IndexOutOfBoundsException(String.format("position: %d length: %d size: %d", position, length, maxSize));
+        }
+    }
+
+    private static final class CachedBlock {
+        private final byte[] data;
+
+        private boolean dirty;
+
+        private CachedBlock(byte[] data) {
+            this.data = data;
+        }
+    }
+}
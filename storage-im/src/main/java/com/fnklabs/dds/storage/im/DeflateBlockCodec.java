@@ -0,0 +1,61 @@
+package com.fnklabs.dds.storage.im;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+class DeflateBlockCodec implements BlockCodec {
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+
+    private byte[] encodeBuffer = new byte[0];
+
+    @Override
+    public byte[] encode(byte[] block, int length) {
+        // deflate stored blocks overhead is 5 bytes per 16 KB
+        int maxLength = length + (length / 16_384 + 1) * 5 + 16;
+
+        if (encodeBuffer.length < maxLength) {
+            encodeBuffer = new byte[maxLength];
+        }
+
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+
+        int encodedLength = 0;
+
+        while (!deflater.finished()) {
+            if (encodedLength == encodeBuffer.length) {
+                encodeBuffer = Arrays.copyOf(encodeBuffer, encodeBuffer.length * 2);
+            }
+
+            encodedLength += deflater.deflate(encodeBuffer, encodedLength, encodeBuffer.length - encodedLength);
+        }
+
+        return Arrays.copyOf(encodeBuffer, encodedLength);
+    }
+
+    @Override
+    public void decode(byte[] encoded, int offset, int encodedLength, byte[] block, int length) {
+        inflater.reset();
+        inflater.setInput(encoded, offset, encodedLength);
+
+        try {
+            int decodedLength = 0;
+
+            while (decodedLength < length) {
+                int decoded = inflater.inflate(block, decodedLength, length - decodedLength);
+
+                if (decoded == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException(String.format("block is truncated: %d of %d bytes", decodedLength, length));
+                }
+
+                decodedLength += decoded;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("block is corrupted", e);
+        }
+    }
+}
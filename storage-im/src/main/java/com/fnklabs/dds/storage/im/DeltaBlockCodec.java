@@ -0,0 +1,90 @@
+package com.fnklabs.dds.storage.im;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Encodes block as zigzag varint deltas of big endian longs, bytes after the last complete long are stored as is
+ */
+class DeltaBlockCodec implements BlockCodec {
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Max length of varint encoded long
+     */
+    private static final int MAX_VARINT_LENGTH = 10;
+
+    private byte[] encodeBuffer = new byte[0];
+
+    @Override
+    public byte[] encode(byte[] block, int length) {
+        int longs = length / Long.BYTES;
+
+        int maxLength = longs * MAX_VARINT_LENGTH + length % Long.BYTES;
+
+        if (encodeBuffer.length < maxLength) {
+            encodeBuffer = new byte[maxLength];
+        }
+
+        int position = 0;
+        long previous = 0;
+
+        for (int i = 0; i < longs; i++) {
+            long value = (long) LONG_VIEW.get(block, i * Long.BYTES);
+            long delta = value - previous;
+
+            position = putVarLong(encodeBuffer, position, (delta << 1) ^ (delta >> 63));
+
+            previous = value;
+        }
+
+        int tail = length % Long.BYTES;
+
+        System.arraycopy(block, longs * Long.BYTES, encodeBuffer, position, tail);
+
+        return Arrays.copyOf(encodeBuffer, position + tail);
+    }
+
+    @Override
+    public void decode(byte[] encoded, int offset, int encodedLength, byte[] block, int length) {
+        int longs = length / Long.BYTES;
+
+        int position = offset;
+        long previous = 0;
+
+        for (int i = 0; i < longs; i++) {
+            long zigzag = 0;
+            int shift = 0;
+
+            byte b;
+
+            do {
+                b = encoded[position++];
+
+                zigzag |= (long) (b & 0x7F) << shift;
+
+                shift += 7;
+            } while (b < 0);
+
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+
+            LONG_VIEW.set(block, i * Long.BYTES, previous);
+        }
+
+        System.arraycopy(encoded, position, block, longs * Long.BYTES, length % Long.BYTES);
+    }
+
+    private static int putVarLong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+
+            value >>>= 7;
+        }
+
+        buffer[position++] = (byte) value;
+
+        return position;
+    }
+}
@@ -0,0 +1,67 @@
+package com.fnklabs.dds.storage.im;
+
+import com.google.common.base.Verify;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bitmap of table pages that were modified since the last checkpoint
+ */
+class DirtyPages {
+    private final int pageSize;
+
+    private final AtomicLongArray bitmap;
+
+    DirtyPages(long bufferSize, int pageSize) {
+        long pages = (bufferSize + pageSize - 1) / pageSize;
+
+        Verify.verify(pages <= Integer.MAX_VALUE, "page size is too small for buffer of %s bytes: %s", bufferSize, pageSize);
+
+        this.pageSize = pageSize;
+        this.bitmap = new AtomicLongArray((int) ((pages + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    int pageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Mark pages of modified region
+     *
+     * @param position region position
+     * @param length   region length
+     */
+    void mark(long position, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        for (long page = position / pageSize, lastPage = (position + length - 1) / pageSize; page <= lastPage; page++) {
+            int word = (int) (page / Long.SIZE);
+            long mask = 1L << page;
+
+            // most writes hit already dirty pages, so check before atomic update
+            if ((bitmap.get(word) & mask) == 0) {
+                bitmap.getAndAccumulate(word, mask, (current, bit) -> current | bit);
+            }
+        }
+    }
+
+    /**
+     * Get dirty pages and clear them. Pages that are modified concurrently can be marked again and returned by the next drain
+     *
+     * @return indexes of dirty pages
+     */
+    BitSet drain() {
+        long[] words = new long[bitmap.length()];
+
+        for (int i = 0; i < words.length; i++) {
+            if (bitmap.get(i) != 0) {
+                words[i] = bitmap.getAndSet(i, 0);
+            }
+        }
+
+        return BitSet.valueOf(words);
+    }
+}
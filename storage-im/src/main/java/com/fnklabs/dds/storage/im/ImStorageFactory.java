@@ -1,13 +1,78 @@
 package com.fnklabs.dds.storage.im;
 
+import com.fnklabs.buffer.Buffer;
+import com.fnklabs.buffer.LazySegmentedBuffer;
+import com.fnklabs.buffer.MemoryManager;
+import com.fnklabs.concurrent.Executors;
+import com.fnklabs.concurrent.RejectionPolicy;
 import com.fnklabs.dds.storage.StorageFactory;
 import com.fnklabs.dds.storage.TableStorage;
+import com.google.common.base.Verify;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
 
 public class ImStorageFactory implements StorageFactory<ImStorageOptions> {
+    private static final int IO_QUEUE_SIZE = 1024;
+    private static final String IO_THREADS_NAME = "table-io";
 
     @Override
     public TableStorage get(ImStorageOptions storageOptions) {
+        ImTableStorage storage;
+
+        if (storageOptions.file() == null) {
+            storage = new ImTableStorage(
+                    createBuffer(storageOptions),
+                    storageOptions.bufferSize(),
+                    MoreExecutors.directExecutor(),
+                    storageOptions.appendBufferSize()
+            );
+        } else {
+            TableFile tableFile = openFile(storageOptions);
+
+            Executor ioExecutor = Executors.fixedPoolExecutor(storageOptions.ioThreads(), IO_QUEUE_SIZE, IO_THREADS_NAME, RejectionPolicy.CALLER_RUNS);
+
+            storage = new ImTableStorage(tableFile, storageOptions.bufferSize(), ioExecutor, storageOptions.appendBufferSize());
+        }
+
+        if (storageOptions.checkpointDirectory() != null) {
+            Verify.verify(storageOptions.file() == null, "only in memory table can be checkpointed");
+
+            try {
+                TableCheckpointer checkpointer = new TableCheckpointer(
+                        storage,
+                        storageOptions.checkpointDirectory(),
+                        storageOptions.checkpointBandwidth(),
+                        storageOptions.checkpointDeltas()
+                );
+
+                checkpointer.restore();
+                checkpointer.start(storageOptions.checkpointInterval());
+
+                storage.setCheckpointer(checkpointer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return storage;
+    }
+
+    private static Buffer createBuffer(ImStorageOptions storageOptions) {
+        return new LazySegmentedBuffer(storageOptions.maxSize(), storageOptions.segmentSize(), owner(storageOptions));
+    }
+
+    private static TableFile openFile(ImStorageOptions storageOptions) {
+        try {
+            return TableFile.open(storageOptions.file(), storageOptions.maxSize(), owner(storageOptions));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        return new ImTableStorage(storageOptions.maxSize(), storageOptions.bufferSize());
+    private static String owner(ImStorageOptions storageOptions) {
+        return storageOptions.name() == null ? MemoryManager.TABLE : MemoryManager.table(storageOptions.name());
     }
 }
@@ -2,14 +2,91 @@ package com.fnklabs.dds.storage.im;
 
 import com.fnklabs.dds.storage.StorageOptions;
 
+import java.nio.file.Path;
+
 public class ImStorageOptions implements StorageOptions {
+    /**
+     * Default segment size of in memory table: 64 MB
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Default delay between checkpoints: 1 minute
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 60_000;
+
+    /**
+     * Default I/O budget of checkpoints: 64 MB/s
+     */
+    public static final long DEFAULT_CHECKPOINT_BANDWIDTH = 64 * 1024 * 1024;
+
+    /**
+     * Default count of checkpoint deltas that are kept before merge into base file
+     */
+    public static final int DEFAULT_CHECKPOINT_DELTAS = 16;
+
     private final long maxSize;
     private final int bufferSize;
-    private int chunkSize;
+
+    /**
+     * Table name under which table memory is accounted by {@link com.fnklabs.buffer.MemoryManager}. If null than memory is
+     * accounted under common table tag
+     */
+    private String name;
+
+    /**
+     * File to which table data is mapped, file is larger than max size by header. If null than data is kept only in memory
+     */
+    private final Path file;
+
+    /**
+     * Count of threads that execute batched operations of file backed table
+     */
+    private final int ioThreads;
+
+    /**
+     * Size of segments that are allocated on first write to in memory table, must be power of two
+     */
+    private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+    /**
+     * Size of thread local buffers from which appended rows are allocated, 0 to allocate rows densely from shared position
+     */
+    private int appendBufferSize;
+
+    /**
+     * Directory to which in memory table is checkpointed and from which it's restored on start. If null than checkpoints are disabled
+     */
+    private Path checkpointDirectory;
+
+    /**
+     * Delay between background checkpoints in milliseconds
+     */
+    private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+    /**
+     * Max bytes per second that are written by checkpoints
+     */
+    private long checkpointBandwidth = DEFAULT_CHECKPOINT_BANDWIDTH;
+
+    /**
+     * Count of incremental checkpoints after which they are merged into base file
+     */
+    private int checkpointDeltas = DEFAULT_CHECKPOINT_DELTAS;
 
     public ImStorageOptions(long maxSize, int bufferSize) {
+        this(maxSize, bufferSize, null);
+    }
+
+    public ImStorageOptions(long maxSize, int bufferSize, Path file) {
+        this(maxSize, bufferSize, file, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ImStorageOptions(long maxSize, int bufferSize, Path file, int ioThreads) {
         this.maxSize = maxSize;
         this.bufferSize = bufferSize;
+        this.file = file;
+        this.ioThreads = ioThreads;
     }
 
     public long maxSize() {
@@ -20,7 +97,81 @@ public class ImStorageOptions implements StorageOptions {
         return bufferSize;
     }
 
-    public int chunkSize() {
-        return chunkSize;
+    public String name() {
+        return name;
+    }
+
+    public ImStorageOptions setName(String name) {
+        this.name = name;
+
+        return this;
+    }
+
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    public ImStorageOptions setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+
+        return this;
+    }
+
+    public int appendBufferSize() {
+        return appendBufferSize;
+    }
+
+    public ImStorageOptions setAppendBufferSize(int appendBufferSize) {
+        this.appendBufferSize = appendBufferSize;
+
+        return this;
+    }
+
+    public Path checkpointDirectory() {
+        return checkpointDirectory;
+    }
+
+    public ImStorageOptions setCheckpointDirectory(Path checkpointDirectory) {
+        this.checkpointDirectory = checkpointDirectory;
+
+        return this;
+    }
+
+    public long checkpointInterval() {
+        return checkpointInterval;
+    }
+
+    public ImStorageOptions setCheckpointInterval(long checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+
+        return this;
+    }
+
+    public long checkpointBandwidth() {
+        return checkpointBandwidth;
+    }
+
+    public ImStorageOptions setCheckpointBandwidth(long checkpointBandwidth) {
+        this.checkpointBandwidth = checkpointBandwidth;
+
+        return this;
+    }
+
+    public int checkpointDeltas() {
+        return checkpointDeltas;
+    }
+
+    public ImStorageOptions setCheckpointDeltas(int checkpointDeltas) {
+        this.checkpointDeltas = checkpointDeltas;
+
+        return this;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int ioThreads() {
+        return ioThreads;
     }
 }
@@ -0,0 +1,96 @@
+package com.fnklabs.dds.storage.im;
+
+import com.fnklabs.buffer.Buffer;
+import com.fnklabs.dds.storage.BatchScanFunction;
+import com.fnklabs.dds.storage.BatchScanner;
+import com.google.common.base.Verify;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Point in time view of {@link ImTableStorage}
+ * <p>
+ * Snapshot contains writes that were completed before it was taken and doesn't observe later writes, so it can be read concurrently
+ * with inserts. Pages that are overwritten after snapshot are retained until snapshot is closed, so snapshot must be closed when
+ * it's not needed anymore.
+ */
+public class ImTableSnapshot implements Closeable {
+    private final Buffer buffer;
+
+    private final SnapshotEpochs epochs;
+
+    private final PageVersions pageVersions;
+
+    private final long epoch;
+
+    private final long end;
+
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+
+    ImTableSnapshot(Buffer buffer, SnapshotEpochs epochs, PageVersions pageVersions, long epoch, long end) {
+        this.buffer = buffer;
+        this.epochs = epochs;
+        this.pageVersions = pageVersions;
+        this.epoch = epoch;
+        this.end = end;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return end of the last region that was written before snapshot
+     */
+    public long end() {
+        return end;
+    }
+
+    /**
+     * Read data as it was at snapshot time
+     *
+     * @param position position
+     * @param data     destination
+     *
+     * @return count of read bytes, it's less than data length if region crosses snapshot end
+     */
+    public int read(long position, byte[] data) {
+        checkOpen();
+
+        int length = (int) Math.max(0, Math.min(data.length, end - position));
+
+        pageVersions.read(buffer, epoch, position, data, 0, length);
+
+        return length;
+    }
+
+    /**
+     * Scan records of [position, end) range that were written before snapshot by batches
+     *
+     * @see com.fnklabs.dds.storage.TableStorage#scan(long, long, int, int, BatchScanFunction)
+     */
+    public void scan(long position, long end, int recordSize, int batchSize, BatchScanFunction scanFunction) {
+        checkOpen();
+
+        BatchScanner.BlockReader blockReader = (blockPosition, data, length) -> pageVersions.read(buffer, epoch, blockPosition, data, 0, length);
+
+        BatchScanner.scan(position, end, this.end, recordSize, batchSize, blockReader, scanFunction);
+    }
+
+    /**
+     * Unpin snapshot epoch and release page versions that are not visible to other snapshots
+     */
+    @Override
+    public void close() {
+        if (isClosed.compareAndSet(false, true)) {
+            epochs.unpin(epoch);
+
+            pageVersions.reclaim(epochs.oldestPinned());
+        }
+    }
+
+    private void checkOpen() {
+        Verify.verify(!isClosed.get(), "snapshot was closed");
+    }
+}
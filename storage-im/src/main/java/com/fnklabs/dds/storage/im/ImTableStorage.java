@@ -1,34 +1,203 @@
 package com.fnklabs.dds.storage.im;
 
 import com.fnklabs.buffer.Buffer;
+import com.fnklabs.buffer.BufferCursor;
 import com.fnklabs.buffer.BufferType;
+import com.fnklabs.buffer.LazySegmentedBuffer;
+import com.fnklabs.buffer.MemoryManager;
+import com.fnklabs.dds.storage.BatchScanner;
+import com.fnklabs.dds.storage.BufferBatchScanFunction;
+import com.fnklabs.dds.storage.RecordScanFunction;
 import com.fnklabs.dds.storage.ScanFunction;
+import com.fnklabs.dds.storage.StorageRecord;
 import com.fnklabs.dds.storage.TableStorage;
 import com.google.common.base.Verify;
-
-import java.util.concurrent.atomic.AtomicLong;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
-public class ImTableStorage implements TableStorage {
+public class ImTableStorage implements TableStorage, Flushable, Closeable {
+    /**
+     * How many records ahead of current one are touched by multi read
+     */
+    private static final int MULTI_READ_PREFETCH_DISTANCE = 8;
+
+    /**
+     * Different values that touched bytes are compared with, so touches can't be eliminated as dead loads and readers never write
+     * shared state
+     */
+    private static volatile byte prefetchGuard1 = 0;
+    private static volatile byte prefetchGuard2 = 1;
+
+    /**
+     * Granularity of copy on write page versions that are retained for snapshots and of dirty pages tracking
+     */
+    private static final int PAGE_SIZE = 64 * 1024;
+
+    /**
+     * Scan buffer size from {@link ImStorageOptions#bufferSize()}, scans prefetch pages that are located this count of bytes ahead of
+     * the current record
+     */
     private final int bufferSize;
+
     private final long maxSize;
 
     private final Buffer buffer;
 
-    private final AtomicLong lastPosition = new AtomicLong();
+    /**
+     * Mapped file of file backed table that keeps table extent, null for in memory table
+     */
+    private final TableFile tableFile;
+
+    /**
+     * Executor of batched operations. Memory buffers are accessed in place by caller thread, file backed buffers are accessed by
+     * I/O threads because access can block on page faults
+     */
+    private final Executor ioExecutor;
+
+    private final AppendAllocator appendAllocator;
 
-    private final ThreadLocal<byte[]> storageBuffer;
+    private final SnapshotEpochs snapshotEpochs = new SnapshotEpochs();
 
+    /**
+     * Created by the first snapshot, writes don't copy pages until then
+     */
+    private volatile PageVersions pageVersions;
+
+    /**
+     * Created if table is checkpointed, writes don't mark pages until then
+     */
+    private volatile DirtyPages dirtyPages;
+
+    private volatile TableCheckpointer checkpointer;
 
     ImTableStorage(long maxSize, int bufferSize) {
+        this(BufferType.UNSAFE.get(maxSize, MemoryManager.TABLE), bufferSize);
+    }
+
+    ImTableStorage(Buffer buffer, int bufferSize) {
+        this(buffer, bufferSize, MoreExecutors.directExecutor());
+    }
+
+    ImTableStorage(Buffer buffer, int bufferSize, Executor ioExecutor) {
+        this(buffer, bufferSize, ioExecutor, 0);
+    }
+
+    /**
+     * @param appendBufferSize size of thread local append buffers, 0 to allocate appended rows densely
+     */
+    ImTableStorage(Buffer buffer, int bufferSize, Executor ioExecutor, int appendBufferSize) {
+        this(buffer, null, bufferSize, ioExecutor, appendBufferSize);
+    }
+
+    /**
+     * Create table over mapped file, table extent is restored from file header. Extent in header is advanced before appended region
+     * is returned, so append after restart never overwrites rows that reached the file
+     */
+    ImTableStorage(TableFile tableFile, int bufferSize, Executor ioExecutor, int appendBufferSize) {
+        this(tableFile.data(), tableFile, bufferSize, ioExecutor, appendBufferSize);
 
-        this.maxSize = maxSize;
+        appendAllocator.onWrite(0, tableFile.extent());
+        snapshotEpochs.advanceEnd(tableFile.extent());
+    }
+
+    private ImTableStorage(Buffer buffer, TableFile tableFile, int bufferSize, Executor ioExecutor, int appendBufferSize) {
+        this.maxSize = buffer.bufferSize();
         this.bufferSize = bufferSize;
+        this.ioExecutor = ioExecutor;
+        this.appendAllocator = tableFile == null
+                               ? new AppendAllocator(maxSize, appendBufferSize)
+                               : new AppendAllocator(maxSize, appendBufferSize, tableFile::advanceExtent);
+        this.tableFile = tableFile;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Flush written data and table extent to the storage device if table is backed by file
+     *
+     * @throws IOException if data can't be flushed
+     */
+    @Override
+    public void flush() throws IOException {
+        if (tableFile != null) {
+            tableFile.advanceExtent(lastPosition());
+            tableFile.flush();
+        }
+
+        if (buffer instanceof Flushable) {
+            ((Flushable) buffer).flush();
+        }
+    }
+
+    /**
+     * Stop I/O threads and release table memory
+     *
+     * @throws IOException if underlying file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+
+        if (ioExecutor instanceof ExecutorService) {
+            ((ExecutorService) ioExecutor).shutdown();
+        }
+
+        if (tableFile != null) {
+            tableFile.advanceExtent(lastPosition());
+            tableFile.close();
+        }
+
+        if (buffer instanceof Closeable) {
+            ((Closeable) buffer).close();
+        }
+    }
+
+    /**
+     * Release trailing empty segments of lazily allocated table. Must not be called concurrently with other operations
+     *
+     * @return count of released bytes
+     */
+    public long trim() {
+        if (buffer instanceof LazySegmentedBuffer) {
+            return ((LazySegmentedBuffer) buffer).trim();
+        }
+
+        return 0;
+    }
 
+    /**
+     * Write pages that were modified since the previous checkpoint to the checkpoint directory
+     *
+     * @return count of written bytes
+     *
+     * @throws IOException if checkpoint can't be written
+     */
+    public long checkpoint() throws IOException {
+        TableCheckpointer checkpointer = this.checkpointer;
 
-        this.buffer = BufferType.UNSAFE.get(maxSize);
+        Verify.verify(checkpointer != null, "table checkpoints are disabled");
 
-        this.storageBuffer = ThreadLocal.withInitial(() -> new byte[bufferSize]);
+        return checkpointer.checkpoint();
+    }
+
+    /**
+     * @return end of the last written or appended region
+     */
+    public long lastPosition() {
+        return appendAllocator.position();
     }
 
     @Override
@@ -36,16 +205,67 @@ public class ImTableStorage implements TableStorage {
         return buffer.bufferSize();
     }
 
+    /**
+     * Take point in time view of the table. Method waits for in flight writes, but writes are never blocked by snapshots
+     *
+     * @return snapshot that must be closed after use
+     */
+    public ImTableSnapshot snapshot() {
+        PageVersions pageVersions = this.pageVersions;
+
+        if (pageVersions == null) {
+            synchronized (snapshotEpochs) {
+                if (this.pageVersions == null) {
+                    this.pageVersions = new PageVersions(snapshotEpochs, maxSize, PAGE_SIZE);
+                }
+
+                pageVersions = this.pageVersions;
+            }
+        }
+
+        long epoch = snapshotEpochs.pin();
+
+        return new ImTableSnapshot(buffer, snapshotEpochs, pageVersions, epoch, snapshotEpochs.end(epoch));
+    }
+
+    /**
+     * Pages that are visible to open snapshots are copied before they are modified
+     */
     @Override
     public void write(long position, byte[] data) {
-        buffer.write(position, data);
+        long epoch = snapshotEpochs.enterWrite();
+
+        long end = 0;
+
+        try {
+            PageVersions pageVersions = this.pageVersions;
+
+            if (pageVersions != null) {
+                pageVersions.preserve(buffer, position, data.length, epoch);
+            }
+
+            DirtyPages dirtyPages = this.dirtyPages;
+
+            if (dirtyPages != null) {
+                dirtyPages.mark(position, data.length);
+            }
 
-        long currentValue = lastPosition.get();
+            Objects.checkFromIndexSize(position, data.length, maxSize);
 
-        if (currentValue < position + data.length) {
-            lastPosition.compareAndSet(currentValue, position + data.length);
+            // allocation buffers must be trimmed before data is written
+            appendAllocator.onWrite(position, position + data.length);
+
+            buffer.write(position, data);
+
+            end = position + data.length;
+        } finally {
+            snapshotEpochs.exitWrite(epoch, end);
         }
+    }
 
+    @Override
+    public long append(int length) {
+        return appendAllocator.allocate(length);
     }
 
     @Override
@@ -60,35 +280,159 @@ public class ImTableStorage implements TableStorage {
     }
 
 
+    /**
+     * Records are copied directly from the buffer, record that is located {@link #MULTI_READ_PREFETCH_DISTANCE} positions ahead is
+     * touched before current record is copied, so its cache misses and page faults overlap with current copy
+     */
+    @Override
+    public void read(long[] positions, int count, int recordSize, byte[] values) {
+        Verify.verify(count <= positions.length, "count is greater than positions length: %s", count);
+        Verify.verify((long) count * recordSize <= values.length, "values buffer is too small for %s records", count);
+
+        Arrays.sort(positions, 0, count);
+
+        byte prefetchSink = 0;
+
+        for (int i = 0; i < count; i++) {
+            int prefetchIndex = i + MULTI_READ_PREFETCH_DISTANCE;
+
+            if (prefetchIndex < count) {
+                prefetchSink ^= buffer.getByte(positions[prefetchIndex]);
+            }
+
+            buffer.read(positions[i], values, i * recordSize, recordSize);
+        }
+
+        consume(prefetchSink);
+    }
+
+    /**
+     * Records are written in position order
+     */
+    @Override
+    public CompletableFuture<Void> writeAsync(List<StorageRecord> records) {
+        List<StorageRecord> sortedRecords = sortByPosition(records);
+
+        return CompletableFuture.runAsync(() -> {
+            for (StorageRecord record : sortedRecords) {
+                write(record.position(), record.data());
+            }
+        }, ioExecutor);
+    }
+
+    /**
+     * Records are read in position order
+     */
+    @Override
+    public CompletableFuture<Void> readAsync(List<StorageRecord> records) {
+        List<StorageRecord> sortedRecords = sortByPosition(records);
+
+        return CompletableFuture.runAsync(() -> {
+            for (StorageRecord record : sortedRecords) {
+                read(record.position(), record.data());
+            }
+        }, ioExecutor);
+    }
+
     @Override
     public void scan(long position, long end, ScanFunction scanFunction, Supplier<byte[]> bufferSupplier) {
         Verify.verify(position < end, "end position must be > start position");
 
-        byte[] storageBuffer = this.storageBuffer.get();
         byte[] dataBuffer = bufferSupplier.get();
 
-        Verify.verify(storageBuffer.length >= dataBuffer.length, "buffer can't be bigger than storage buffer");
+        BufferCursor cursor = BufferCursor.of(buffer, position, Math.min(end, maxSize), dataBuffer.length)
+                                          .prefetch(bufferSize);
 
-        long positionOffset = position;
+        while (cursor.hasNext()) {
+            long recordPosition = cursor.nextLong();
 
-        while (positionOffset < end) {
-            int readBytes = read(positionOffset, storageBuffer);
+            cursor.read(dataBuffer);
 
-            if (end - positionOffset < readBytes) {
-                readBytes = (int) (end - positionOffset);
+            if (!scanFunction.accept(recordPosition, dataBuffer)) {
+                return;
             }
+        }
+    }
 
-            for (int i = 0; i < readBytes; i += dataBuffer.length) {
-                System.arraycopy(storageBuffer, i, dataBuffer, 0, dataBuffer.length);
+    /**
+     * Records are accessed in place in table buffer without copying
+     */
+    @Override
+    public void scan(long position, long end, int recordSize, RecordScanFunction scanFunction) {
+        Verify.verify(position < end, "end position must be > start position");
 
-                if (!scanFunction.accept(positionOffset + i, dataBuffer)) {
-                    return;
-                }
+        BufferCursor cursor = BufferCursor.of(buffer, position, Math.min(end, maxSize), recordSize)
+                                          .prefetch(bufferSize);
+
+        while (cursor.hasNext()) {
+            long recordPosition = cursor.nextLong();
+
+            if (!scanFunction.accept(recordPosition, cursor)) {
+                return;
             }
+        }
+    }
+
+    /**
+     * Batches are views of table buffer, records are not copied
+     */
+    @Override
+    public void scan(long position, long end, int recordSize, int batchSize, BufferBatchScanFunction scanFunction) {
+        BatchScanner.forEachBatch(position, end, maxSize, recordSize, batchSize, (batchPosition, count) -> {
+            Buffer records = buffer.slice(batchPosition, (long) count * recordSize);
+
+            return scanFunction.accept(batchPosition, records);
+        });
+    }
+
+    /**
+     * Every batch is copied from the buffer by one bulk read
+     */
+    @Override
+    public void readBlock(long position, byte[] data, int length) {
+        buffer.read(position, data, 0, length);
+    }
 
-            int tail = readBytes % dataBuffer.length;
+    Buffer buffer() {
+        return buffer;
+    }
 
-            positionOffset += readBytes - tail;
+    /**
+     * Start tracking of pages that are modified by writes
+     */
+    synchronized DirtyPages trackDirtyPages() {
+        if (dirtyPages == null) {
+            dirtyPages = new DirtyPages(maxSize, PAGE_SIZE);
         }
+
+        return dirtyPages;
+    }
+
+    void setCheckpointer(TableCheckpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Move last position to the end of data that was restored from checkpoint
+     */
+    void restored(long lastPosition) {
+        appendAllocator.onWrite(0, lastPosition);
+        snapshotEpochs.advanceEnd(lastPosition);
+    }
+
+    /**
+     * Sink can't be equal to both guards, but compiler can't prove it, so touched bytes stay live
+     */
+    private static void consume(byte prefetchSink) {
+        if (prefetchSink == prefetchGuard1 & prefetchSink == prefetchGuard2) {
+            throw new AssertionError("prefetch guards must be different");
+        }
+    }
+
+    private static List<StorageRecord> sortByPosition(List<StorageRecord> records) {
+        List<StorageRecord> sortedRecords = new ArrayList<>(records);
+        sortedRecords.sort(Comparator.comparingLong(StorageRecord::position));
+
+        return sortedRecords;
     }
 }
@@ -0,0 +1,218 @@
+package com.fnklabs.dds.storage.im;
+
+import com.fnklabs.buffer.Buffer;
+import com.fnklabs.metrics.Counter;
+import com.fnklabs.metrics.MetricsFactory;
+import com.google.common.base.Verify;
+
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Copy on write versions of table pages
+ * <p>
+ * Before page is modified for the first time in epoch that is newer than some pinned epoch, its content is copied to the version
+ * that is valid until the write epoch. Snapshot reads the oldest version that is valid after snapshot epoch or the page itself if
+ * page wasn't modified after snapshot.
+ * <p>
+ * Version is published before page epoch is updated and page epoch is updated before page is modified, so snapshot reader that
+ * observes unchanged page epoch after reading the page has read consistent data.
+ */
+class PageVersions {
+    private final SnapshotEpochs epochs;
+
+    private final int pageSize;
+
+    private final long bufferSize;
+
+    /**
+     * Epoch of the last write that preserved page
+     */
+    private final AtomicLongArray pageEpochs;
+
+    /**
+     * Version chains by page index, the newest version is the first one
+     */
+    private final Map<Integer, PageVersion> versions = new ConcurrentHashMap<>();
+
+    private final Counter versionsSizeCounter;
+
+    PageVersions(SnapshotEpochs epochs, long bufferSize, int pageSize) {
+        long pages = (bufferSize + pageSize - 1) / pageSize;
+
+        Verify.verify(pages <= Integer.MAX_VALUE, "page size is too small for buffer of %s bytes: %s", bufferSize, pageSize);
+
+        this.epochs = epochs;
+        this.pageSize = pageSize;
+        this.bufferSize = bufferSize;
+        this.pageEpochs = new AtomicLongArray((int) pages);
+        this.versionsSizeCounter = MetricsFactory.getMetrics().getCounter("storage.snapshot.versions");
+    }
+
+    /**
+     * Preserve pages of region that will be modified by write of provided epoch
+     *
+     * @param buffer     table buffer
+     * @param position   region position
+     * @param length     region length
+     * @param writeEpoch write epoch
+     */
+    void preserve(Buffer buffer, long position, int length, long writeEpoch) {
+        if (length == 0) {
+            return;
+        }
+
+        for (int page = page(position), lastPage = page(position + length - 1); page <= lastPage; page++) {
+            if (epochs.isPinned(pageEpochs.get(page), writeEpoch)) {
+                // copy must contain writes of pinned epoch that can be still in flight
+                epochs.awaitCompleted(writeEpoch - 1);
+
+                versions.compute(page, (index, head) -> {
+                    if (head != null && head.epoch == writeEpoch) {
+                        // page was already preserved by concurrent write of the same epoch
+                        return head;
+                    }
+
+                    return new PageVersion(writeEpoch, copy(buffer, index), head);
+                });
+
+                pageEpochs.accumulateAndGet(page, writeEpoch, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Read region as it was at the end of snapshot epoch
+     *
+     * @param buffer        table buffer
+     * @param snapshotEpoch snapshot epoch
+     * @param position      region position
+     * @param data          destination
+     * @param offset        destination offset
+     * @param length        region length
+     */
+    void read(Buffer buffer, long snapshotEpoch, long position, byte[] data, int offset, int length) {
+        while (length > 0) {
+            int page = page(position);
+            int pageOffset = (int) (position - (long) page * pageSize);
+            int chunk = Math.min(length, pageSize - pageOffset);
+
+            readPage(buffer, snapshotEpoch, page, position, data, offset, chunk);
+
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Release versions that are not visible to snapshots of provided or newer epochs
+     *
+     * @param oldestEpoch oldest pinned epoch
+     */
+    void reclaim(long oldestEpoch) {
+        for (Integer page : versions.keySet()) {
+            versions.computeIfPresent(page, (index, head) -> {
+                if (head.epoch <= oldestEpoch) {
+                    release(head);
+
+                    return null;
+                }
+
+                PageVersion version = head;
+
+                while (version.previous != null && version.previous.epoch > oldestEpoch) {
+                    version = version.previous;
+                }
+
+                release(version.previous);
+
+                version.previous = null;
+
+                return head;
+            });
+        }
+    }
+
+    private void readPage(Buffer buffer, long snapshotEpoch, int page, long position, byte[] data, int offset, int length) {
+        int pageOffset = (int) (position - (long) page * pageSize);
+
+        for (; ; ) {
+            PageVersion version = version(page, snapshotEpoch);
+
+            if (version != null) {
+                System.arraycopy(version.data, pageOffset, data, offset, length);
+
+                return;
+            }
+
+            if (pageEpochs.get(page) > snapshotEpoch) {
+                // version is published before page epoch is updated
+                continue;
+            }
+
+            buffer.read(position, data, offset, length);
+
+            // page data must be read before page epoch is checked again
+            VarHandle.acquireFence();
+
+            if (pageEpochs.get(page) <= snapshotEpoch) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the oldest version that is valid after snapshot epoch
+     */
+    private PageVersion version(int page, long snapshotEpoch) {
+        PageVersion visible = null;
+
+        for (PageVersion version = versions.get(page); version != null && version.epoch > snapshotEpoch; version = version.previous) {
+            visible = version;
+        }
+
+        return visible;
+    }
+
+    private byte[] copy(Buffer buffer, int page) {
+        long pagePosition = (long) page * pageSize;
+
+        byte[] data = new byte[(int) Math.min(pageSize, bufferSize - pagePosition)];
+
+        buffer.read(pagePosition, data);
+
+        versionsSizeCounter.inc(data.length);
+
+        return data;
+    }
+
+    private void release(PageVersion version) {
+        for (; version != null; version = version.previous) {
+            versionsSizeCounter.inc(-version.data.length);
+        }
+    }
+
+    private int page(long position) {
+        return (int) (position / pageSize);
+    }
+
+    private static final class PageVersion {
+        /**
+         * Epoch of the write that replaced version content, version is visible to snapshots of older epochs
+         */
+        private final long epoch;
+
+        private final byte[] data;
+
+        private volatile PageVersion previous;
+
+        private PageVersion(long epoch, byte[] data, PageVersion previous) {
+            this.epoch = epoch;
+            this.data = data;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.fnklabs.dds.storage.im;
+
+import com.google.common.math.IntMath;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Write epochs of the table
+ * <p>
+ * Every write is executed in the current epoch. Snapshot pins current epoch, moves table to the next epoch and waits until writes of
+ * pinned epoch are completed, so snapshot contains all writes of its epoch and earlier ones and none of later ones. Writers never
+ * wait for readers, only snapshot creation waits for in flight writes.
+ * <p>
+ * Epoch is advanced only by snapshots, so in flight writes can belong to at most two epochs that are counted by parity.
+ * Writes of the new epoch can start before writes of the pinned epoch are completed, so pages must not be copied for snapshot
+ * until writes of the previous epoch are completed.
+ * <p>
+ * Every write reports end of its region on exit. Ends are accumulated by epoch parity and are folded into the end of pinned epoch
+ * when its writes are completed, so snapshot end covers writes of its epoch and earlier ones and none of later ones.
+ * <p>
+ * Write counters and ends are striped by thread like cells of {@link java.util.concurrent.atomic.LongAdder}, every stripe takes its
+ * own cache lines. Write pays for a volatile read of the epoch before and after registration, an increment and a decrement of the
+ * counter of its stripe and an update of the end of its stripe if the end grows. Pin sums counters of all stripes.
+ */
+class SnapshotEpochs {
+    /**
+     * Slots of one stripe: write counters and write ends by parity, the rest of 128 bytes is padding
+     */
+    private static final int STRIPE_SLOTS = 16;
+
+    private static final int WRITE_END_SLOT = 2;
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final int stripeMask;
+
+    /**
+     * Count of in flight writes and max end of regions written by in flight epochs, by stripe and epoch parity. Stripe is
+     * selected by thread, so write must be entered and exited by the same thread and counter of a stripe never goes below zero
+     */
+    private final AtomicLongArray stripes;
+
+    /**
+     * Pinned epoch to end of regions that were written by it and earlier epochs
+     */
+    private final ConcurrentSkipListMap<Long, Long> pinned = new ConcurrentSkipListMap<>();
+
+    /**
+     * End of regions that were written by the last pinned and earlier epochs, guarded by this
+     */
+    private long pinnedEnd;
+
+    /**
+     * The last epoch which writes are completed
+     */
+    private volatile long completedEpoch = -1;
+
+    SnapshotEpochs() {
+        int stripesCount = IntMath.ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+
+        this.stripeMask = stripesCount - 1;
+        this.stripes = new AtomicLongArray(stripesCount * STRIPE_SLOTS);
+    }
+
+    /**
+     * Register write in current epoch
+     *
+     * @return write epoch that must be passed to {@link #exitWrite(long, long)} by the same thread
+     */
+    long enterWrite() {
+        int stripe = stripe();
+
+        for (; ; ) {
+            long current = epoch.get();
+
+            stripes.incrementAndGet(stripe + parity(current));
+
+            // snapshot could advance epoch before write was registered
+            if (epoch.get() == current) {
+                return current;
+            }
+
+            stripes.decrementAndGet(stripe + parity(current));
+        }
+    }
+
+    /**
+     * Complete write
+     *
+     * @param writeEpoch write epoch
+     * @param end        end of written region, 0 if nothing was written
+     */
+    void exitWrite(long writeEpoch, long end) {
+        int stripe = stripe();
+
+        int endSlot = stripe + WRITE_END_SLOT + parity(writeEpoch);
+
+        // end is published before write is completed, so pin that observes completion observes the end
+        if (end > stripes.get(endSlot)) {
+            stripes.accumulateAndGet(endSlot, end, Math::max);
+        }
+
+        stripes.decrementAndGet(stripe + parity(writeEpoch));
+    }
+
+    /**
+     * Move end of written regions to the end of data that was loaded into table without writes, e.g. on restore
+     *
+     * @param end end of loaded data
+     */
+    synchronized void advanceEnd(long end) {
+        pinnedEnd = Math.max(pinnedEnd, end);
+    }
+
+    /**
+     * Pin current epoch and wait until its writes are completed
+     *
+     * @return pinned epoch
+     */
+    synchronized long pin() {
+        long current = epoch.get();
+
+        // end is unknown until writes are completed, but pages must be preserved since now
+        pinned.put(current, -1L);
+
+        epoch.set(current + 1);
+
+        while (writers(parity(current)) != 0) {
+            Thread.onSpinWait();
+        }
+
+        // slots are not used by writes until the next epoch of the same parity that starts after the next pin
+        for (int stripe = 0; stripe < stripes.length(); stripe += STRIPE_SLOTS) {
+            pinnedEnd = Math.max(pinnedEnd, stripes.getAndSet(stripe + WRITE_END_SLOT + parity(current), 0));
+        }
+
+        pinned.put(current, pinnedEnd);
+
+        completedEpoch = current;
+
+        return current;
+    }
+
+    /**
+     * @param pinnedEpoch pinned epoch
+     *
+     * @return end of regions that were written by pinned epoch and earlier epochs
+     */
+    long end(long pinnedEpoch) {
+        return pinned.get(pinnedEpoch);
+    }
+
+    /**
+     * Wait until all writes of provided epoch are completed. Epoch must be older than the current one
+     *
+     * @param writeEpoch write epoch
+     */
+    void awaitCompleted(long writeEpoch) {
+        while (completedEpoch < writeEpoch) {
+            Thread.onSpinWait();
+        }
+    }
+
+    void unpin(long pinnedEpoch) {
+        pinned.remove(pinnedEpoch);
+    }
+
+    /**
+     * @return true if any epoch from [from, to) range is pinned
+     */
+    boolean isPinned(long from, long to) {
+        Long oldest = pinned.ceilingKey(from);
+
+        return oldest != null && oldest < to;
+    }
+
+    /**
+     * @return oldest pinned epoch or current epoch if nothing is pinned
+     */
+    long oldestPinned() {
+        long current = epoch.get();
+
+        Long oldest = pinned.ceilingKey(Long.MIN_VALUE);
+
+        return oldest != null ? oldest : current;
+    }
+
+    /**
+     * @return count of in flight writes of epoch parity, counters of stripes are never negative, so zero sum means that every
+     * stripe was observed without writes of the parity
+     */
+    private long writers(int parity) {
+        long writers = 0;
+
+        for (int stripe = 0; stripe < stripes.length(); stripe += STRIPE_SLOTS) {
+            writers += stripes.get(stripe + parity);
+        }
+
+        return writers;
+    }
+
+    /**
+     * @return index of the first slot of current thread stripe
+     */
+    private int stripe() {
+        return (int) (Thread.currentThread().getId() & stripeMask) * STRIPE_SLOTS;
+    }
+
+    private static int parity(long epoch) {
+        return (int) (epoch & 1);
+    }
+}
@@ -0,0 +1,393 @@
+package com.fnklabs.dds.storage.im;
+
+import com.fnklabs.buffer.Buffer;
+import com.fnklabs.concurrent.Executors;
+import com.fnklabs.metrics.Counter;
+import com.fnklabs.metrics.MetricsFactory;
+import com.fnklabs.metrics.Timer;
+import com.google.common.base.Verify;
+import com.google.common.util.concurrent.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Incremental checkpoints of in memory table
+ * <p>
+ * Every checkpoint writes pages that were modified since the previous checkpoint to the new delta file. Pages are read from table
+ * snapshot, so delta contains consistent table state while inserts continue. Delta is written to temporary file and renamed after
+ * it was forced to the device, so restore never observes incomplete delta. When count of deltas exceeds the limit they are merged
+ * into the base file that is an image of the table and can be loaded by sequential read.
+ * <p>
+ * Deltas contain whole pages, so applying delta again is idempotent and crash during merge is recovered by replaying deltas that
+ * weren't deleted yet. Disk writes are throttled by I/O budget, restore isn't throttled.
+ */
+class TableCheckpointer implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TableCheckpointer.class);
+
+    private static final String BASE_FILE = "base.data";
+    private static final String DELTA_PREFIX = "delta-";
+    private static final String DELTA_SUFFIX = ".data";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Base file starts with the last position of the table, pages are stored after it at their table offsets
+     */
+    private static final int BASE_HEADER_SIZE = Long.BYTES;
+
+    /**
+     * Page index that terminates page records of delta
+     */
+    private static final int END_OF_PAGES = -1;
+
+    private final ImTableStorage storage;
+
+    private final DirtyPages dirtyPages;
+
+    private final Path directory;
+
+    private final int maxDeltas;
+
+    private final RateLimiter ioBudget;
+
+    private final ScheduledExecutorService scheduler = Executors.scheduler(1, "table-checkpoint");
+
+    private final Counter writtenBytesCounter;
+
+    /**
+     * Sequence number of the last delta, guarded by this
+     */
+    private long sequence;
+
+    /**
+     * @param storage        checkpointed table
+     * @param directory      checkpoint directory
+     * @param bytesPerSecond I/O budget of checkpoint writes
+     * @param maxDeltas      count of deltas after which they are merged into base file
+     *
+     * @throws IOException if checkpoint directory can't be created
+     */
+    TableCheckpointer(ImTableStorage storage, Path directory, long bytesPerSecond, int maxDeltas) throws IOException {
+        Verify.verify(bytesPerSecond > 0, "I/O budget must be positive: %s", bytesPerSecond);
+        Verify.verify(maxDeltas > 0, "max deltas count must be positive: %s", maxDeltas);
+
+        this.storage = storage;
+        this.dirtyPages = storage.trackDirtyPages();
+        this.directory = Files.createDirectories(directory);
+        this.maxDeltas = maxDeltas;
+        this.ioBudget = RateLimiter.create(bytesPerSecond);
+        this.writtenBytesCounter = MetricsFactory.getMetrics().getCounter("storage.checkpoint.written");
+    }
+
+    /**
+     * Checkpoint table periodically in background
+     *
+     * @param interval delay between checkpoints in milliseconds
+     */
+    void start(long interval) {
+        Verify.verify(interval > 0, "checkpoint interval must be positive: %s", interval);
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("can't checkpoint table to {}", directory, e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Load base file and apply deltas to the table. Must be called before table is modified
+     *
+     * @throws IOException if checkpoint can't be read or it's corrupted
+     */
+    synchronized void restore() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(TEMP_SUFFIX)).collect(Collectors.toList())) {
+                // delta that wasn't completed before crash
+                Files.delete(file);
+            }
+        }
+
+        Buffer buffer = storage.buffer();
+
+        long lastPosition = 0;
+
+        Path baseFile = directory.resolve(BASE_FILE);
+
+        if (Files.exists(baseFile)) {
+            try (FileChannel base = FileChannel.open(baseFile, StandardOpenOption.READ)) {
+                lastPosition = readLastPosition(base);
+
+                long length = Math.min(base.size() - BASE_HEADER_SIZE, buffer.bufferSize());
+
+                base.position(BASE_HEADER_SIZE);
+
+                for (long restored = 0; restored < length; ) {
+                    long read = buffer.transferFrom(base, restored, length - restored);
+
+                    if (read <= 0) {
+                        break;
+                    }
+
+                    restored += read;
+                }
+            }
+        }
+
+        for (Path delta : deltas()) {
+            long deltaLastPosition = readDelta(delta, (position, data, length) -> buffer.write(position, data, 0, length));
+
+            lastPosition = Math.max(lastPosition, deltaLastPosition);
+            sequence = Math.max(sequence, sequenceOf(delta));
+        }
+
+        storage.restored(lastPosition);
+    }
+
+    /**
+     * Write pages that were modified since the previous checkpoint
+     *
+     * @return count of written bytes
+     *
+     * @throws IOException if delta can't be written
+     */
+    synchronized long checkpoint() throws IOException {
+        Timer timer = MetricsFactory.getMetrics().getTimer("storage.checkpoint");
+
+        try {
+            BitSet pages = dirtyPages.drain();
+
+            if (pages.isEmpty()) {
+                return 0;
+            }
+
+            long written;
+
+            try (ImTableSnapshot snapshot = storage.snapshot()) {
+                written = writeDelta(snapshot, pages, sequence + 1);
+            } catch (IOException | RuntimeException e) {
+                // pages must be written by the next checkpoint
+                pages.stream().forEach(page -> dirtyPages.mark((long) page * dirtyPages.pageSize(), 1));
+
+                throw e;
+            }
+
+            sequence++;
+
+            writtenBytesCounter.inc(written);
+
+            List<Path> deltas = deltas();
+
+            if (deltas.size() > maxDeltas) {
+                merge(deltas);
+            }
+
+            return written;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Stop background checkpoints and checkpoint the last changes
+     *
+     * @throws IOException if checkpoint failed
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        checkpoint();
+    }
+
+    private long writeDelta(ImTableSnapshot snapshot, BitSet pages, long deltaSequence) throws IOException {
+        Path delta = directory.resolve(deltaName(deltaSequence));
+        Path temp = directory.resolve(deltaName(deltaSequence) + TEMP_SUFFIX);
+
+        int pageSize = dirtyPages.pageSize();
+
+        long written = 0;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc),
+                    pageSize
+            ));
+
+            byte[] page = new byte[pageSize];
+
+            for (int index = pages.nextSetBit(0); index >= 0; index = pages.nextSetBit(index + 1)) {
+                int length = snapshot.read((long) index * pageSize, page);
+
+                if (length == 0) {
+                    continue;
+                }
+
+                ioBudget.acquire(length);
+
+                output.writeInt(index);
+                output.writeInt(length);
+                output.write(page, 0, length);
+
+                written += length;
+            }
+
+            output.writeInt(END_OF_PAGES);
+            output.writeLong(snapshot.end());
+            output.flush();
+
+            output.writeLong(crc.getValue());
+            output.flush();
+
+            channel.force(true);
+        }
+
+        Files.move(temp, delta, StandardCopyOption.ATOMIC_MOVE);
+
+        return written;
+    }
+
+    /**
+     * Write pages of deltas to base file and delete deltas
+     */
+    private void merge(List<Path> deltas) throws IOException {
+        try (FileChannel base = FileChannel.open(directory.resolve(BASE_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long lastPosition = readLastPosition(base);
+
+            for (Path delta : deltas) {
+                long deltaLastPosition = readDelta(delta, (position, data, length) -> {
+                    ioBudget.acquire(length);
+
+                    writeFully(base, ByteBuffer.wrap(data, 0, length), BASE_HEADER_SIZE + position);
+                });
+
+                lastPosition = Math.max(lastPosition, deltaLastPosition);
+            }
+
+            writeFully(base, ByteBuffer.allocate(BASE_HEADER_SIZE).putLong(0, lastPosition), 0);
+
+            base.force(true);
+        }
+
+        for (Path delta : deltas) {
+            Files.delete(delta);
+        }
+    }
+
+    /**
+     * Read page records of delta
+     *
+     * @return last position of the table at delta checkpoint
+     *
+     * @throws IOException if delta can't be read or checksum doesn't match
+     */
+    private long readDelta(Path delta, PageConsumer consumer) throws IOException {
+        int pageSize = dirtyPages.pageSize();
+
+        CRC32 crc = new CRC32();
+
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(delta), pageSize), crc))) {
+            byte[] page = new byte[pageSize];
+
+            for (int index = input.readInt(); index != END_OF_PAGES; index = input.readInt()) {
+                int length = input.readInt();
+
+                Verify.verify(length <= pageSize, "invalid page length %s in %s", length, delta);
+
+                input.readFully(page, 0, length);
+
+                consumer.accept((long) index * pageSize, page, length);
+            }
+
+            long lastPosition = input.readLong();
+
+            long checksum = crc.getValue();
+
+            if (input.readLong() != checksum) {
+                throw new IOException(String.format("checkpoint delta %s is corrupted", delta));
+            }
+
+            return lastPosition;
+        }
+    }
+
+    private List<Path> deltas() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+
+                return name.startsWith(DELTA_PREFIX) && name.endsWith(DELTA_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long readLastPosition(FileChannel base) throws IOException {
+        if (base.size() < BASE_HEADER_SIZE) {
+            return 0;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(BASE_HEADER_SIZE);
+
+        while (header.hasRemaining()) {
+            if (base.read(header, header.position()) < 0) {
+                throw new EOFException("base file header is incomplete");
+            }
+        }
+
+        return header.getLong(0);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    private static String deltaName(long sequence) {
+        // fixed width so deltas are sorted by name in sequence order
+        return String.format("%s%016d%s", DELTA_PREFIX, sequence, DELTA_SUFFIX);
+    }
+
+    private static long sequenceOf(Path delta) {
+        String name = delta.getFileName().toString();
+
+        return Long.parseLong(name.substring(DELTA_PREFIX.length(), name.length() - DELTA_SUFFIX.length()));
+    }
+
+    @FunctionalInterface
+    private interface PageConsumer {
+        void accept(long position, byte[] data, int length) throws IOException;
+    }
+}
@@ -0,0 +1,102 @@
+package com.fnklabs.dds.storage.im;
+
+import com.fnklabs.buffer.Buffer;
+import com.fnklabs.buffer.MappedBuffer;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Table data file that is mapped into memory
+ * <p>
+ * File starts with header that identifies table file and keeps table extent: end of the last written or appended region. Table data
+ * is stored after header, so table that is reopened over existing file knows which regions contain data.
+ */
+class TableFile implements Flushable, Closeable {
+    /**
+     * Header occupies the whole OS page, so table data is page aligned
+     */
+    static final int HEADER_SIZE = 4096;
+
+    private static final long MAGIC = 0x4444535441424c45L; // DDSTABLE
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int EXTENT_OFFSET = Long.BYTES;
+
+    private final MappedBuffer mappedBuffer;
+
+    private final Buffer data;
+
+    private TableFile(MappedBuffer mappedBuffer) {
+        this.mappedBuffer = mappedBuffer;
+        this.data = mappedBuffer.slice(HEADER_SIZE, mappedBuffer.bufferSize() - HEADER_SIZE);
+    }
+
+    /**
+     * Open or create table file
+     *
+     * @param file  file path
+     * @param size  table size without header
+     * @param owner memory owner tag
+     *
+     * @return table file
+     *
+     * @throws IOException           if file can't be opened or mapped
+     * @throws IllegalStateException if existing file is not a table file
+     */
+    static TableFile open(Path file, long size, String owner) throws IOException {
+        MappedBuffer mappedBuffer = MappedBuffer.open(file, HEADER_SIZE + size, owner);
+
+        long magic = mappedBuffer.getLong(MAGIC_OFFSET);
+
+        if (magic == 0 && mappedBuffer.getLong(EXTENT_OFFSET) == 0) {
+            // new file
+            mappedBuffer.putLong(MAGIC_OFFSET, MAGIC);
+        } else if (magic != MAGIC) {
+            mappedBuffer.close();
+
+            throw new IllegalStateException(String.format("%s is not a table file", file));
+        }
+
+        return new TableFile(mappedBuffer);
+    }
+
+    /**
+     * @return table data region
+     */
+    Buffer data() {
+        return data;
+    }
+
+    /**
+     * @return persisted table extent
+     */
+    long extent() {
+        return mappedBuffer.getLongVolatile(EXTENT_OFFSET);
+    }
+
+    /**
+     * Move persisted extent to provided position if it is greater
+     *
+     * @param extent table extent
+     */
+    void advanceExtent(long extent) {
+        long current = extent();
+
+        while (current < extent && !mappedBuffer.compareAndSetLong(EXTENT_OFFSET, current, extent)) {
+            current = extent();
+        }
+    }
+
+    @Override
+    public void flush() {
+        mappedBuffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mappedBuffer.close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.fnklabs.dds.storage.im;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+@RunWith(Parameterized.class)
+public class CompressedTableStorageTest {
+    private static final int SIZE = 1024 * 1024 + 3;
+    private static final int BLOCK_SIZE = 16 * 1024;
+
+    @Parameterized.Parameter
+    public BlockCompression compression;
+
+    private CompressedTableStorage storage;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{
+                {BlockCompression.DELTA},
+                {BlockCompression.DEFLATE},
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        storage = (CompressedTableStorage) new CompressedStorageFactory().get(new CompressedStorageOptions(SIZE, BLOCK_SIZE, 4, compression));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        storage.close();
+    }
+
+    @Test
+    public void randomReadWrite() {
+        Random random = new Random(1);
+
+        byte[] expected = new byte[SIZE];
+
+        for (int i = 0; i < 5_000; i++) {
+            int length = random.nextInt(2 * BLOCK_SIZE);
+            int position = random.nextInt(SIZE - length);
+
+            byte[] data = new byte[length];
+
+            if (random.nextBoolean()) {
+                random.nextBytes(data);
+
+                storage.write(position, data);
+
+                System.arraycopy(data, 0, expected, position, length);
+            } else {
+                Assert.assertEquals(length, storage.read(position, data));
+                Assert.assertArrayEquals(Arrays.copyOfRange(expected, position, position + length), data);
+            }
+        }
+
+        storage.flush();
+
+        byte[] data = new byte[SIZE];
+
+        storage.read(0, data);
+
+        Assert.assertArrayEquals(expected, data);
+    }
+
+    @Test
+    public void longColumnIsCompressed() {
+        long records = SIZE / Long.BYTES;
+
+        for (long i = 0; i < records; i++) {
+            storage.write(i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).putLong(1_000_000_000L + i * 3).array());
+        }
+
+        storage.flush();
+
+        Assert.assertTrue(String.valueOf(storage.compressionRatio()), storage.compressionRatio() > 3);
+
+        byte[] data = new byte[Long.BYTES];
+
+        for (long i = 0; i < records; i += 997) {
+            storage.read(i * Long.BYTES, data);
+
+            Assert.assertEquals(1_000_000_000L + i * 3, ByteBuffer.wrap(data).getLong());
+        }
+    }
+}
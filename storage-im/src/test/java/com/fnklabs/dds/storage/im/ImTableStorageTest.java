@@ -1,11 +1,29 @@
 package com.fnklabs.dds.storage.im;
 
+import com.fnklabs.buffer.MemoryManager;
 import com.fnklabs.dds.storage.ScanFunction;
+import com.fnklabs.dds.storage.StorageRecord;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ImTableStorageTest {
 
@@ -88,5 +106,515 @@ public class ImTableStorageTest {
 
     }
 
+    @Test
+    public void batchScan() {
+        int records = 1000;
+
+        for (int i = 0; i < records; i++) {
+            imStorage.write((long) i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).putLong(i).array());
+        }
+
+        AtomicLong scanned = new AtomicLong();
+
+        // range ends in the middle of the record
+        imStorage.scan(0, (long) records * Long.BYTES + 3, Long.BYTES, 64, (position, data, count) -> {
+            Assert.assertEquals(scanned.get() * Long.BYTES, position);
+            Assert.assertTrue(count <= 64);
+
+            ByteBuffer batch = ByteBuffer.wrap(data);
+
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(scanned.getAndIncrement(), batch.getLong(i * Long.BYTES));
+            }
+
+            return true;
+        });
+
+        Assert.assertEquals(records, scanned.get());
+    }
+
+    @Test
+    public void bufferBatchScan() {
+        int records = 1000;
+
+        for (int i = 0; i < records; i++) {
+            imStorage.write((long) i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(i).array());
+        }
+
+        AtomicLong scanned = new AtomicLong();
+
+        imStorage.scan(0, (long) records * Long.BYTES + 3, Long.BYTES, 64, (position, batch) -> {
+            Assert.assertEquals(scanned.get() * Long.BYTES, position);
+            Assert.assertTrue(batch.bufferSize() <= 64 * Long.BYTES);
+
+            for (long offset = 0; offset < batch.bufferSize(); offset += Long.BYTES) {
+                Assert.assertEquals(scanned.getAndIncrement(), batch.getLong(offset));
+            }
+
+            return true;
+        });
+
+        Assert.assertEquals(records, scanned.get());
+    }
+
+    @Test
+    public void batchScanStop() {
+        AtomicLong batches = new AtomicLong();
+
+        imStorage.scan(0, MAX_SIZE, Long.BYTES, 16, (position, data, count) -> batches.incrementAndGet() < 3);
+
+        Assert.assertEquals(3, batches.get());
+    }
+
+    @Test
+    public void parallelScan() {
+        int records = 10_001;
+
+        for (int i = 0; i < records; i++) {
+            imStorage.write((long) i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).putLong(i).array());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            for (int parallelism : new int[]{1, 3, 4, 16}) {
+                long sum = imStorage.parallelScan(0, (long) records * Long.BYTES, Long.BYTES, parallelism, executor, (from, to) -> {
+                    Assert.assertEquals(0, from % Long.BYTES);
+
+                    AtomicLong splitSum = new AtomicLong();
+
+                    imStorage.scan(from, to, Long.BYTES, 128, (position, data, count) -> {
+                        ByteBuffer batch = ByteBuffer.wrap(data);
+
+                        for (int i = 0; i < count; i++) {
+                            splitSum.addAndGet(batch.getLong(i * Long.BYTES));
+                        }
+
+                        return true;
+                    });
+
+                    return splitSum.get();
+                }, Long::sum);
+
+                Assert.assertEquals((long) records * (records - 1) / 2, sum);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void parallelScanFailure() {
+        imStorage.parallelScan(0, MAX_SIZE, Long.BYTES, 4, (from, to) -> {
+            if (from == 0) {
+                throw new IllegalStateException("split failure");
+            }
+
+            return 0L;
+        }, Long::sum);
+    }
+
+    @Test
+    public void asyncReadWrite() throws Exception {
+        readWriteBatch(imStorage);
+    }
+
+    @Test
+    public void asyncReadWriteMappedFile() throws Exception {
+        Path file = Files.createTempFile("table", ".data");
+
+        try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(new ImStorageOptions(1024 * 1024, 128, file, 2))) {
+            readWriteBatch(storage);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void reopenMappedFile() throws Exception {
+        Path file = Files.createTempFile("table", ".data");
+
+        ImStorageOptions options = new ImStorageOptions(1024 * 1024, 128, file, 2);
+
+        try {
+            try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(options)) {
+                storage.write(100, data);
+            }
+
+            try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(options)) {
+                Assert.assertEquals(100 + data.length, storage.lastPosition());
+
+                storage.read(100, buffer);
+
+                Assert.assertArrayEquals(data, buffer);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void appendAfterReopenOfNotClosedFile() throws Exception {
+        Path file = Files.createTempFile("table", ".data");
+
+        ImStorageOptions options = new ImStorageOptions(1024 * 1024, 128, file, 2).setAppendBufferSize(4096);
+
+        try (ImTableStorage crashed = (ImTableStorage) new ImStorageFactory().get(options)) {
+            long position = crashed.append(data.length);
+
+            crashed.write(position, data);
+
+            // table is reopened while the first one is not flushed nor closed, like after process crash
+            try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(options)) {
+                Assert.assertTrue(storage.append(data.length) >= position + data.length);
+
+                storage.read(position, buffer);
+
+                Assert.assertArrayEquals(data, buffer);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void openNotTableFile() throws Exception {
+        Path file = Files.createTempFile("table", ".data");
+
+        try {
+            Files.write(file, new byte[]{1, 2, 3});
+
+            new ImStorageFactory().get(new ImStorageOptions(1024 * 1024, 128, file, 2));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void readWriteBatch(ImTableStorage storage) throws Exception {
+        List<StorageRecord> writes = new ArrayList<>();
+        List<StorageRecord> reads = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            writes.add(new StorageRecord((long) i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).putLong(i).array()));
+            reads.add(new StorageRecord((long) i * Long.BYTES, new byte[Long.BYTES]));
+        }
+
+        Collections.shuffle(writes);
+
+        storage.writeAsync(writes).get(10, TimeUnit.SECONDS);
+        storage.readAsync(reads).get(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < reads.size(); i++) {
+            Assert.assertEquals(i, ByteBuffer.wrap(reads.get(i).data()).getLong());
+        }
+    }
+
+    @Test
+    public void multiRead() {
+        int records = 10_000;
+
+        for (int i = 0; i < records; i++) {
+            imStorage.write((long) i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).putLong(i).array());
+        }
+
+        Random random = new Random(1);
+
+        long[] positions = new long[1000];
+
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (long) random.nextInt(records) * Long.BYTES;
+        }
+
+        byte[] values = new byte[(positions.length - 1) * Long.BYTES];
+
+        imStorage.read(positions, positions.length - 1, Long.BYTES, values);
+
+        ByteBuffer valuesBuffer = ByteBuffer.wrap(values);
+
+        for (int i = 0; i < positions.length - 1; i++) {
+            Assert.assertTrue(i == 0 || positions[i - 1] <= positions[i]);
+            Assert.assertEquals(positions[i] / Long.BYTES, valuesBuffer.getLong(i * Long.BYTES));
+        }
+    }
+
+    @Test
+    public void lazyMemoryTable() throws Exception {
+        ImStorageOptions options = new ImStorageOptions(MAX_SIZE, 128).setSegmentSize(1024 * 1024);
+
+        try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(options)) {
+            storage.write(MAX_SIZE - data.length, data);
+            storage.read(MAX_SIZE - data.length, buffer);
+
+            Assert.assertArrayEquals(data, buffer);
+
+            storage.write(MAX_SIZE - data.length, new byte[data.length]);
+
+            Assert.assertEquals(1024 * 1024, storage.trim());
+        }
+    }
+
+    @Test
+    public void memoryIsAccountedByTableName() throws Exception {
+        ImStorageOptions options = new ImStorageOptions(MAX_SIZE, 128).setSegmentSize(1024 * 1024).setName("accounted");
+
+        try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(options)) {
+            storage.write(0, data);
+
+            Assert.assertEquals(1024 * 1024, MemoryManager.getInstance().usedMemory(MemoryManager.table("accounted")));
+        }
+
+        Assert.assertEquals(0, MemoryManager.getInstance().usedMemory(MemoryManager.table("accounted")));
+    }
+
+    @Test
+    public void appendAfterWrittenData() {
+        imStorage.write(100, data);
+
+        Assert.assertEquals(100 + data.length, imStorage.lastPosition());
+        Assert.assertEquals(100 + data.length, imStorage.append(8));
+        Assert.assertEquals(100 + data.length + 8, imStorage.lastPosition());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void appendToFullStorage() {
+        imStorage.write(MAX_SIZE - 4, new byte[4]);
+        imStorage.append(8);
+    }
+
+    @Test
+    public void appendBufferIsTrimmedByWrite() throws Exception {
+        ImStorageOptions options = new ImStorageOptions(1024 * 1024, 128).setSegmentSize(64 * 1024).setAppendBufferSize(1024);
+
+        try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(options)) {
+            long first = storage.append(data.length);
+
+            // written region is located in unused part of allocation buffer
+            storage.write(first + 100, data);
+
+            for (int i = 0; i < 100; i++) {
+                long position = storage.append(data.length);
+
+                Assert.assertTrue(position + data.length <= first + 100 || position >= first + 100 + data.length);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentAppend() throws Exception {
+        for (int appendBufferSize : new int[]{0, 4096}) {
+            ImStorageOptions options = new ImStorageOptions(16 * 1024 * 1024, 128).setSegmentSize(1024 * 1024)
+                                                                                .setAppendBufferSize(appendBufferSize);
+
+            try (ImTableStorage storage = (ImTableStorage) new ImStorageFactory().get(options)) {
+                Set<Long> positions = ConcurrentHashMap.newKeySet();
+
+                int threads = 4;
+                int appends = 10_000;
+
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                CountDownLatch latch = new CountDownLatch(threads);
+
+                for (int thread = 0; thread < threads; thread++) {
+                    executor.execute(() -> {
+                        for (int i = 0; i < appends; i++) {
+                            long position = storage.append(data.length);
+
+                            storage.write(position, data);
+
+                            positions.add(position);
+                        }
+
+                        latch.countDown();
+                    });
+                }
+
+                Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+                executor.shutdown();
+
+                Assert.assertEquals(threads * appends, positions.size());
+
+                for (long position : positions) {
+                    Assert.assertEquals(0, position % data.length);
+
+                    storage.read(position, buffer);
+
+                    Assert.assertArrayEquals(data, buffer);
+                }
+
+                if (appendBufferSize == 0) {
+                    Assert.assertEquals((long) threads * appends * data.length, storage.lastPosition());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void recordScan() {
+        // record size doesn't divide read ahead distance
+        int recordSize = 24;
+        int records = 10_000;
+
+        for (int i = 0; i < records; i++) {
+            imStorage.write((long) i * recordSize, ByteBuffer.allocate(recordSize).order(ByteOrder.nativeOrder()).putLong(i).putLong(-i).array());
+        }
+
+        AtomicLong scanned = new AtomicLong();
+
+        imStorage.scan(0, (long) records * recordSize + recordSize / 2, recordSize, (position, record) -> {
+            long index = scanned.getAndIncrement();
+
+            Assert.assertEquals(index * recordSize, position);
+            Assert.assertEquals(index, record.getLong(0));
+            Assert.assertEquals(-index, record.getLong(Long.BYTES));
+
+            return true;
+        });
+
+        Assert.assertEquals(records, scanned.get());
+
+        scanned.set(0);
+
+        imStorage.scan(0, MAX_SIZE, recordSize, (position, record) -> scanned.incrementAndGet() < 10);
+
+        Assert.assertEquals(10, scanned.get());
+    }
+
+    @Test
+    public void snapshotIsolation() {
+        imStorage.write(0, data);
+
+        try (ImTableSnapshot snapshot = imStorage.snapshot()) {
+            Assert.assertEquals(data.length, snapshot.end());
+
+            imStorage.write(0, new byte[data.length]);
+            imStorage.write(data.length, data);
+
+            Assert.assertEquals(data.length, snapshot.read(0, buffer));
+            Assert.assertArrayEquals(data, buffer);
+
+            Assert.assertEquals(0, snapshot.read(data.length, buffer));
+
+            try (ImTableSnapshot nextSnapshot = imStorage.snapshot()) {
+                imStorage.write(data.length, new byte[data.length]);
+
+                nextSnapshot.read(0, buffer);
+                Assert.assertArrayEquals(new byte[data.length], buffer);
 
-}
\ No newline at end of file
+                nextSnapshot.read(data.length, buffer);
+                Assert.assertArrayEquals(data, buffer);
+            }
+
+            snapshot.read(0, buffer);
+            Assert.assertArrayEquals(data, buffer);
+        }
+
+        imStorage.read(0, buffer);
+        Assert.assertArrayEquals(new byte[data.length], buffer);
+    }
+
+    @Test
+    public void snapshotEndExcludesWritesOfNextEpoch() throws Exception {
+        SnapshotEpochs epochs = new SnapshotEpochs();
+
+        long pinnedEpoch = epochs.enterWrite();
+
+        CompletableFuture<Long> pin = CompletableFuture.supplyAsync(epochs::pin);
+
+        // wait until pin moves table to the next epoch and write in it while write of pinned epoch is in flight
+        long nextEpoch;
+
+        while ((nextEpoch = epochs.enterWrite()) == pinnedEpoch) {
+            epochs.exitWrite(nextEpoch, 0);
+        }
+
+        epochs.exitWrite(nextEpoch, 1000);
+        epochs.exitWrite(pinnedEpoch, 100);
+
+        Assert.assertEquals(pinnedEpoch, (long) pin.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(100, epochs.end(pinnedEpoch));
+
+        Assert.assertEquals(1000, epochs.end(epochs.pin()));
+    }
+
+    @Test
+    public void snapshotScanWithConcurrentWrites() throws Exception {
+        // rows cross snapshot page boundaries
+        int recordSize = 3 * Long.BYTES;
+        int records = 100_000;
+
+        for (int i = 0; i < records; i++) {
+            imStorage.write((long) i * recordSize, new byte[recordSize]);
+        }
+
+        int threads = 4;
+
+        AtomicLong version = new AtomicLong();
+        CountDownLatch stopLatch = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int thread = 0; thread < threads; thread++) {
+            int seed = thread;
+
+            executor.submit(() -> {
+                Random random = new Random(seed);
+
+                while (stopLatch.getCount() > 0) {
+                    long value = version.incrementAndGet();
+
+                    ByteBuffer row = ByteBuffer.allocate(recordSize);
+
+                    for (int i = 0; i < 3; i++) {
+                        row.putLong(value);
+                    }
+
+                    imStorage.write((long) random.nextInt(records) * recordSize, row.array());
+                }
+            });
+        }
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                try (ImTableSnapshot snapshot = imStorage.snapshot()) {
+                    Assert.assertEquals((long) records * recordSize, snapshot.end());
+
+                    List<Long> values = new ArrayList<>();
+
+                    for (int attempt = 0; attempt < 2; attempt++) {
+                        List<Long> scanned = new ArrayList<>();
+
+                        snapshot.scan(0, snapshot.end(), recordSize, 1000, (position, rows, count) -> {
+                            ByteBuffer rowsBuffer = ByteBuffer.wrap(rows);
+
+                            for (int row = 0; row < count; row++) {
+                                long value = rowsBuffer.getLong(row * recordSize);
+
+                                Assert.assertEquals(value, rowsBuffer.getLong(row * recordSize + Long.BYTES));
+                                Assert.assertEquals(value, rowsBuffer.getLong(row * recordSize + 2 * Long.BYTES));
+
+                                scanned.add(value);
+                            }
+
+                            return true;
+                        });
+
+                        Assert.assertEquals(records, scanned.size());
+
+                        if (attempt == 0) {
+                            values = scanned;
+                        } else {
+                            Assert.assertEquals(values, scanned);
+                        }
+                    }
+                }
+            }
+        } finally {
+            stopLatch.countDown();
+
+            executor.shutdown();
+
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.fnklabs.dds.storage.im;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class TableCheckpointerTest {
+    private static final int MAX_SIZE = 16 * 1024 * 1024;
+
+    private static final int RECORDS = 100_000;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("checkpoint");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void restoreFromDeltas() throws Exception {
+        try (ImTableStorage storage = open()) {
+            write(storage, 0, RECORDS, 1);
+
+            Assert.assertEquals((long) RECORDS * Long.BYTES, storage.checkpoint());
+            Assert.assertEquals(0, storage.checkpoint());
+
+            // only modified page is written
+            storage.write(0, ByteBuffer.allocate(Long.BYTES).putLong(-1).array());
+
+            Assert.assertEquals(64 * 1024, storage.checkpoint());
+
+            write(storage, RECORDS, 10, 1);
+        }
+
+        try (ImTableStorage storage = open()) {
+            Assert.assertEquals((long) (RECORDS + 10) * Long.BYTES, storage.lastPosition());
+
+            Assert.assertEquals(-1, read(storage, 0));
+
+            for (int i = 1; i < RECORDS + 10; i++) {
+                Assert.assertEquals(i, read(storage, i));
+            }
+        }
+    }
+
+    @Test
+    public void restoreFromMergedDeltas() throws Exception {
+        try (ImTableStorage storage = open()) {
+            for (int multiplier = 1; multiplier <= 5; multiplier++) {
+                write(storage, 0, RECORDS, multiplier);
+
+                storage.checkpoint();
+            }
+        }
+
+        Assert.assertTrue(Files.exists(directory.resolve("base.data")));
+
+        try (ImTableStorage storage = open()) {
+            Assert.assertEquals((long) RECORDS * Long.BYTES, storage.lastPosition());
+
+            for (int i = 0; i < RECORDS; i++) {
+                Assert.assertEquals(5L * i, read(storage, i));
+            }
+        }
+    }
+
+    @Test
+    public void ignoreIncompleteDelta() throws Exception {
+        try (ImTableStorage storage = open()) {
+            write(storage, 0, 10, 1);
+        }
+
+        Files.write(directory.resolve("delta-0000000000000100.data.tmp"), new byte[]{0, 0, 0, 0, 1});
+
+        try (ImTableStorage storage = open()) {
+            Assert.assertEquals(10 * Long.BYTES, storage.lastPosition());
+            Assert.assertEquals(9, read(storage, 9));
+        }
+
+        Assert.assertFalse(Files.exists(directory.resolve("delta-0000000000000100.data.tmp")));
+    }
+
+    private ImTableStorage open() {
+        ImStorageOptions options = new ImStorageOptions(MAX_SIZE, 128).setSegmentSize(1024 * 1024)
+                                                                   .setCheckpointDirectory(directory)
+                                                                   .setCheckpointDeltas(2);
+
+        return (ImTableStorage) new ImStorageFactory().get(options);
+    }
+
+    private static void write(ImTableStorage storage, int from, int count, long multiplier) {
+        for (int i = from; i < from + count; i++) {
+            storage.write((long) i * Long.BYTES, ByteBuffer.allocate(Long.BYTES).putLong(i * multiplier).array());
+        }
+    }
+
+    private static long read(ImTableStorage storage, int index) {
+        byte[] value = new byte[Long.BYTES];
+
+        storage.read((long) index * Long.BYTES, value);
+
+        return ByteBuffer.wrap(value).getLong();
+    }
+}
@@ -26,11 +26,13 @@ import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Chunk state is modified only by owner shard of {@link com.fnklabs.concurrent.ShardedExecutor}, so inserts are single writer
+ */
 class ColumnarChunk implements TableEngine {
     private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarChunk.class);
 
@@ -40,7 +42,10 @@ class ColumnarChunk implements TableEngine {
     private final Range<Long> tokenRange;
 
 
-    private final AtomicLong items = new AtomicLong();
+    /**
+     * Written only by owner shard, volatile for readers from other threads
+     */
+    private volatile long items;
 
     private final Map<ColumnDefinition, Statistic> columnStatistic = new ConcurrentHashMap<>();
     private final Map<String, ColumnDefinition> columns = new HashMap<>();
@@ -118,7 +123,7 @@ class ColumnarChunk implements TableEngine {
 
     @Override
     public ResultSet query(Insert insert) {
-        long currentItems = items.getAndIncrement();
+        long currentItems = items;
 
         Verify.verify(currentItems < maxItems, "overflow");
 
@@ -141,6 +146,8 @@ class ColumnarChunk implements TableEngine {
             } ;
         }
 
+        items = currentItems + 1;
+
         return ResultSet.newBuilder().setWasApplied(true).build();
     }
 
@@ -189,7 +196,7 @@ class ColumnarChunk implements TableEngine {
         Statistic statistic = columnStatistic.get(columnDefinition);
 
         long from = statistic.startPosition();
-        long to = from + statistic.getSize() * items.get(); // last written position to avoid null scan
+        long to = from + statistic.getSize() * items; // last written position to avoid null scan
 
         AtomicLong itemIndex = new AtomicLong();
 
@@ -214,21 +221,29 @@ class ColumnarChunk implements TableEngine {
             return;
         }
 
-        byte[] buffer = new byte[columnDefinition.getSize()];
+        int size = statistic.getSize();
 
-        ExpressionEvaluator expressionEvaluator = EvaluatorFactory.get(expression);
+        long[] positions = new long[filteredResult.size()];
+        int count = 0;
+
+        for (Long itemIndex : filteredResult) {
+            positions[count++] = statistic.startPosition() + itemIndex * size;
+        }
+
+        // read values in address order
+        byte[] values = new byte[count * size];
 
-        Iterator<Long> iterator = filteredResult.iterator();
+        storage.read(positions, count, size, values);
 
-        while (iterator.hasNext()) {
-            Long itemIndex = iterator.next();
+        byte[] buffer = new byte[size];
 
-            long position = statistic.startPosition() + itemIndex * statistic.getSize();
+        ExpressionEvaluator expressionEvaluator = EvaluatorFactory.get(expression);
 
-            storage.read(position, buffer);
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(values, i * size, buffer, 0, size);
 
             if (!expressionEvaluator.evaluate(value, buffer)) {
-                filteredResult.remove(itemIndex);
+                filteredResult.remove((positions[i] - statistic.startPosition()) / size);
             }
         }
     }
@@ -1,13 +1,51 @@
 package com.fnklabs.dds.storage.columnar;
 
+import com.fnklabs.concurrent.Executors;
+import com.fnklabs.concurrent.ShardedExecutor;
 import com.fnklabs.dds.storage.TableStorage;
 import com.fnklabs.dds.table.TableDefinition;
 import com.fnklabs.dds.table.TableEngine;
 import com.fnklabs.dds.table.TableEngineFactory;
 
-public class ColumnarEngineFactory implements TableEngineFactory<ColumnarOptions> {
+/**
+ * Factory of columnar engines. Executor that is created by factory is closed with factory, provided executor is left to its owner
+ */
+public class ColumnarEngineFactory implements TableEngineFactory<ColumnarOptions>, AutoCloseable {
+    /**
+     * Executor that owns chunks of all created engines
+     */
+    private final ShardedExecutor executor;
+
+    /**
+     * Whether executor was created by factory
+     */
+    private final boolean ownsExecutor;
+
+    public ColumnarEngineFactory() {
+        this(Executors.shardPerCore("columnar-engine"), true);
+    }
+
+    public ColumnarEngineFactory(ShardedExecutor executor) {
+        this(executor, false);
+    }
+
+    private ColumnarEngineFactory(ShardedExecutor executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
     @Override
     public TableEngine get(ColumnarOptions tableEngineOptions, TableStorage tableStorage, TableDefinition tableDefinition) {
-        return new ColumnarTableEngine(tableDefinition, tableStorage, tableEngineOptions.getChunks(), tableEngineOptions.getChunkSize());
+        return new ColumnarTableEngine(tableDefinition, tableStorage, tableEngineOptions.getChunks(), tableEngineOptions.getChunkSize(), executor);
+    }
+
+    /**
+     * Stop executor that was created by factory, engines that were created by factory can't be queried after close
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.close();
+        }
     }
 }
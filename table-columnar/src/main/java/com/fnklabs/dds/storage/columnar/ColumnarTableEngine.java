@@ -1,5 +1,6 @@
 package com.fnklabs.dds.storage.columnar;
 
+import com.fnklabs.concurrent.ShardedExecutor;
 import com.fnklabs.dds.storage.TableStorage;
 import com.fnklabs.dds.table.*;
 import com.google.common.base.Verify;
@@ -12,8 +13,13 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Columnar table engine that splits token space into chunks. Every chunk is owned by shard of {@link ShardedExecutor} which token
+ * range contains chunk lower token, and all chunk modifications are executed by the owner shard.
+ */
 class ColumnarTableEngine implements TableEngine {
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(ColumnarTableEngine.class);
 
@@ -21,6 +27,11 @@ class ColumnarTableEngine implements TableEngine {
 
     private final Map<Range<Long>, ColumnarChunk> chunks = new ConcurrentHashMap<>();
 
+    /**
+     * Owner shard of every chunk
+     */
+    private final Map<ColumnarChunk, Integer> chunkShards = new ConcurrentHashMap<>();
+
     private final ColumnDefinition primary;
 
     private final HashFunction hashFunction = Hashing.murmur3_32();
@@ -29,9 +40,12 @@ class ColumnarTableEngine implements TableEngine {
     private final long chunkSize;
     private final TableStorage tableStorage;
 
-    ColumnarTableEngine(TableDefinition tableDefinition, TableStorage storage, int vNodes, long chunkSize) {
+    private final ShardedExecutor executor;
+
+    ColumnarTableEngine(TableDefinition tableDefinition, TableStorage storage, int vNodes, long chunkSize, ShardedExecutor executor) {
         this.tableDefinition = tableDefinition;
         this.tableStorage = storage;
+        this.executor = executor;
         this.vNodes = vNodes;
         this.chunkSize = chunkSize;
 
@@ -52,7 +66,10 @@ class ColumnarTableEngine implements TableEngine {
 
             Range<Long> tokenRange = to == Long.MAX_VALUE ? Range.closed(from, to) : Range.closedOpen(from, to);
 
-            chunks.put(tokenRange, new ColumnarChunk(chunkId++, chunkSize, tableDefinition, tableStorage, tokenRange));
+            ColumnarChunk chunk = new ColumnarChunk(chunkId++, chunkSize, tableDefinition, tableStorage, tokenRange);
+
+            chunks.put(tokenRange, chunk);
+            chunkShards.put(chunk, executor.shardOf(from));
 
             from = to;
         }
@@ -83,7 +100,17 @@ class ColumnarTableEngine implements TableEngine {
 
         ColumnarChunk chunkForKey = getChunkForKey(primaryKeyValue);
 
-        return chunkForKey.query(insert);
+        try {
+            return executor.submitBlocking(chunkShards.get(chunkForKey), () -> chunkForKey.query(insert))
+                           .join();
+        } catch (CompletionException e) {
+            // chunk failure is reported as is
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
     }
 
     @Override